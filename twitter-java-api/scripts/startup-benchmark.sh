@@ -0,0 +1,65 @@
+#!/usr/bin/env sh
+# Startup benchmark: time from "java" launch to the first answered HTTP request.
+#
+# Usage (after "mvn -Paot clean package", with PostgreSQL + the usual env vars set):
+#   scripts/startup-benchmark.sh [runs]
+#
+# Compares: fat jar | extracted jar | extracted + CDS | extracted + CDS + AOT.
+# Any HTTP status counts as "answered" (the server is accepting requests).
+
+set -eu
+
+RUNS="${1:-5}"
+PORT="${PORT:-8080}"
+URL="http://localhost:${PORT}/actuator/health"
+WORK="target/startup-benchmark"
+
+JAR="$(ls target/*.jar | grep -v original | head -n 1)"
+rm -rf "$WORK" && mkdir -p "$WORK"
+cp "$JAR" "$WORK/fat.jar"
+java -Djarmode=tools -jar "$WORK/fat.jar" extract --destination "$WORK/extracted" >/dev/null
+mv "$WORK/extracted/fat.jar" "$WORK/extracted/app.jar"
+
+now_ms() { date +%s%3N; }
+
+# Runs the app once, prints milliseconds until the first answered request, then stops it
+time_to_first_request() {
+    start=$(now_ms)
+    java "$@" >"$WORK/app.log" 2>&1 &
+    pid=$!
+    while ! curl -s -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "App exited, see $WORK/app.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    end=$(now_ms)
+    kill "$pid" && wait "$pid" 2>/dev/null || true
+    echo $((end - start))
+}
+
+median() { sort -n | awk '{ a[NR] = $1 } END { print a[int((NR + 1) / 2)] }'; }
+
+bench() {
+    label="$1"; shift
+    results=""
+    i=0
+    while [ "$i" -lt "$RUNS" ]; do
+        results="$results $(time_to_first_request "$@")"
+        i=$((i + 1))
+    done
+    printf '%-28s median %6s ms   runs:%s\n' "$label" "$(echo "$results" | tr ' ' '\n' | grep . | median)" "$results"
+}
+
+# CDS training run (same flags as the Dockerfile)
+java -XX:ArchiveClassesAtExit="$WORK/app.jsa" -Dspring.context.exit=onRefresh \
+    -Dspring.flyway.enabled=false -Dspring.jpa.hibernate.ddl-auto=none \
+    -Dspring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect \
+    -Dspring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false \
+    -jar "$WORK/extracted/app.jar" >"$WORK/training.log" 2>&1
+
+bench "fat jar"                     -jar "$WORK/fat.jar"
+bench "extracted"                   -jar "$WORK/extracted/app.jar"
+bench "extracted + CDS"             -XX:SharedArchiveFile="$WORK/app.jsa" -jar "$WORK/extracted/app.jar"
+bench "extracted + CDS + AOT"       -XX:SharedArchiveFile="$WORK/app.jsa" -Dspring.aot.enabled=true -jar "$WORK/extracted/app.jar"
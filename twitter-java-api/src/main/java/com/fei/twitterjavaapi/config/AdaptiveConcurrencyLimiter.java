@@ -0,0 +1,222 @@
+package com.fei.twitterjavaapi.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Adaptive concurrency limit (TCP Vegas style) for DB-bound work.
+ * <p>
+ * Virtual threads are unbounded, the Hikari pool is not. Instead of letting thousands of
+ * requests wait on the pool until they time out, only {@code limit} run at once and the
+ * limit follows the measured latency:
+ *
+ * <pre>
+ * Queue = Limit * (1 - MinRtt / Rtt)    (requests "standing in line" inside the DB)
+ * Queue &lt; Alpha -> Limit + 1             (latency flat, there is room)
+ * Queue &gt; Beta  -> Limit - 1             (latency rising, back off)
+ * Error/Timeout -> Limit * 0.9
+ * </pre>
+ *
+ * Requests over the limit wait in line up to {@code max-queue-wait}, then get rejected
+ * (the caller answers 503 + Retry-After) rather than waiting for a result nobody reads.
+ */
+@Component
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long maxQueueWaitNanos;
+    private final int maxQueueSize;
+    private final int probeInterval;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+
+    // Guarded by lock
+    private double limit;
+    private int inflight = 0;
+    private int queued = 0;
+    private long minRttNanos = Long.MAX_VALUE;     // "No load" latency
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private int samples = 0;
+
+    private final Timer queueWait;
+    private final Counter rejected;
+
+    public AdaptiveConcurrencyLimiter(MeterRegistry meterRegistry,
+                                      @Value("${app.concurrency.initial-limit:20}") int initialLimit,
+                                      @Value("${app.concurrency.min-limit:5}") int minLimit,
+                                      @Value("${app.concurrency.max-limit:200}") int maxLimit,
+                                      @Value("${app.concurrency.max-queue-wait-ms:500}") long maxQueueWaitMs,
+                                      @Value("${app.concurrency.max-queue-size:1000}") int maxQueueSize,
+                                      @Value("${app.concurrency.probe-interval:1000}") int probeInterval) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMs);
+        this.maxQueueSize = maxQueueSize;
+        this.probeInterval = probeInterval;
+
+        Gauge.builder("app.concurrency.limit", this, l -> l.snapshot(() -> l.limit)).register(meterRegistry);
+        Gauge.builder("app.concurrency.inflight", this, l -> l.snapshot(() -> l.inflight)).register(meterRegistry);
+        Gauge.builder("app.concurrency.queued", this, l -> l.snapshot(() -> l.queued)).register(meterRegistry);
+        this.queueWait = Timer.builder("app.concurrency.queue.wait").register(meterRegistry);
+        this.rejected = Counter.builder("app.concurrency.rejected").register(meterRegistry);
+    }
+
+    /**
+     * Waits for a slot (bounded by max-queue-wait).
+     *
+     * @return The permit to release when done, or empty if it could not be served in time
+     */
+    public Optional<Permit> tryAcquire() throws InterruptedException {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            if (inflight >= (int) limit) {
+                // Line is already longer than we can drain in time
+                if (queued >= maxQueueSize) {
+                    rejected.increment();
+                    return Optional.empty();
+                }
+
+                queued++;
+                try {
+                    long remaining = maxQueueWaitNanos;
+                    while (inflight >= (int) limit) {
+                        if (remaining <= 0) {
+                            rejected.increment();
+                            return Optional.empty();
+                        }
+                        remaining = slotFreed.awaitNanos(remaining);
+                    }
+                } finally {
+                    queued--;
+                    queueWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            inflight++;
+            return Optional.of(new Permit(System.nanoTime(), inflight));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Requests currently waiting for a slot (> 0 = the DB can't keep up with demand)
+    public int queued() {
+        return snapshot(() -> queued);
+    }
+
+    // Suggested client back-off: about one no-load round trip per queued request, at least 1s
+    public long retryAfterSeconds() {
+        return snapshot(() -> Math.max(1, Duration.ofNanos(
+                minRttNanos == Long.MAX_VALUE ? 0 : minRttNanos * Math.max(queued, 1)).toSeconds()));
+    }
+
+    private void release(Permit permit, boolean dropped) {
+        long rtt = System.nanoTime() - permit.startNanos();
+        lock.lock();
+        try {
+            inflight--;
+            updateLimit(rtt, permit.inflightAtStart(), dropped);
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void updateLimit(long rtt, int inflightAtStart, boolean dropped) {
+        // Re-probe the "no load" latency every N samples (plans, data size and hardware change)
+        windowMinRttNanos = Math.min(windowMinRttNanos, rtt);
+        if (++samples >= probeInterval) {
+            minRttNanos = windowMinRttNanos;
+            windowMinRttNanos = Long.MAX_VALUE;
+            samples = 0;
+        }
+        minRttNanos = Math.min(minRttNanos, rtt);
+
+        double newLimit;
+        if (dropped) {
+            newLimit = limit * 0.9;
+        } else if (inflightAtStart * 2 < limit) {
+            // Not using the limit: latency says nothing about it, don't grow it
+            return;
+        } else {
+            double queue = limit * (1 - (double) minRttNanos / rtt);
+            double alpha = 3 * Math.log10(Math.max(limit, 10));
+            double beta = 6 * Math.log10(Math.max(limit, 10));
+
+            if (queue < alpha) {
+                newLimit = limit + 1;
+            } else if (queue > beta) {
+                newLimit = limit - 1;
+            } else {
+                return;
+            }
+        }
+
+        newLimit = Math.clamp(newLimit, minLimit, maxLimit);
+        if ((int) newLimit != (int) limit) {
+            log.debug("Concurrency limit {} -> {} (rtt {} ms, min {} ms)", (int) limit, (int) newLimit,
+                    TimeUnit.NANOSECONDS.toMillis(rtt), TimeUnit.NANOSECONDS.toMillis(minRttNanos));
+        }
+        limit = newLimit;
+    }
+
+    private <T extends Number> T snapshot(Supplier<T> read) {
+        lock.lock();
+        try {
+            return read.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public final class Permit {
+        private final long startNanos;
+        private final int inflightAtStart;
+        private boolean released = false;
+
+        private Permit(long startNanos, int inflightAtStart) {
+            this.startNanos = startNanos;
+            this.inflightAtStart = inflightAtStart;
+        }
+
+        long startNanos() {
+            return startNanos;
+        }
+
+        int inflightAtStart() {
+            return inflightAtStart;
+        }
+
+        public void success() {
+            finish(false);
+        }
+
+        // 5xx / timeout: the DB is struggling, shrink the limit
+        public void dropped() {
+            finish(true);
+        }
+
+        private void finish(boolean dropped) {
+            if (released) return;
+            released = true;
+            release(this, dropped);
+        }
+    }
+}
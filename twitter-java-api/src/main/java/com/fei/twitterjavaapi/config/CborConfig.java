@@ -0,0 +1,25 @@
+package com.fei.twitterjavaapi.config;
+
+import org.springframework.boot.http.converter.autoconfigure.ServerHttpMessageConvertersCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+/**
+ * CBOR (RFC 8949) responses: {@code Accept: application/cbor} on any endpoint.
+ * <p>
+ * Same DTO records and the same Jackson settings as JSON (Boot's CBORMapper), only the encoding
+ * changes: binary numbers, length-prefixed strings, nothing to escape or tokenize on the client.
+ * Any other Accept header (or none) still gets JSON, the JSON converter comes first.
+ * See SerializationBenchmark (src/test) for size / speed per page.
+ */
+@Configuration
+public class CborConfig {
+
+    // Spring's default CBOR converter has its own mapper: use the one configured by spring.jackson.*
+    @Bean
+    public ServerHttpMessageConvertersCustomizer cborMessageConverterCustomizer(CBORMapper cborMapper) {
+        return builder -> builder.withCborConverter(new JacksonCborHttpMessageConverter(cborMapper));
+    }
+}
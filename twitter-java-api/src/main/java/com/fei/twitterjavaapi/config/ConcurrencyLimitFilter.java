@@ -0,0 +1,91 @@
+package com.fei.twitterjavaapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fei.twitterjavaapi.model.dto.common.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Puts every API request through the AdaptiveConcurrencyLimiter before it can reach the DB.
+ * Long-lived SSE streams are skipped (they hold no DB connection while open).
+ */
+@Component
+@Order(3) // After rate limiting + guest cache (cache hits never touch the DB)
+@RequiredArgsConstructor
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.concurrency.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return !enabled
+                || !path.startsWith("/api")
+                || (accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE));
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        Optional<AdaptiveConcurrencyLimiter.Permit> permit;
+        try {
+            permit = limiter.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            permit = Optional.empty();
+        }
+
+        if (permit.isEmpty()) {
+            reject(request, response);
+            return;
+        }
+
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            if (failed) {
+                permit.get().dropped();
+            } else {
+                permit.get().success();
+            }
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(limiter.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                503,
+                "Service Unavailable",
+                "Server is busy. Please retry shortly.",
+                request.getRequestURI(),
+                null
+        );
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
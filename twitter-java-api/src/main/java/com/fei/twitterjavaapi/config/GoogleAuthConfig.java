@@ -0,0 +1,40 @@
+package com.fei.twitterjavaapi.config;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collections;
+
+@Configuration
+public class GoogleAuthConfig {
+
+    @Value("${spring.security.oauth2.client.registration.google.client-id}")
+    private String googleClientId;
+
+    // Where Google's signing certificates are downloaded from.
+    // Point this at a local stand-in to verify tokens without reaching Google (tests/offline).
+    @Value("${app.auth.google.public-certs-url:https://www.googleapis.com/oauth2/v1/certs}")
+    private String publicCertsUrl;
+
+    // Shared key cache: keeps the downloaded public keys in memory until the
+    // Cache-Control max-age sent by Google expires, then refreshes them.
+    @Bean
+    public GooglePublicKeysManager googlePublicKeysManager() {
+        return new GooglePublicKeysManager.Builder(new NetHttpTransport(), GsonFactory.getDefaultInstance())
+                .setPublicCertsEncodedUrl(publicCertsUrl)
+                .build();
+    }
+
+    // Thread-safe singleton. Every login reuses the same cached keys instead of downloading them again.
+    @Bean
+    public GoogleIdTokenVerifier googleIdTokenVerifier(GooglePublicKeysManager googlePublicKeysManager) {
+        return new GoogleIdTokenVerifier.Builder(googlePublicKeysManager)
+                .setAudience(Collections.singletonList(googleClientId))
+                .build();
+    }
+}
@@ -0,0 +1,196 @@
+package com.fei.twitterjavaapi.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Shared response cache for guest reads (feed, tweet detail, profiles).
+ * <p>
+ * Every guest gets the same bytes for the same URL, so the first request renders the page
+ * and everyone else within the TTL gets the cached copy.
+ * <ul>
+ * <li><strong>ETag:</strong> Strong (SHA-256 of the body). A matching If-None-Match gets
+ * a body-less 304.</li>
+ * <li><strong>Cache-Control:</strong> public + max-age = TTL, so a CDN / reverse proxy
+ * can absorb guest traffic too.</li>
+ * <li><strong>Vary: Authorization:</strong> Set on every response of these endpoints,
+ * so a shared cache never hands a guest page to a logged-in user (or the reverse).</li>
+ * <li><strong>Vary: Accept:</strong> JSON and CBOR (CborConfig) are cached as separate entries.</li>
+ * </ul>
+ * Requests with an Authorization header are never cached (they contain viewer state).
+ */
+@Component
+@Order(2) // After rate limiting
+@Slf4j
+public class GuestResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final List<PathPattern> CACHEABLE_PATHS = Stream.of(
+            "/api/v1/feeds/global",
+            "/api/v1/feeds/user/{userId}",
+            "/api/v1/feeds/user/{userId}/cursor",
+            "/api/v1/tweets/{id}",
+            "/api/v1/tweets/{id}/replies",
+            "/api/v1/tweets/{id}/replies/cursor",
+            "/api/v1/tweets/{id}/conversation",
+            "/api/v1/users/{id}",
+            "/api/v1/users/{id}/followers",
+            "/api/v1/users/{id}/following"
+    ).map(PathPatternParser.defaultInstance::parse).toList();
+
+    private final boolean enabled;
+    private final long ttlSeconds;
+    private final Cache<String, CachedResponse> cache;
+
+    public GuestResponseCacheFilter(@Value("${app.http.guest-cache.enabled:true}") boolean enabled,
+                                    @Value("${app.http.guest-cache.ttl-seconds:5}") long ttlSeconds,
+                                    @Value("${app.http.guest-cache.max-size-mb:64}") long maxSizeMb) {
+        this.enabled = enabled;
+        this.ttlSeconds = ttlSeconds;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumWeight(maxSizeMb * 1024 * 1024)
+                .<String, CachedResponse>weigher((key, value) -> value.body().length + key.length())
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !"GET".equals(request.getMethod())) return true;
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        PathContainer container = PathContainer.parsePath(path);
+        return CACHEABLE_PATHS.stream().noneMatch(pattern -> pattern.matches(container));
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        // Shared caches must key on the token too (these URLs also serve logged-in users)
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION); // add: keeps CORS "Vary: Origin"
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+        // Logged in? Viewer state (likedByMe, isFollowing...) makes the response personal
+        if (request.getHeader(HttpHeaders.AUTHORIZATION) != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = cacheKey(request);
+
+        // 1. Hit
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            write(request, response, cached);
+            return;
+        }
+
+        // 2. Miss: render, keep successful responses only
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        byte[] body = wrapper.getContentAsByteArray();
+        CachedResponse fresh = new CachedResponse(body, wrapper.getContentType(), etag(body));
+        cache.put(key, fresh);
+
+        // Nothing was sent yet (the wrapper buffered it): answer exactly like a hit
+        write(request, response, fresh);
+    }
+
+    private void write(HttpServletRequest request, HttpServletResponse response, CachedResponse cached)
+            throws IOException {
+        response.setHeader(HttpHeaders.ETAG, cached.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=" + ttlSeconds);
+
+        // 3. Conditional GET: client already has these exact bytes
+        if (etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), cached.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType());
+        response.setContentLength(cached.body().length);
+        response.getOutputStream().write(cached.body());
+    }
+
+    // If-None-Match uses weak comparison: W/"x" matches "x"
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.replaceFirst("^W/", "").equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String cacheKey(HttpServletRequest request) {
+        String query = request.getQueryString();
+        String url = query == null ? request.getRequestURI() : request.getRequestURI() + "?" + query;
+        return prefersCbor(request) ? "cbor:" + url : url;
+    }
+
+    // Keyed on the negotiated format, not the raw header (browsers send dozens of Accept variants)
+    static boolean prefersCbor(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || !accept.contains("cbor")) return false;
+        try {
+            // Same order MVC negotiates in: quality, then specificity, then header order
+            List<MediaType> types = MediaType.parseMediaTypes(accept);
+            MimeTypeUtils.sortBySpecificity(types);
+            for (MediaType type : types) {
+                if (type.includes(MediaType.APPLICATION_JSON)) return false; // Also */*: JSON is the first converter
+                if (type.includes(MediaType.APPLICATION_CBOR)) return true;
+            }
+            return false;
+        } catch (InvalidMediaTypeException e) {
+            return false; // Rejected by MVC anyway (not a 200, never cached)
+        }
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record CachedResponse(byte[] body, String contentType, String etag) {
+    }
+}
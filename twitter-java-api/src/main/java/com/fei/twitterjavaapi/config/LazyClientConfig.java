@@ -0,0 +1,43 @@
+package com.fei.twitterjavaapi.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the external storage clients on first use instead of at startup.
+ * <p>
+ * The Azure Blob clients (credential chain, HTTP pipeline, Netty) are auto-configured as
+ * eager singletons and add noticeably to cold start, while most pods serve many requests
+ * before the first upload. Their bean definitions are switched to lazy here; FileStorageService
+ * only resolves them when a file is actually uploaded or deleted.
+ * <p>
+ * Also applies to AOT builds: the lazy flag is baked into the generated bean definitions.
+ */
+@Configuration
+@Slf4j
+public class LazyClientConfig {
+
+    private static final String AZURE_STORAGE_PACKAGE = "com.azure.storage.";
+
+    // Static: bean factory post-processors must exist before any other bean is created
+    @Bean
+    static BeanFactoryPostProcessor lazyAzureClients() {
+        return beanFactory -> markLazy(beanFactory, AZURE_STORAGE_PACKAGE);
+    }
+
+    private static void markLazy(ConfigurableListableBeanFactory beanFactory, String packagePrefix) {
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            // Type from the definition only (no FactoryBean is instantiated here)
+            Class<?> type = beanFactory.getType(name, false);
+            if (type == null || !type.getName().startsWith(packagePrefix)) continue;
+
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            definition.setLazyInit(true);
+            log.debug("Lazy client bean: {} ({})", name, type.getSimpleName());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.fei.twitterjavaapi.config;
+
+import com.fei.twitterjavaapi.mapper.NormalizedTweetMapper;
+import com.fei.twitterjavaapi.model.dto.common.CursorResponse;
+import com.fei.twitterjavaapi.model.dto.common.PageResponse;
+import com.fei.twitterjavaapi.model.dto.tweet.TweetResponse;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.NonNull;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * {@code ?shape=normalized} on any endpoint returning tweet pages (feeds, search, replies):
+ * the body becomes a NormalizedTweetsResponse, each author sent once as a UserSummary.
+ * Without the parameter nothing changes. Runs after SnapshotManager / the guest cache,
+ * which key on the full URL, so both shapes are cached separately.
+ */
+@RestControllerAdvice
+@RequiredArgsConstructor
+public class NormalizedResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String SHAPE_PARAM = "shape";
+    public static final String NORMALIZED = "normalized";
+
+    private final NormalizedTweetMapper normalizedTweetMapper;
+
+    // Decided once per handler method: PageResponse<TweetResponse> / CursorResponse<TweetResponse> (or in a ResponseEntity)
+    @Override
+    public boolean supports(@NonNull MethodParameter returnType,
+                            @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
+        ResolvableType type = ResolvableType.forMethodParameter(returnType);
+        if (HttpEntity.class.isAssignableFrom(type.toClass())) {
+            type = type.getGeneric(0);
+        }
+        Class<?> envelope = type.toClass();
+        return (envelope == PageResponse.class || envelope == CursorResponse.class)
+                && type.getGeneric(0).toClass() == TweetResponse.class;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object beforeBodyWrite(Object body,
+                                  @NonNull MethodParameter returnType,
+                                  @NonNull MediaType selectedContentType,
+                                  @NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  @NonNull ServerHttpRequest request,
+                                  @NonNull ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)
+                || !NORMALIZED.equals(servletRequest.getServletRequest().getParameter(SHAPE_PARAM))) {
+            return body;
+        }
+
+        if (body instanceof PageResponse<?> page) {
+            return normalizedTweetMapper.fromPage((PageResponse<TweetResponse>) page);
+        }
+        if (body instanceof CursorResponse<?> cursor) {
+            return normalizedTweetMapper.fromCursor((CursorResponse<TweetResponse>) cursor);
+        }
+        return body;
+    }
+}
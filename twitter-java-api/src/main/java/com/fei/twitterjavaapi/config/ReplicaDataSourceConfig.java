@@ -0,0 +1,73 @@
+package com.fei.twitterjavaapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Primary + read replicas (only when app.datasource.replicas.enabled=true).
+ * <p>
+ * Without it, Spring Boot's single auto-configured DataSource is used as before.
+ * Replicas share the primary's credentials and driver; only the URL differs.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Value("${app.datasource.replicas.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${app.datasource.replicas.pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${app.datasource.replicas.max-lag-ms:2000}")
+    private long maxLagMs;
+
+    @Value("${app.datasource.replicas.read-your-writes-ms:5000}")
+    private long readYourWritesMs;
+
+    // Same as Boot's default DataSource (spring.datasource.* + spring.datasource.hikari.*)
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties properties) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(replicaUrls.get(i).trim())
+                    .build();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLagMs, Duration.ofMillis(readYourWritesMs));
+    }
+
+    // What JPA / Flyway / JdbcTemplate get. Lazy: the real connection (and so the routing
+    // decision) waits for the first statement, after @Transactional(readOnly) is applied.
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
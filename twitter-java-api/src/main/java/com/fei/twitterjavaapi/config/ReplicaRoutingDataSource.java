@@ -0,0 +1,171 @@
+package com.fei.twitterjavaapi.config;
+
+import com.fei.twitterjavaapi.model.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a replica, everything else to the primary.
+ * <p>
+ * Must sit behind a LazyConnectionDataSourceProxy: the connection is only fetched on the
+ * first statement, when the transaction's read-only flag is already known.
+ * <ul>
+ * <li><strong>Health:</strong> Each replica is probed every few seconds. Down or lagging
+ * more than {@code maxLag} = skipped. No healthy replica = primary.</li>
+ * <li><strong>Read-your-writes:</strong> After a user commits a write, their reads stay on
+ * the primary for a short window (so they always see their own tweet / like / follow).</li>
+ * </ul>
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    // Lag = 0 when everything received is replayed (an idle primary is not "lag")
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM NOW() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            END
+            """;
+
+    private final List<Replica> replicas;
+    private final long maxLagMs;
+    private final Cache<Long, Boolean> recentWriters;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicaDataSources,
+                             long maxLagMs, Duration readYourWritesWindow) {
+        this.replicas = replicaDataSources.stream().map(Replica::new).toList();
+        this.maxLagMs = maxLagMs;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach(r -> targets.put(r.name(), r.dataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long userId = currentUserId();
+
+        // 1. Writes -> primary (and remember the writer once it commits)
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            markWriterOnCommit(userId);
+            return PRIMARY;
+        }
+
+        // 2. Read-your-writes: this user just wrote, the replicas may not have it yet
+        if (userId != null && recentWriters.getIfPresent(userId) != null) {
+            return PRIMARY;
+        }
+
+        // 3. Round-robin over healthy replicas
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isHealthy()) {
+                return replica.name();
+            }
+        }
+        return PRIMARY;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.health-check-interval-ms:2000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.isHealthy();
+            try (Connection connection = replica.dataSource().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                rs.next();
+                long lagMs = (long) rs.getDouble(1);
+                replica.update(lagMs <= maxLagMs, lagMs);
+            } catch (Exception e) {
+                replica.update(false, -1);
+            }
+
+            if (wasHealthy != replica.isHealthy()) {
+                log.warn("Replica {} is now {} (lag {} ms)", replica.name(),
+                        replica.isHealthy() ? "IN rotation" : "OUT of rotation", replica.lagMs());
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(r -> r.dataSource().close());
+    }
+
+    private void markWriterOnCommit(Long userId) {
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(userId, Boolean.TRUE);
+            }
+        });
+    }
+
+    private static Long currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getPrincipal() instanceof User user ? user.getId() : null;
+    }
+
+    private static final class Replica {
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy = false; // Out of rotation until the first probe passes
+        private volatile long lagMs = -1;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        String name() {
+            return dataSource.getPoolName();
+        }
+
+        HikariDataSource dataSource() {
+            return dataSource;
+        }
+
+        boolean isHealthy() {
+            return healthy;
+        }
+
+        long lagMs() {
+            return lagMs;
+        }
+
+        void update(boolean healthy, long lagMs) {
+            this.healthy = healthy;
+            this.lagMs = lagMs;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.fei.twitterjavaapi.controller;
+
+import com.fei.twitterjavaapi.model.dto.bootstrap.BootstrapResponse;
+import com.fei.twitterjavaapi.model.entity.User;
+import com.fei.twitterjavaapi.service.BootstrapService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/bootstrap")
+@RequiredArgsConstructor
+public class BootstrapController {
+
+    private final BootstrapService bootstrapService;
+
+    // Home screen in one request (me, first feed page, unread count, trending, suggestions)
+    @GetMapping
+    public ResponseEntity<BootstrapResponse> bootstrap(@AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(bootstrapService.load(user));
+    }
+}
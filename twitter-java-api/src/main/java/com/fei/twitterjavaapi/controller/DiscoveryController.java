@@ -1,5 +1,6 @@
 package com.fei.twitterjavaapi.controller;
 
+import com.fei.twitterjavaapi.manager.SnapshotManager;
 import com.fei.twitterjavaapi.model.dto.common.PageResponse;
 import com.fei.twitterjavaapi.model.dto.hashtag.TrendingHashtagDTO;
 import com.fei.twitterjavaapi.model.dto.user.UserResponse;
@@ -21,6 +22,7 @@ import java.util.List;
 public class DiscoveryController {
 
     private final DiscoveryService discoveryService;
+    private final SnapshotManager snapshotManager;
 
     @GetMapping("/trending")
     public ResponseEntity<List<TrendingHashtagDTO>> getTrendingHashtags(
@@ -29,7 +31,9 @@ public class DiscoveryController {
         // Capping the limit to prevent malicious requests asking for 100,000 tags
         int safeLimit = Math.min(limit, 50);
 
-        return ResponseEntity.ok(discoveryService.getTrendingHashtags(safeLimit));
+        // Staleness-tolerant: last good result while the DB is overloaded
+        return ResponseEntity.ok(snapshotManager.get("trending:" + safeLimit,
+                () -> discoveryService.getTrendingHashtags(safeLimit)));
     }
 
     @GetMapping("/users")
@@ -38,6 +42,8 @@ public class DiscoveryController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size
     ) {
-        return ResponseEntity.ok(discoveryService.getSuggestedUsers(user, page, size));
+        String key = "suggestions:" + (user != null ? user.getId() : "guest") + ":" + page + ":" + size;
+        return ResponseEntity.ok(snapshotManager.get(key,
+                () -> discoveryService.getSuggestedUsers(user, page, size)));
     }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.fei.twitterjavaapi.controller;
 
+import com.fei.twitterjavaapi.manager.SnapshotManager;
+import com.fei.twitterjavaapi.model.dto.common.CursorResponse;
 import com.fei.twitterjavaapi.model.dto.common.PageResponse;
 import com.fei.twitterjavaapi.model.dto.tweet.TweetResponse;
 import com.fei.twitterjavaapi.model.entity.User;
@@ -15,6 +17,7 @@ import org.springframework.web.bind.annotation.*;
 public class FeedController {
 
     private final FeedService feedService;
+    private final SnapshotManager snapshotManager;
 
     // Global / For you (Public)
     @GetMapping("/global")
@@ -23,7 +26,9 @@ public class FeedController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size
     ) {
-        return ResponseEntity.ok(feedService.getForYouFeed(user, page, size));
+        // Staleness-tolerant: last good page while the DB is overloaded
+        String key = "for-you:" + (user != null ? user.getId() : "guest") + ":" + page + ":" + size;
+        return ResponseEntity.ok(snapshotManager.get(key, () -> feedService.getForYouFeed(user, page, size)));
     }
 
     // Following Timeline
@@ -36,6 +41,29 @@ public class FeedController {
         return ResponseEntity.ok(feedService.getFollowingTimeline(user, page, size));
     }
 
+    // Keyset-paged variants: pass back "nextCursor" to get the next (older) page
+    @GetMapping("/following/cursor")
+    public ResponseEntity<CursorResponse<TweetResponse>> getFollowingFeedByCursor(
+            @AuthenticationPrincipal User user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(feedService.getFollowingTimelineByCursor(user, cursor, Math.min(size, 50)));
+    }
+
+    // Newer than "cursor" (the newest tweet the client has), oldest first: prepend, then call again
+    // with after=nextCursor while !last. Starts a few seconds before the cursor (late commits),
+    // so skip the IDs already shown.
+    @GetMapping("/following/since")
+    public ResponseEntity<CursorResponse<TweetResponse>> getFollowingFeedSince(
+            @AuthenticationPrincipal User user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(feedService.getFollowingTimelineSince(user, cursor, after, Math.min(size, 50)));
+    }
+
     @GetMapping("/user/{userId}")
     public ResponseEntity<PageResponse<TweetResponse>> getUserProfileFeed(
             @AuthenticationPrincipal User user,
@@ -46,4 +74,14 @@ public class FeedController {
         PageResponse<TweetResponse> tweetPage = feedService.getUserTweets(user, userId, page, size);
         return ResponseEntity.ok(tweetPage);
     }
+
+    @GetMapping("/user/{userId}/cursor")
+    public ResponseEntity<CursorResponse<TweetResponse>> getUserProfileFeedByCursor(
+            @AuthenticationPrincipal User user,
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(feedService.getUserTweetsByCursor(user, userId, cursor, Math.min(size, 50)));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.fei.twitterjavaapi.controller;
+
+import com.fei.twitterjavaapi.exception.ResourceNotFoundException;
+import com.fei.twitterjavaapi.service.MediaCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Media read-through proxy: {@code /media/{key}} serves blobs from the local disk cache (MediaCache).
+ * <p>
+ * Supports single {@code Range} requests (video seeking) and {@code If-None-Match}.
+ * The body is handed to Tomcat's sendfile (kernel zero-copy) when the connector supports it,
+ * otherwise streamed with {@code FileChannel.transferTo}. The file is pinned in MediaCache for the whole
+ * handler, so eviction can't delete it before it's opened (by sendfile: after a grace period).
+ * Outside /api on purpose: a feed page loads dozens of images, the API rate limit doesn't fit.
+ */
+@RestController
+@ConditionalOnProperty(name = "app.media.proxy.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class MediaController {
+
+    // Blob names never change content: clients and CDNs may keep them forever
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private final MediaCache mediaCache;
+
+    @RequestMapping(value = "/media/{key}", method = { RequestMethod.GET, RequestMethod.HEAD })
+    public void serve(@PathVariable String key, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (key.isBlank() || key.contains("/") || key.contains("\\") || key.contains("..")) {
+            throw new ResourceNotFoundException("Media", "key", key);
+        }
+
+        try (MediaCache.Pin pin = mediaCache.pin(key)) {
+            serve(pin, request, response);
+        }
+    }
+
+    private void serve(MediaCache.Pin pin, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        MediaCache.CachedMedia media = pin.media();
+        long size = media.size();
+
+        response.setHeader(HttpHeaders.ETAG, media.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        // 1. Conditional GET
+        if (etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), media.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        // 2. Range (ignored if If-Range names another version)
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(media.etag()))) {
+            long[] bounds = parseRange(range, size);
+            if (bounds == null) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentType(media.contentType() != null ? media.contentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) return;
+
+        // 3. Body
+        if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            pin.handOff(); // Tomcat opens the file after this returns
+            request.setAttribute("org.apache.tomcat.sendfile.filename", media.path().toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", start);
+            request.setAttribute("org.apache.tomcat.sendfile.end", end + 1); // Exclusive
+        } else {
+            // Opened while pinned: once open, the stream doesn't depend on the cache entry any more
+            try (FileChannel file = FileChannel.open(media.path(), StandardOpenOption.READ)) {
+                WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+                long position = start;
+                while (position <= end) {
+                    position += file.transferTo(position, end + 1 - position, out);
+                }
+            }
+        }
+        mediaCache.recordServed(length);
+    }
+
+    // Weak comparison, like GuestResponseCacheFilter: W/"x" matches "x"
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) return false;
+        String bare = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || (c.startsWith("W/") ? c.substring(2) : c).equals(bare)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * "bytes=0-499", "bytes=500-", "bytes=-500" (last 500 bytes).
+     *
+     * @return {start, end} (inclusive), an empty array to serve the whole file
+     * (multiple ranges / unknown unit), or NULL if not satisfiable
+     */
+    static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.contains(",")) return new long[0];
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return new long[0];
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) return null;
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+            if (start >= size || start > end) return null;
+            return new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
@@ -2,9 +2,12 @@ package com.fei.twitterjavaapi.controller;
 
 import com.fei.twitterjavaapi.model.dto.common.PageResponse;
 import com.fei.twitterjavaapi.model.dto.notification.NotificationResponse;
+import com.fei.twitterjavaapi.model.dto.tweet.WatchTweetsRequest;
 import com.fei.twitterjavaapi.model.entity.User;
 import com.fei.twitterjavaapi.service.NotificationService;
+import com.fei.twitterjavaapi.manager.EngagementStreamManager;
 import com.fei.twitterjavaapi.manager.SseManager;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -19,13 +22,24 @@ public class NotificationController {
 
     private final NotificationService notificationService;
     private final SseManager sseManager;
+    private final EngagementStreamManager engagementStreamManager;
 
-    // Subscribe to Real-Time Stream (GET /stream)
+    // Subscribe to Real-Time Stream (GET /stream): "notification", "new_tweets" and "engagement" events
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public SseEmitter subscribe(@AuthenticationPrincipal User user) {
         return sseManager.subscribe(user.getId());
     }
 
+    // Tweets on screen: their current counts come as "engagement" events (re-send after scrolling / reconnecting)
+    @PutMapping("/stream/watch")
+    public ResponseEntity<Void> watchTweets(
+            @AuthenticationPrincipal User user,
+            @Valid @RequestBody WatchTweetsRequest request
+    ) {
+        engagementStreamManager.watch(user.getId(), request.tweetIds());
+        return ResponseEntity.noContent().build();
+    }
+
     // Get Notification History (Pagination)
     @GetMapping
     public ResponseEntity<PageResponse<NotificationResponse>> getNotifications(
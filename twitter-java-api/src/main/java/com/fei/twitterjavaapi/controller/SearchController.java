@@ -1,9 +1,11 @@
 package com.fei.twitterjavaapi.controller;
 
+import com.fei.twitterjavaapi.model.dto.common.CursorResponse;
 import com.fei.twitterjavaapi.model.dto.common.PageResponse;
 import com.fei.twitterjavaapi.model.dto.hashtag.TrendingHashtagDTO;
 import com.fei.twitterjavaapi.model.dto.tweet.TweetResponse;
 import com.fei.twitterjavaapi.model.dto.user.UserResponse;
+import com.fei.twitterjavaapi.model.dto.user.UserSummary;
 import com.fei.twitterjavaapi.model.entity.User;
 import com.fei.twitterjavaapi.service.SearchService;
 import lombok.RequiredArgsConstructor;
@@ -34,6 +36,31 @@ public class SearchController {
         return ResponseEntity.ok(results);
     }
 
+    // Ranked "Top" results, cursor-paged. prefix=true enables search-as-you-type.
+    @GetMapping("/tweets/top")
+    public ResponseEntity<CursorResponse<TweetResponse>> searchTopTweets(
+            @AuthenticationPrincipal User user,
+            @RequestParam(name = "q") String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean prefix) {
+
+        int safeSize = Math.min(size, 50);
+        return ResponseEntity.ok(searchService.searchTopTweets(user, query, cursor, safeSize, prefix));
+    }
+
+    // Hashtag timeline, cursor-paged (tag with or without '#')
+    @GetMapping("/tweets/hashtag")
+    public ResponseEntity<CursorResponse<TweetResponse>> searchHashtagTweets(
+            @AuthenticationPrincipal User user,
+            @RequestParam(name = "tag") String tag,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        int safeSize = Math.min(size, 50);
+        return ResponseEntity.ok(searchService.searchHashtagTweets(user, tag, cursor, safeSize));
+    }
+
     @GetMapping("/users")
     public ResponseEntity<PageResponse<UserResponse>> searchUsers(
             @AuthenticationPrincipal User user,
@@ -45,6 +72,15 @@ public class SearchController {
         return ResponseEntity.ok(results);
     }
 
+    // Mention autocomplete ("@jo" -> handles starting with "jo"), served from memory
+    @GetMapping("/users/handles")
+    public ResponseEntity<List<UserSummary>> searchHandles(
+            @RequestParam("q") String prefix,
+            @RequestParam(defaultValue = "8") int limit
+    ) {
+        return ResponseEntity.ok(searchService.searchHandles(prefix, Math.min(limit, 20)));
+    }
+
     @GetMapping("/hashtags")
     public ResponseEntity<List<TrendingHashtagDTO>> searchHashtags(
             @RequestParam("q") String query,
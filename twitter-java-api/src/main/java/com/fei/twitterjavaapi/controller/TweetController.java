@@ -1,9 +1,12 @@
 package com.fei.twitterjavaapi.controller;
 
+import com.fei.twitterjavaapi.model.dto.common.CursorResponse;
 import com.fei.twitterjavaapi.model.dto.common.PageResponse;
+import com.fei.twitterjavaapi.model.dto.tweet.ConversationResponse;
 import com.fei.twitterjavaapi.model.dto.tweet.TweetRequest;
 import com.fei.twitterjavaapi.model.dto.tweet.TweetResponse;
 import com.fei.twitterjavaapi.model.entity.User;
+import com.fei.twitterjavaapi.service.ConversationService;
 import com.fei.twitterjavaapi.service.LikeService;
 import com.fei.twitterjavaapi.service.RetweetService;
 import com.fei.twitterjavaapi.service.TweetService;
@@ -24,6 +27,7 @@ public class TweetController {
     private final TweetService tweetService;
     private final LikeService likeService;
     private final RetweetService retweetService;
+    private final ConversationService conversationService;
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<TweetResponse> createTweet(
@@ -63,6 +67,31 @@ public class TweetController {
         return ResponseEntity.ok(tweetPage);
     }
 
+    // Keyset-paged replies (oldest first)
+    @GetMapping("/{id}/replies/cursor")
+    public ResponseEntity<CursorResponse<TweetResponse>> getRepliesByCursor(
+            @AuthenticationPrincipal User user,
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(tweetService.getRepliesByCursor(user, id, cursor, Math.min(size, 50)));
+    }
+
+    // Ancestors + nested reply tree (viewer state included) in 1 round trip
+    @GetMapping("/{id}/conversation")
+    public ResponseEntity<ConversationResponse> getConversation(
+            @AuthenticationPrincipal User user,
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "3") int depth,
+            @RequestParam(defaultValue = "5") int breadth
+    ) {
+        // Capped: worst case is breadth^depth nodes
+        int safeDepth = Math.clamp(depth, 0, 5);
+        int safeBreadth = Math.clamp(breadth, 1, 10);
+        return ResponseEntity.ok(conversationService.getConversation(user, id, safeDepth, safeBreadth));
+    }
+
     @PostMapping("/{id}/like")
     public ResponseEntity<Void> likeTweet(
             @PathVariable Long id,
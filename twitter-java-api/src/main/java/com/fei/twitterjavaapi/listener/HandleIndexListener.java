@@ -0,0 +1,23 @@
+package com.fei.twitterjavaapi.listener;
+
+import com.fei.twitterjavaapi.model.event.UserProfileChangedEvent;
+import com.fei.twitterjavaapi.search.HandlePrefixIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+public class HandleIndexListener {
+
+    private final HandlePrefixIndex handlePrefixIndex;
+
+    // In-memory map update only (no I/O), so no need for @Async.
+    // fallbackExecution: registration saves the user outside of a transaction
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleUserProfileChanged(UserProfileChangedEvent event) {
+        handlePrefixIndex.upsert(event.getUserId(), event.getUsername(), event.getDisplayName(),
+                event.getAvatarUrl(), event.getFollowersCount());
+    }
+}
@@ -8,6 +8,8 @@ import com.fei.twitterjavaapi.model.event.UserLikedTweetEvent;
 import com.fei.twitterjavaapi.model.event.UserRepliedEvent;
 import com.fei.twitterjavaapi.model.event.UserRetweetedEvent;
 import com.fei.twitterjavaapi.repository.NotificationRepository;
+import com.fei.twitterjavaapi.repository.TweetRepository;
+import com.fei.twitterjavaapi.repository.UserRepository;
 import com.fei.twitterjavaapi.manager.SseManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,22 +26,24 @@ import org.springframework.transaction.event.TransactionalEventListener;
 public class NotificationListener {
 
     private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final TweetRepository tweetRepository;
     private final SseManager sseManager;
 
     @Async // Run in background thread
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
     public void handleLikeEvent(UserLikedTweetEvent event) {
-        log.info("Async: Processing LIKE event for Tweet ID: {}", event.getTweet().getId());
+        log.info("Async: Processing LIKE event for Tweet ID: {}", event.getTweetId());
 
         // Don't notify self-likes
-        if (event.getActor().getId().equals(event.getTweet().getUser().getId())) return;
+        if (event.getActor().getId().equals(event.getAuthorId())) return;
 
-        // Persist to DB
+        // Persist to DB (references only, the event already carries the IDs)
         Notification notification = Notification.builder()
                 .actor(event.getActor())
-                .recipient(event.getTweet().getUser())
-                .tweet(event.getTweet())
+                .recipient(userRepository.getReferenceById(event.getAuthorId()))
+                .tweet(tweetRepository.getReferenceById(event.getTweetId()))
                 .type(NotificationType.LIKE)
                 .isRead(false)
                 .build();
@@ -58,11 +62,11 @@ public class NotificationListener {
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
     public void handleFollowEvent(UserFollowedEvent event) {
         log.info("Async: Processing FOLLOW event. Actor: {} -> Target: {}",
-                event.getActor().getId(), event.getTarget().getId());
+                event.getActor().getId(), event.getTargetId());
 
         Notification notification = Notification.builder()
                 .actor(event.getActor())
-                .recipient(event.getTarget())
+                .recipient(userRepository.getReferenceById(event.getTargetId()))
                 .type(NotificationType.FOLLOW)
                 .tweet(null) // Follows are not linked to a specific tweet
                 .isRead(false)
@@ -107,15 +111,15 @@ public class NotificationListener {
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
     public void handleRetweetEvent(UserRetweetedEvent event) {
         log.info("Async: Processing RETWEET event. Actor: {} -> Target Tweet: {}",
-                event.getActor().getId(), event.getTargetTweet().getId());
+                event.getActor().getId(), event.getTargetTweetId());
 
         // Don't notify if I retweet myself
-        if (event.getActor().getId().equals(event.getTargetTweet().getUser().getId())) return;
+        if (event.getActor().getId().equals(event.getAuthorId())) return;
 
         Notification notification = Notification.builder()
                 .actor(event.getActor())
-                .recipient(event.getTargetTweet().getUser()) // The owner of the ORIGINAL tweet
-                .tweet(event.getTargetTweet())               // Link to the ORIGINAL tweet
+                .recipient(userRepository.getReferenceById(event.getAuthorId()))      // The owner of the ORIGINAL tweet
+                .tweet(tweetRepository.getReferenceById(event.getTargetTweetId()))    // Link to the ORIGINAL tweet
                 .type(NotificationType.RETWEET)
                 .isRead(false)
                 .build();
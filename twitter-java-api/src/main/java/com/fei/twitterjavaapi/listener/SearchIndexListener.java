@@ -0,0 +1,60 @@
+package com.fei.twitterjavaapi.listener;
+
+import com.fei.twitterjavaapi.model.event.TweetCreatedEvent;
+import com.fei.twitterjavaapi.model.event.TweetDeletedEvent;
+import com.fei.twitterjavaapi.model.event.UserProfileChangedEvent;
+import com.fei.twitterjavaapi.search.LuceneSearchIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.ZoneId;
+
+// Keeps the Lucene index in sync with committed writes (only when the index is enabled)
+@Component
+@ConditionalOnProperty(name = "app.search.lucene.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexListener {
+
+    private final LuceneSearchIndex searchIndex;
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handleTweetCreated(TweetCreatedEvent event) {
+        try {
+            // Entities hold LocalDateTime in the JVM zone (the zone Hibernate reads them with)
+            long createdAtMillis = event.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            searchIndex.indexTweet(event.getTweetId(), event.getContent(), createdAtMillis);
+        } catch (RuntimeException e) {
+            // The next rebuild will pick it up
+            log.error("Failed to index tweet {}", event.getTweetId(), e);
+        }
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handleTweetDeleted(TweetDeletedEvent event) {
+        try {
+            searchIndex.deleteTweets(event.getTweetIds());
+        } catch (RuntimeException e) {
+            // Stale hits are dropped when the page is loaded from the DB
+            log.error("Failed to remove {} tweets from the search index", event.getTweetIds().size(), e);
+        }
+    }
+
+    // fallbackExecution: registration saves the user outside of a transaction
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleUserProfileChanged(UserProfileChangedEvent event) {
+        try {
+            searchIndex.indexUser(event.getUserId(), event.getUsername(), event.getDisplayName(), event.getFollowersCount());
+        } catch (RuntimeException e) {
+            log.error("Failed to index user {}", event.getUserId(), e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.fei.twitterjavaapi.manager;
+
+import com.fei.twitterjavaapi.config.AdaptiveConcurrencyLimiter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Decides when the app is "overloaded" so that expensive, staleness-tolerant reads
+ * (trending, suggestions, For You) are served from snapshots instead of the DB.
+ * <p>
+ * Overloaded as soon as one signal fires:
+ * <ul>
+ * <li><strong>Pool:</strong> Threads are waiting for a Hikari connection, or the pool is ~full.</li>
+ * <li><strong>Latency:</strong> Requests are queued by the AdaptiveConcurrencyLimiter.</li>
+ * </ul>
+ * Back to normal only after {@code calm-period-ms} without any signal (no flapping).
+ */
+@Service
+@Slf4j
+public class DegradationManager {
+
+    private final ObjectProvider<HikariDataSource> primaryPool;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final double poolSaturation;
+    private final long calmPeriodMs;
+
+    private volatile boolean degraded = false;
+    private volatile long lastOverloadAt = 0;
+
+    public DegradationManager(ObjectProvider<HikariDataSource> primaryPool,
+                              AdaptiveConcurrencyLimiter limiter,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.degradation.pool-saturation:0.9}") double poolSaturation,
+                              @Value("${app.degradation.calm-period-ms:10000}") long calmPeriodMs) {
+        this.primaryPool = primaryPool;
+        this.limiter = limiter;
+        this.poolSaturation = poolSaturation;
+        this.calmPeriodMs = calmPeriodMs;
+
+        Gauge.builder("app.degraded", this, m -> m.degraded ? 1 : 0).register(meterRegistry);
+    }
+
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    @Scheduled(fixedDelayString = "${app.degradation.check-interval-ms:500}")
+    public void evaluate() {
+        long now = System.currentTimeMillis();
+        if (isPoolSaturated() || limiter.queued() > 0) {
+            lastOverloadAt = now;
+        }
+
+        boolean shouldDegrade = now - lastOverloadAt < calmPeriodMs;
+        if (shouldDegrade != degraded) {
+            degraded = shouldDegrade;
+            if (degraded) {
+                log.warn("Overload detected: serving discovery endpoints from snapshots");
+            } else {
+                log.info("Load back to normal: discovery endpoints read live data again");
+            }
+        }
+    }
+
+    private boolean isPoolSaturated() {
+        HikariDataSource pool = primaryPool.getIfUnique();
+        HikariPoolMXBean stats = pool != null ? pool.getHikariPoolMXBean() : null;
+        if (stats == null) return false; // Pool not started yet
+
+        return stats.getThreadsAwaitingConnection() > 0
+                || stats.getActiveConnections() >= pool.getMaximumPoolSize() * poolSaturation;
+    }
+}
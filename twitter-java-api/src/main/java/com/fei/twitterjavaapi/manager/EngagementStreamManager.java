@@ -0,0 +1,176 @@
+package com.fei.twitterjavaapi.manager;
+
+import com.fei.twitterjavaapi.model.event.SseBroadcastEvent;
+import com.fei.twitterjavaapi.util.PartitionBounds;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Live like / retweet / reply counts for the tweets on screen: {@code engagement} SSE events.
+ * <p>
+ * Clients PUT the IDs they display ({@code sse_watches}). The write paths (LikeService,
+ * RetweetService, TweetService) mark the tweets whose counters they changed, on commit. Every second:
+ * <ol>
+ * <li>This node's changed IDs are broadcast to the other nodes (SseRelay), in chunks.</li>
+ * <li>Own + received IDs are matched against the watches of the users streaming on this node, and
+ * the counters of the watched ones are read from tweets (1 query).</li>
+ * <li>Each watcher gets 1 event with the current counts of all its changed tweets.</li>
+ * </ol>
+ * Events carry absolute counts that replace what the client shows: receiving one twice, or after a
+ * fetch that already saw the change, does no harm, and a missed one is fixed by the next.
+ * A viral tweet costs 1 event per watcher per second, however many likes it gets, and no re-fetch.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EngagementStreamManager {
+
+    public static final String EVENT_NAME = "engagement";
+
+    private static final String BROADCAST_NAME = "engagement_changed";
+    private static final int IDS_PER_BROADCAST = 300; // Keeps the NOTIFY payload well under 8000 bytes
+    private static final TypeReference<List<Long>> ID_LIST = new TypeReference<>() {
+    };
+
+    // Current counters of a tweet (replace the ones the client shows)
+    public record EngagementCounts(long tweetId, int likes, int retweets, int replies) {
+    }
+
+    private final SseManager sseManager;
+    private final SseRelay sseRelay;
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonMapper jsonMapper;
+
+    @Value("${app.sse.engagement.watch-ttl-ms:1800000}")
+    private long watchTtlMs;
+
+    // Tweet IDs changed since the last flush (swapped out on flush; an ID racing the swap can be
+    // missed, the next change of that tweet sends its exact counts again)
+    private final AtomicReference<Set<Long>> recordedHere = new AtomicReference<>(ConcurrentHashMap.newKeySet());
+    private final AtomicReference<Set<Long>> receivedFromNodes = new AtomicReference<>(ConcurrentHashMap.newKeySet());
+
+    @Transactional
+    public void watch(Long userId, Collection<Long> tweetIds) {
+        jdbcTemplate.update("DELETE FROM sse_watches WHERE user_id = ?", userId);
+
+        List<Object[]> rows = tweetIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(tweetId -> new Object[] { userId, tweetId })
+                .toList();
+        if (rows.isEmpty()) return;
+        jdbcTemplate.batchUpdate("INSERT INTO sse_watches (user_id, tweet_id) VALUES (?, ?)", rows);
+    }
+
+    // Called inside the write transaction that changed the counters: only sent once it commits
+    public void record(Long tweetId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recordedHere.get().add(tweetId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordedHere.get().add(tweetId);
+            }
+        });
+    }
+
+    @EventListener
+    public void onBroadcast(SseBroadcastEvent event) {
+        if (!BROADCAST_NAME.equals(event.getEventName())) return;
+        try {
+            receivedFromNodes.get().addAll(jsonMapper.readValue(event.getData(), ID_LIST));
+        } catch (RuntimeException e) {
+            log.warn("Dropping malformed engagement broadcast: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.sse.engagement.flush-interval-ms:1000}")
+    public void flush() {
+        List<Long> local = List.copyOf(recordedHere.getAndSet(ConcurrentHashMap.newKeySet()));
+        Set<Long> changed = new HashSet<>(receivedFromNodes.getAndSet(ConcurrentHashMap.newKeySet()));
+        if (local.isEmpty() && changed.isEmpty()) return;
+
+        // 1. Tell the other nodes (watchers may be streaming there; they read the counts themselves)
+        for (int i = 0; i < local.size(); i += IDS_PER_BROADCAST) {
+            sseRelay.broadcast(BROADCAST_NAME, local.subList(i, Math.min(i + IDS_PER_BROADCAST, local.size())));
+        }
+
+        // 2. Fan out to this node's streams
+        changed.addAll(local);
+        Set<Long> streaming = sseManager.localUserIds();
+        if (streaming.isEmpty()) return;
+
+        try {
+            Map<Long, List<EngagementCounts>> perWatcher = countsPerWatcher(changed, streaming);
+            perWatcher.forEach((userId, counts) -> sseManager.sendLocal(userId, EVENT_NAME, counts));
+        } catch (RuntimeException e) {
+            log.warn("Could not send engagement counts: {}", e.getMessage());
+        }
+    }
+
+    // Watches outlive their stream (no reliable "closed" on every node): expire them instead
+    @Scheduled(fixedDelayString = "${app.sse.engagement.cleanup-interval-ms:60000}")
+    public void expireWatches() {
+        try {
+            int expired = jdbcTemplate.update(
+                    "DELETE FROM sse_watches WHERE updated_at < NOW() - ? * INTERVAL '1 millisecond'", watchTtlMs);
+            if (expired > 0) log.debug("Expired {} tweet watches", expired);
+        } catch (RuntimeException e) {
+            log.warn("Could not expire tweet watches: {}", e.getMessage());
+        }
+    }
+
+    // Outside a transaction: read from the primary, which already has the committed counters
+    private Map<Long, List<EngagementCounts>> countsPerWatcher(Set<Long> changed, Set<Long> streaming) {
+        LocalDateTime from = PartitionBounds.createdFrom(Collections.min(changed));
+        Map<Long, List<EngagementCounts>> perWatcher = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement("""
+                            SELECT w.user_id, t.id, t.like_count, t.retweet_count, t.reply_count
+                            FROM sse_watches w
+                            JOIN tweets t ON t.id = w.tweet_id
+                            WHERE w.tweet_id = ANY(?) AND w.user_id = ANY(?)
+                              AND t.created_at >= ? AND t.deleted_at IS NULL
+                            """);
+                    Array tweetIds = connection.createArrayOf("bigint", changed.toArray());
+                    Array userIds = connection.createArrayOf("bigint", streaming.toArray());
+                    statement.setArray(1, tweetIds);
+                    statement.setArray(2, userIds);
+                    statement.setObject(3, from);
+                    return statement;
+                },
+                (RowCallbackHandler) rs -> perWatcher
+                        .computeIfAbsent(rs.getLong("user_id"), id -> new ArrayList<>())
+                        .add(new EngagementCounts(rs.getLong("id"), rs.getInt("like_count"),
+                                rs.getInt("retweet_count"), rs.getInt("reply_count"))));
+        return perWatcher;
+    }
+}
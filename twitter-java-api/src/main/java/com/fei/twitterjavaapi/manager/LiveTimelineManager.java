@@ -0,0 +1,134 @@
+package com.fei.twitterjavaapi.manager;
+
+import com.fei.twitterjavaapi.model.event.SseBroadcastEvent;
+import com.fei.twitterjavaapi.model.event.TweetCreatedEvent;
+import com.fei.twitterjavaapi.model.event.UserRetweetedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * "N new tweets" on the Following timeline: {@code new_tweets} SSE events, at most 1 per second per user.
+ * <p>
+ * Committed timeline posts (tweets + retweets, not replies) are counted per author. Every second:
+ * <ol>
+ * <li>This node's authors are broadcast to the other nodes (SseRelay), in chunks.</li>
+ * <li>Its own + received authors are matched against the followers streaming on this node
+ * (1 query on {@code follows}, whatever the number of authors and streams).</li>
+ * <li>Each matching follower gets 1 event with the sum for all the authors they follow.</li>
+ * </ol>
+ * The client then loads the delta with {@code /feeds/following/since?cursor=<newest ID it has>}
+ * (then {@code after=<nextCursor>} while not last).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LiveTimelineManager {
+
+    public static final String EVENT_NAME = "new_tweets";
+
+    private static final String BROADCAST_NAME = "timeline_authors";
+    private static final int AUTHORS_PER_BROADCAST = 200; // Keeps the NOTIFY payload well under 8000 bytes
+    private static final TypeReference<Map<Long, Integer>> AUTHOR_COUNTS = new TypeReference<>() {
+    };
+
+    public record NewTweets(int count) {
+    }
+
+    private final SseManager sseManager;
+    private final SseRelay sseRelay;
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonMapper jsonMapper;
+
+    // Author ID -> new timeline posts since the last flush (swapped out on flush; a count racing
+    // the swap can be missed, it's only a hint: the since endpoint is exact)
+    private final AtomicReference<Map<Long, Integer>> committedHere = new AtomicReference<>(new ConcurrentHashMap<>());
+    private final AtomicReference<Map<Long, Integer>> receivedFromNodes = new AtomicReference<>(new ConcurrentHashMap<>());
+
+    // Runs on the committing thread: only counts, nothing slow here
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handleTweetCreated(TweetCreatedEvent event) {
+        if (event.getParentId() != null) return; // Replies are not on the timeline
+        committedHere.get().merge(event.getAuthorId(), 1, Integer::sum);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handleRetweet(UserRetweetedEvent event) {
+        committedHere.get().merge(event.getActor().getId(), 1, Integer::sum);
+    }
+
+    @EventListener
+    public void onBroadcast(SseBroadcastEvent event) {
+        if (!BROADCAST_NAME.equals(event.getEventName())) return;
+        try {
+            jsonMapper.readValue(event.getData(), AUTHOR_COUNTS)
+                    .forEach((authorId, count) -> receivedFromNodes.get().merge(authorId, count, Integer::sum));
+        } catch (RuntimeException e) {
+            log.warn("Dropping malformed timeline broadcast: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.sse.timeline.flush-interval-ms:1000}")
+    public void flush() {
+        Map<Long, Integer> local = committedHere.getAndSet(new ConcurrentHashMap<>());
+        Map<Long, Integer> authors = new HashMap<>(receivedFromNodes.getAndSet(new ConcurrentHashMap<>()));
+        if (local.isEmpty() && authors.isEmpty()) return;
+
+        // 1. Tell the other nodes (their followers may be streaming there)
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(local.entrySet());
+        for (int i = 0; i < entries.size(); i += AUTHORS_PER_BROADCAST) {
+            Map<Long, Integer> chunk = new HashMap<>();
+            entries.subList(i, Math.min(i + AUTHORS_PER_BROADCAST, entries.size()))
+                    .forEach(e -> chunk.put(e.getKey(), e.getValue()));
+            sseRelay.broadcast(BROADCAST_NAME, chunk);
+        }
+
+        // 2. Fan out to this node's streams
+        local.forEach((authorId, count) -> authors.merge(authorId, count, Integer::sum));
+        Set<Long> streaming = sseManager.localUserIds();
+        if (streaming.isEmpty()) return;
+
+        try {
+            Map<Long, Integer> perFollower = countsPerFollower(authors, streaming);
+            perFollower.forEach((userId, count) -> sseManager.sendLocal(userId, EVENT_NAME, new NewTweets(count)));
+        } catch (RuntimeException e) {
+            log.warn("Could not send new tweet counts: {}", e.getMessage());
+        }
+    }
+
+    private Map<Long, Integer> countsPerFollower(Map<Long, Integer> authors, Set<Long> streaming) {
+        Map<Long, Integer> perFollower = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement("""
+                            SELECT follower_id, following_id FROM follows
+                            WHERE following_id = ANY(?) AND follower_id = ANY(?)
+                            """);
+                    Array authorIds = connection.createArrayOf("bigint", authors.keySet().toArray());
+                    Array followerIds = connection.createArrayOf("bigint", streaming.toArray());
+                    statement.setArray(1, authorIds);
+                    statement.setArray(2, followerIds);
+                    return statement;
+                },
+                (RowCallbackHandler) rs -> perFollower.merge(rs.getLong("follower_id"),
+                        authors.get(rs.getLong("following_id")), Integer::sum));
+        return perFollower;
+    }
+}
@@ -0,0 +1,28 @@
+package com.fei.twitterjavaapi.manager;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single node: every stream is local, nothing to forward.
+ */
+@Component
+@ConditionalOnProperty(name = "app.sse.cluster.enabled", havingValue = "false")
+public class LocalSseRelay implements SseRelay {
+
+    @Override
+    public void connected(Long userId) {
+    }
+
+    @Override
+    public void disconnected(Long userId) {
+    }
+
+    @Override
+    public void forward(Long userId, String eventName, Object payload) {
+    }
+
+    @Override
+    public void broadcast(String eventName, Object payload) {
+    }
+}
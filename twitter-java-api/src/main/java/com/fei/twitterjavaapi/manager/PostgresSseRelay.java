@@ -0,0 +1,309 @@
+package com.fei.twitterjavaapi.manager;
+
+import com.fei.twitterjavaapi.model.event.SseBroadcastEvent;
+import com.fei.twitterjavaapi.model.event.SseRelayedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cross-node SSE delivery over PostgreSQL LISTEN/NOTIFY (no extra broker to run).
+ * <ul>
+ * <li><strong>Routing:</strong> Every node LISTENs on its own channel {@code sse_<node>}.
+ * {@code sse_connections} says which nodes hold a stream of which user, so an event is
+ * NOTIFYed only to those nodes (none at all for an offline user).</li>
+ * <li><strong>Broadcast:</strong> Node-wide events (e.g. "these authors just tweeted") go to
+ * every live node, each one fans them out to its own streams.</li>
+ * <li><strong>Listener:</strong> 1 dedicated connection per node, outside the pool
+ * (it is never returned, and must stay on the primary).</li>
+ * <li><strong>Liveness:</strong> A node heartbeats its {@code sse_nodes} row while its listener
+ * is connected. Rows older than {@code node-ttl-ms} are deleted with their connections,
+ * so nobody keeps sending to a crashed node.</li>
+ * </ul>
+ * Best effort like the local stream: events sent while a listener reconnects are lost
+ * (notifications are still in the DB, clients reload them with the history endpoint).
+ */
+@Component
+@ConditionalOnProperty(name = "app.sse.cluster.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class PostgresSseRelay implements SseRelay, SmartLifecycle {
+
+    // NOTIFY payloads must be shorter than 8000 bytes
+    private static final int MAX_PAYLOAD_BYTES = 7999;
+
+    record Envelope(Long userId, String event, String data) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final JsonMapper jsonMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long nodeTtlMs;
+    private final int pollTimeoutMs;
+    private final long reconnectDelayMs;
+
+    private final String nodeId = UUID.randomUUID().toString().replace("-", "");
+    private final String channel = "sse_" + nodeId;
+
+    // Users with a stream on this node, to register them again if our node row was lost
+    private final Set<Long> localUsers = ConcurrentHashMap.newKeySet();
+
+    private final Counter sent;
+    private final Counter received;
+
+    private volatile boolean running;
+    private volatile boolean listening;
+    private volatile boolean resyncNeeded;
+    private volatile Connection listenConnection;
+    private Thread listenerThread;
+
+    public PostgresSseRelay(JdbcTemplate jdbcTemplate,
+                            DataSourceProperties dataSourceProperties,
+                            JsonMapper jsonMapper,
+                            ApplicationEventPublisher eventPublisher,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.sse.cluster.node-ttl-ms:30000}") long nodeTtlMs,
+                            @Value("${app.sse.cluster.poll-timeout-ms:1000}") int pollTimeoutMs,
+                            @Value("${app.sse.cluster.reconnect-delay-ms:2000}") long reconnectDelayMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.jsonMapper = jsonMapper;
+        this.eventPublisher = eventPublisher;
+        this.nodeTtlMs = nodeTtlMs;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.reconnectDelayMs = reconnectDelayMs;
+
+        this.sent = Counter.builder("app.sse.relay.messages").tag("direction", "sent").register(meterRegistry);
+        this.received = Counter.builder("app.sse.relay.messages").tag("direction", "received").register(meterRegistry);
+    }
+
+    @Override
+    public void connected(Long userId) {
+        localUsers.add(userId);
+        try {
+            jdbcTemplate.update("INSERT INTO sse_connections (user_id, node_id) VALUES (?, ?) ON CONFLICT DO NOTHING",
+                    userId, nodeId);
+        } catch (RuntimeException e) {
+            // E.g. node row not there yet (listener still connecting): the next heartbeat adds it
+            resyncNeeded = true;
+            log.warn("Could not register SSE stream of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void disconnected(Long userId) {
+        localUsers.remove(userId);
+        try {
+            jdbcTemplate.update("DELETE FROM sse_connections WHERE user_id = ? AND node_id = ?", userId, nodeId);
+        } catch (RuntimeException e) {
+            // Only costs a NOTIFY nobody acts on, gone with the node row at the latest
+            log.debug("Could not unregister SSE stream of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void forward(Long userId, String eventName, Object payload) {
+        try {
+            String envelope = envelope(userId, eventName, payload);
+            if (envelope == null) return;
+
+            // 1 round trip, 1 NOTIFY per live node holding the user (sent on commit if in a transaction)
+            jdbcTemplate.query("""
+                    SELECT pg_notify('sse_' || c.node_id, ?)
+                    FROM sse_connections c
+                    JOIN sse_nodes n ON n.node_id = c.node_id
+                    WHERE c.user_id = ?
+                      AND c.node_id <> ?
+                      AND n.last_seen > NOW() - ? * INTERVAL '1 millisecond'
+                    """,
+                    (RowCallbackHandler) rs -> sent.increment(),
+                    envelope, userId, nodeId, nodeTtlMs);
+        } catch (RuntimeException e) {
+            log.warn("Could not relay SSE event '{}' for user {}: {}", eventName, userId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void broadcast(String eventName, Object payload) {
+        try {
+            String envelope = envelope(null, eventName, payload);
+            if (envelope == null) return;
+
+            jdbcTemplate.query("""
+                    SELECT pg_notify('sse_' || node_id, ?)
+                    FROM sse_nodes
+                    WHERE node_id <> ?
+                      AND last_seen > NOW() - ? * INTERVAL '1 millisecond'
+                    """,
+                    (RowCallbackHandler) rs -> sent.increment(),
+                    envelope, nodeId, nodeTtlMs);
+        } catch (RuntimeException e) {
+            log.warn("Could not broadcast SSE event '{}': {}", eventName, e.getMessage());
+        }
+    }
+
+    // NULL (and logged) if it doesn't fit in a NOTIFY
+    private String envelope(Long userId, String eventName, Object payload) {
+        String envelope = jsonMapper.writeValueAsString(
+                new Envelope(userId, eventName, jsonMapper.writeValueAsString(payload)));
+        if (envelope.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            log.warn("SSE event '{}' is too large to relay ({} chars)", eventName, envelope.length());
+            return null;
+        }
+        return envelope;
+    }
+
+    // Also reaps dead nodes (any node can, the DB clock decides)
+    @Scheduled(fixedDelayString = "${app.sse.cluster.heartbeat-interval-ms:10000}")
+    public void heartbeat() {
+        if (!listening) return; // Can't receive: let the row expire so nobody sends here
+        try {
+            Boolean inserted = jdbcTemplate.queryForObject("""
+                    INSERT INTO sse_nodes (node_id) VALUES (?)
+                    ON CONFLICT (node_id) DO UPDATE SET last_seen = NOW()
+                    RETURNING (xmax = 0)
+                    """, Boolean.class, nodeId);
+            if (Boolean.TRUE.equals(inserted) || resyncNeeded) {
+                resyncNeeded = false;
+                registerLocalUsers();
+            }
+            jdbcTemplate.update("DELETE FROM sse_nodes WHERE last_seen < NOW() - ? * INTERVAL '1 millisecond'", nodeTtlMs);
+        } catch (RuntimeException e) {
+            log.warn("SSE relay heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    private void registerLocalUsers() {
+        List<Object[]> rows = localUsers.stream().map(userId -> new Object[] { userId, nodeId }).toList();
+        if (rows.isEmpty()) return;
+        jdbcTemplate.batchUpdate("INSERT INTO sse_connections (user_id, node_id) VALUES (?, ?) ON CONFLICT DO NOTHING", rows);
+        log.info("Registered {} SSE streams for node {}", rows.size(), nodeId);
+    }
+
+    // Lifecycle: started after the context is refreshed (no DB during the CDS training run)
+
+    @Override
+    public void start() {
+        running = true;
+        listenerThread = Thread.ofPlatform().name("sse-relay-listener").daemon().start(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        listening = false;
+        closeQuietly(listenConnection);
+        try {
+            listenerThread.join(pollTimeoutMs + 1000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            jdbcTemplate.update("DELETE FROM sse_nodes WHERE node_id = ?", nodeId); // Cascades to our connections
+        } catch (RuntimeException e) {
+            log.debug("Could not remove SSE node {}: {}", nodeId, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = openListenConnection()) {
+                listenConnection = connection;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                listening = true;
+                heartbeat(); // Register right away, not on the next tick
+                log.info("SSE relay listening on channel {}", channel);
+
+                while (running) {
+                    // Blocks until a notification arrives or the timeout expires
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications == null) continue;
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                listening = false;
+                if (!running) return;
+                log.warn("SSE relay listener failed ({}), reconnecting in {} ms", e.getMessage(), reconnectDelayMs);
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                listenConnection = null;
+            }
+        }
+    }
+
+    private Connection openListenConnection() throws SQLException {
+        Properties properties = new Properties();
+        String username = dataSourceProperties.determineUsername();
+        String password = dataSourceProperties.determinePassword();
+        if (username != null) properties.setProperty("user", username);
+        if (password != null) properties.setProperty("password", password);
+        properties.setProperty("tcpKeepAlive", "true"); // A silently dropped connection must surface
+        properties.setProperty("ApplicationName", "sse-relay");
+
+        Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(), properties);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN \"" + channel + "\"");
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            throw e;
+        }
+        return connection;
+    }
+
+    private void dispatch(String payload) {
+        try {
+            Envelope envelope = jsonMapper.readValue(payload, Envelope.class);
+            received.increment();
+            // SseManager writes to the emitters asynchronously, this thread only reads the socket
+            eventPublisher.publishEvent(envelope.userId() != null
+                    ? new SseRelayedEvent(envelope.userId(), envelope.event(), envelope.data())
+                    : new SseBroadcastEvent(envelope.event(), envelope.data()));
+        } catch (RuntimeException e) {
+            log.warn("Dropping malformed SSE relay message: {}", e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) return;
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Already broken
+        }
+    }
+}
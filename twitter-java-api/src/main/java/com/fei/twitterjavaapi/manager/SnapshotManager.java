@@ -0,0 +1,108 @@
+package com.fei.twitterjavaapi.manager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Last-known-good results for staleness-tolerant reads.
+ * <ul>
+ * <li><strong>Normal:</strong> Always loads live data and keeps a copy.</li>
+ * <li><strong>Overloaded</strong> (see DegradationManager): Serves the copy without touching the DB.
+ * Copies older than {@code refresh-after} are refreshed in the background, at most one
+ * refresh per key at a time (single-flight).</li>
+ * <li><strong>Failure:</strong> A live load that throws falls back to the copy if there is one.</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class SnapshotManager {
+
+    private final DegradationManager degradationManager;
+    private final AsyncTaskExecutor taskExecutor;
+    private final long refreshAfterMs;
+    private final Cache<String, Snapshot> snapshots;
+    private final Map<String, Boolean> refreshing = new ConcurrentHashMap<>();
+    private final Counter staleServed;
+
+    public SnapshotManager(DegradationManager degradationManager,
+                           @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.degradation.snapshots.refresh-after-ms:30000}") long refreshAfterMs,
+                           @Value("${app.degradation.snapshots.max-age-ms:600000}") long maxAgeMs,
+                           @Value("${app.degradation.snapshots.max-entries:20000}") long maxEntries) {
+        this.degradationManager = degradationManager;
+        this.taskExecutor = taskExecutor;
+        this.refreshAfterMs = refreshAfterMs;
+        this.snapshots = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(maxAgeMs))
+                .maximumSize(maxEntries)
+                .build();
+        this.staleServed = Counter.builder("app.degradation.snapshots.served").register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        Snapshot snapshot = snapshots.getIfPresent(key);
+
+        // 1. Overloaded: last good result, refresh behind the scenes
+        if (snapshot != null && degradationManager.isDegraded()) {
+            if (System.currentTimeMillis() - snapshot.takenAt() > refreshAfterMs) {
+                refreshAsync(key, loader);
+            }
+            staleServed.increment();
+            return (T) snapshot.value();
+        }
+
+        // 2. Normal (or nothing to serve yet): live
+        try {
+            return load(key, loader);
+        } catch (RuntimeException e) {
+            if (snapshot == null) throw e;
+            log.warn("Live load failed for {}, serving snapshot from {} ms ago", key,
+                    System.currentTimeMillis() - snapshot.takenAt(), e);
+            staleServed.increment();
+            return (T) snapshot.value();
+        }
+    }
+
+    private <T> T load(String key, Supplier<T> loader) {
+        T value = loader.get();
+        snapshots.put(key, new Snapshot(value, System.currentTimeMillis()));
+        return value;
+    }
+
+    private void refreshAsync(String key, Supplier<?> loader) {
+        // Single-flight: only the first caller schedules the refresh
+        if (refreshing.putIfAbsent(key, Boolean.TRUE) != null) return;
+
+        try {
+            taskExecutor.execute(() -> {
+                try {
+                    load(key, loader);
+                } catch (RuntimeException e) {
+                    log.warn("Background snapshot refresh failed for {}", key, e);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.remove(key);
+            throw e;
+        }
+    }
+
+    private record Snapshot(Object value, long takenAt) {
+    }
+}
@@ -1,44 +1,86 @@
 package com.fei.twitterjavaapi.manager;
 
+import com.fei.twitterjavaapi.model.event.SseRelayedEvent;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class SseManager {
 
-    // Map: UserID -> Active Emitter
+    // Map: UserID -> Active Emitter (this node only, SseRelay knows the other nodes)
     private final Map<Long, SseEmitter> emitters = new ConcurrentHashMap<>();
 
+    private final SseRelay sseRelay;
+
     public SseEmitter subscribe(Long userId) {
         // 30 Minute Timeout (Standard for SSE)
         SseEmitter emitter = new SseEmitter(1800000L);
 
-        emitters.put(userId, emitter);
+        if (emitters.put(userId, emitter) == null) {
+            sseRelay.connected(userId);
+        }
 
-        // Cleanup hooks
-        emitter.onCompletion(() -> emitters.remove(userId));
-        emitter.onTimeout(() -> emitters.remove(userId));
-        emitter.onError((e) -> emitters.remove(userId));
+        // Cleanup hooks (a newer stream of the same user replaces this one, keep it)
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(() -> remove(userId, emitter));
+        emitter.onError((e) -> remove(userId, emitter));
 
         return emitter;
     }
 
     public void sendNotification(Long userId, Object payload) {
+        send(userId, "notification", payload);
+    }
+
+    // Local stream first, then any other node holding one (another device / tab)
+    private void send(Long userId, String eventName, Object payload) {
+        sendLocal(userId, eventName, payload);
+        sseRelay.forward(userId, eventName, payload);
+    }
+
+    // Event from another node: the payload is already JSON
+    @Async
+    @EventListener
+    public void onRelayed(SseRelayedEvent event) {
+        sendLocal(event.getUserId(), event.getEventName(), event.getData());
+    }
+
+    // This node's stream only: for events every node fans out itself (see LiveTimelineManager)
+    public void sendLocal(Long userId, String eventName, Object payload) {
         SseEmitter emitter = emitters.get(userId);
         if (emitter != null) {
             try {
                 emitter.send(SseEmitter.event()
-                        .name("notification") // Event Name
-                        .data(payload));      // JSON Data
+                        .name(eventName) // Event Name
+                        .data(payload)); // JSON Data
             } catch (IOException e) {
-                emitters.remove(userId); // Connection is dead
+                remove(userId, emitter); // Connection is dead
             }
         }
     }
-}
\ No newline at end of file
+
+    // Users with a stream on this node
+    public Set<Long> localUserIds() {
+        return Set.copyOf(emitters.keySet());
+    }
+
+    private void remove(Long userId, SseEmitter emitter) {
+        if (!emitters.remove(userId, emitter)) return;
+        sseRelay.disconnected(userId);
+        // Raced with a new subscribe: it saw our emitter and skipped the registration
+        if (emitters.containsKey(userId)) {
+            sseRelay.connected(userId);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.fei.twitterjavaapi.manager;
+
+/**
+ * Cluster delivery for SseManager, which only holds the streams connected to this JVM.
+ * <p>
+ * The relay tracks which nodes hold a stream of which user and forwards events only there.
+ * Events received from other nodes are published as SseRelayedEvent (or SseBroadcastEvent).
+ * Implementations: PostgresSseRelay (LISTEN/NOTIFY), LocalSseRelay (single node).
+ */
+public interface SseRelay {
+
+    void connected(Long userId);
+
+    void disconnected(Long userId);
+
+    // To the OTHER nodes holding a stream of this user (SseManager already sent it locally)
+    void forward(Long userId, String eventName, Object payload);
+
+    // To every other live node, received there as SseBroadcastEvent (payload under 7 KB of JSON)
+    void broadcast(String eventName, Object payload);
+}
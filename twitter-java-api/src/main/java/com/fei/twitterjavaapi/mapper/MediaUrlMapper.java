@@ -0,0 +1,25 @@
+package com.fei.twitterjavaapi.mapper;
+
+import com.fei.twitterjavaapi.service.FileStorageService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Stored media URLs point at blob storage. With the media proxy on, clients get "/media/{key}" instead.
+@Component
+public class MediaUrlMapper {
+
+    @Value("${app.media.proxy.enabled:false}")
+    private boolean proxyEnabled;
+
+    // Public origin of this API (the web client runs on another origin)
+    @Value("${app.media.proxy.base-url:http://localhost:8080}")
+    private String baseUrl;
+
+    public String toPublicUrl(String storedUrl) {
+        if (!proxyEnabled || storedUrl == null || !storedUrl.contains("blob.core.windows.net")) {
+            return storedUrl;
+        }
+        // The blob name is already URL-encoded in the stored URL
+        return baseUrl + "/media/" + FileStorageService.blobNameOf(storedUrl);
+    }
+}
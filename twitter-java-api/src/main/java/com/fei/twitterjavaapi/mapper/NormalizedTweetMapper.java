@@ -0,0 +1,67 @@
+package com.fei.twitterjavaapi.mapper;
+
+import com.fei.twitterjavaapi.model.dto.common.CursorResponse;
+import com.fei.twitterjavaapi.model.dto.common.PageResponse;
+import com.fei.twitterjavaapi.model.dto.tweet.NormalizedTweet;
+import com.fei.twitterjavaapi.model.dto.tweet.NormalizedTweetsResponse;
+import com.fei.twitterjavaapi.model.dto.tweet.NormalizedTweetsResponse.PageInfo;
+import com.fei.twitterjavaapi.model.dto.tweet.TweetResponse;
+import com.fei.twitterjavaapi.model.dto.user.UserResponse;
+import com.fei.twitterjavaapi.model.dto.user.UserSummary;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// TweetResponse pages -> NormalizedTweetsResponse (authors pulled out into 1 "users" map)
+@Component
+public class NormalizedTweetMapper {
+
+    public NormalizedTweetsResponse fromPage(PageResponse<TweetResponse> page) {
+        return normalize(page.content(), new PageInfo(page.page(), page.size(), page.totalElements(),
+                page.totalPages(), null, null, page.last()));
+    }
+
+    public NormalizedTweetsResponse fromCursor(CursorResponse<TweetResponse> cursor) {
+        return normalize(cursor.content(), new PageInfo(null, null, null, null,
+                cursor.nextCursor(), cursor.estimatedTotal(), cursor.last()));
+    }
+
+    private NormalizedTweetsResponse normalize(List<TweetResponse> content, PageInfo pageInfo) {
+        Map<Long, UserSummary> users = new LinkedHashMap<>();
+        Set<Long> followedUserIds = new LinkedHashSet<>();
+
+        List<NormalizedTweet> tweets = content.stream()
+                .map(tweet -> toNormalized(tweet, users, followedUserIds))
+                .toList();
+        return new NormalizedTweetsResponse(tweets, users, followedUserIds, pageInfo);
+    }
+
+    private NormalizedTweet toNormalized(TweetResponse tweet, Map<Long, UserSummary> users, Set<Long> followedUserIds) {
+        UserResponse author = tweet.user();
+        Long authorId = author != null ? author.id() : null;
+        if (author != null) {
+            users.computeIfAbsent(authorId, id -> new UserSummary(id, author.username(), author.displayName(), author.avatarUrl()));
+            if (author.followedByMe()) followedUserIds.add(authorId);
+        }
+
+        return new NormalizedTweet(
+                tweet.id(),
+                tweet.content(),
+                tweet.mediaType(),
+                tweet.mediaUrl(),
+                authorId,
+                tweet.replyCount(),
+                tweet.likeCount(),
+                tweet.retweetCount(),
+                tweet.likedByMe(),
+                tweet.retweetedByMe(),
+                tweet.originalTweet() != null ? toNormalized(tweet.originalTweet(), users, followedUserIds) : null,
+                tweet.replyToTweetId(),
+                tweet.replyToUserHandle(),
+                tweet.createdAt());
+    }
+}
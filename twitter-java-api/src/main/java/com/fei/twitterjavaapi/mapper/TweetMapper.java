@@ -1,5 +1,6 @@
 package com.fei.twitterjavaapi.mapper;
 
+import com.fei.twitterjavaapi.model.dto.common.CursorResponse;
 import com.fei.twitterjavaapi.model.dto.common.PageResponse;
 import com.fei.twitterjavaapi.model.dto.tweet.TweetResponse;
 import com.fei.twitterjavaapi.model.dto.user.UserResponse;
@@ -10,11 +11,14 @@ import com.fei.twitterjavaapi.repository.LikeRepository;
 import com.fei.twitterjavaapi.repository.TweetRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.stereotype.Component;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Component
@@ -24,11 +28,18 @@ public class TweetMapper {
     private final LikeRepository likeRepository;
     private final TweetRepository tweetRepository;
     private final FollowRepository followRepository;
+    private final MediaUrlMapper mediaUrlMapper;
 
     // Maps a single Tweet to a TweetResponse.
     // Enhanced to support explicit flags or batch-fetched sets.
     public TweetResponse toResponse(Tweet tweet, Set<Long> likedTweetIds, Set<Long> retweetedTweetIds,
             Set<Long> followedAuthorIds) {
+        return toResponse(tweet, likedTweetIds, retweetedTweetIds, followedAuthorIds, new HashMap<>());
+    }
+
+    // "authors" is shared across a page: 1 UserResponse per author instead of 1 per tweet
+    private TweetResponse toResponse(Tweet tweet, Set<Long> likedTweetIds, Set<Long> retweetedTweetIds,
+            Set<Long> followedAuthorIds, Map<Long, UserResponse> authors) {
         boolean isLiked = likedTweetIds != null && likedTweetIds.contains(tweet.getId());
         boolean isRetweeted = retweetedTweetIds != null && retweetedTweetIds.contains(tweet.getId());
         boolean isFollowingAuthor = followedAuthorIds != null && followedAuthorIds.contains(tweet.getUser().getId());
@@ -36,15 +47,15 @@ public class TweetMapper {
         TweetResponse originalTweetDTO = null;
         if (tweet.getRetweet() != null) {
             // Recursively map the original tweet with correct interaction states
-            originalTweetDTO = toResponse(tweet.getRetweet(), likedTweetIds, retweetedTweetIds, followedAuthorIds);
+            originalTweetDTO = toResponse(tweet.getRetweet(), likedTweetIds, retweetedTweetIds, followedAuthorIds, authors);
         }
 
         return new TweetResponse(
                 tweet.getId(),
                 tweet.getContent(),
                 tweet.getMediaType() != null ? tweet.getMediaType().name() : null,
-                tweet.getMediaUrl(),
-                UserResponse.fromEntity(tweet.getUser(), isFollowingAuthor),
+                mediaUrlMapper.toPublicUrl(tweet.getMediaUrl()),
+                authors.computeIfAbsent(tweet.getUser().getId(), id -> UserResponse.fromEntity(tweet.getUser(), isFollowingAuthor)),
                 tweet.getReplyCount(),
                 tweet.getLikeCount(),
                 tweet.getRetweetCount(),
@@ -81,12 +92,25 @@ public class TweetMapper {
     // Maps a Page of Tweets to a Page of TweetResponses with batch-fetched
     // interaction states.
     public PageResponse<TweetResponse> toResponsePage(Page<Tweet> tweetsPage, User currentUser) {
-        List<Tweet> tweets = tweetsPage.getContent();
+        List<TweetResponse> mapped = toResponseList(tweetsPage.getContent(), currentUser);
+        return PageResponse.from(new PageImpl<>(mapped, tweetsPage.getPageable(), tweetsPage.getTotalElements()));
+    }
 
+    // Keyset timelines: "fetched" holds up to size + 1 rows, the extra one only tells
+    // whether another page exists. The next cursor is the last returned tweet ID.
+    public CursorResponse<TweetResponse> toResponseCursor(List<Tweet> fetched, int size, User currentUser) {
+        boolean last = fetched.size() <= size;
+        List<Tweet> page = last ? fetched : fetched.subList(0, size);
+        String nextCursor = last ? null : String.valueOf(page.getLast().getId());
+        return new CursorResponse<>(toResponseList(page, currentUser), nextCursor, null, last);
+    }
+
+    // Maps a plain list of Tweets (keeps the given order) with batch-fetched
+    // interaction states. Used by cursor-based endpoints.
+    public List<TweetResponse> toResponseList(List<Tweet> tweets, User currentUser) {
         // 1. Handle Empty Case
         if (tweets.isEmpty()) {
-            return PageResponse.from(tweetsPage
-                    .map(t -> toResponse(t, Collections.emptySet(), Collections.emptySet(), Collections.emptySet())));
+            return List.of();
         }
 
         // 2. Extract IDs (Both Main Tweets AND Original Tweets if Retweet)
@@ -121,10 +145,10 @@ public class TweetMapper {
             followedAuthorIds = Collections.emptySet();
         }
 
-        // 4. Map the Page using the batch data
-        Page<TweetResponse> mappedPage = tweetsPage
-                .map(tweet -> toResponse(tweet, likedTweetIds, retweetedTweetIds, followedAuthorIds));
-
-        return PageResponse.from(mappedPage);
+        // 4. Map using the batch data
+        Map<Long, UserResponse> authors = new HashMap<>();
+        return tweets.stream()
+                .map(tweet -> toResponse(tweet, likedTweetIds, retweetedTweetIds, followedAuthorIds, authors))
+                .toList();
     }
 }
\ No newline at end of file
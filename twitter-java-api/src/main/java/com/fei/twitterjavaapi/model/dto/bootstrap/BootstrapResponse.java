@@ -0,0 +1,22 @@
+package com.fei.twitterjavaapi.model.dto.bootstrap;
+
+import com.fei.twitterjavaapi.model.dto.common.PageResponse;
+import com.fei.twitterjavaapi.model.dto.hashtag.TrendingHashtagDTO;
+import com.fei.twitterjavaapi.model.dto.tweet.TweetResponse;
+import com.fei.twitterjavaapi.model.dto.user.UserResponse;
+
+import java.util.List;
+
+/**
+ * Everything the home screen needs on app open, in one round trip.
+ * A part that failed or timed out is null and listed in "unavailable",
+ * so the client can fall back to the dedicated endpoint for just that part.
+ */
+public record BootstrapResponse(
+        UserResponse me,                              // null for guests
+        PageResponse<TweetResponse> feed,             // First "For You" page
+        Long unreadCount,                             // null for guests
+        List<TrendingHashtagDTO> trending,
+        PageResponse<UserResponse> suggestions,
+        List<String> unavailable
+) {}
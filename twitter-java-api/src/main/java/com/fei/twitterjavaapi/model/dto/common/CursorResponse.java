@@ -0,0 +1,14 @@
+package com.fei.twitterjavaapi.model.dto.common;
+
+import java.util.List;
+
+public record CursorResponse<T>(
+        List<T> content,
+        String nextCursor,   // Opaque token for the next page. NULL on the last page
+        Long estimatedTotal, // Approximate number of results (NULL if unknown)
+        boolean last
+) {
+    public static <T> CursorResponse<T> empty() {
+        return new CursorResponse<>(List.of(), null, 0L, true);
+    }
+}
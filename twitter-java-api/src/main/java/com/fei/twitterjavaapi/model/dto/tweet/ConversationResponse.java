@@ -0,0 +1,13 @@
+package com.fei.twitterjavaapi.model.dto.tweet;
+
+import java.util.List;
+
+public record ConversationResponse(
+        List<TweetResponse> ancestors, // Root first, ends with the direct parent of the focus tweet
+        ConversationNode focus) {
+
+    public record ConversationNode(
+            TweetResponse tweet,
+            List<ConversationNode> replies) { // Truncated by depth/breadth, compare with tweet.replyCount
+    }
+}
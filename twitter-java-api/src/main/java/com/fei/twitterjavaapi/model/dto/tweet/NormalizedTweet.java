@@ -0,0 +1,21 @@
+package com.fei.twitterjavaapi.model.dto.tweet;
+
+import java.time.LocalDateTime;
+
+// TweetResponse without the embedded author: "authorId" points into NormalizedTweetsResponse.users
+public record NormalizedTweet(
+        Long id,
+        String content,
+        String mediaType,
+        String mediaUrl,
+        Long authorId,
+        int replyCount,
+        int likeCount,
+        int retweetCount,
+        boolean likedByMe,
+        boolean retweetedByMe,
+        NormalizedTweet originalTweet, // Null if not a retweet
+        Long replyToTweetId,
+        String replyToUserHandle,
+        LocalDateTime createdAt) {
+}
@@ -0,0 +1,34 @@
+package com.fei.twitterjavaapi.model.dto.tweet;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fei.twitterjavaapi.model.dto.user.UserSummary;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Opt-in feed shape ({@code ?shape=normalized}): every user appears once, however many tweets they have on the page.
+ * <pre>
+ * { "tweets": [{ "id": 1, "authorId": 7, ... }], "users": { "7": { ... } }, "followedUserIds": [7], "pageInfo": { ... } }
+ * </pre>
+ */
+public record NormalizedTweetsResponse(
+        List<NormalizedTweet> tweets,
+        Map<Long, UserSummary> users,
+        Set<Long> followedUserIds, // Authors the viewer follows (replaces UserResponse.followedByMe)
+        PageInfo pageInfo
+) {
+    // Paging of the original response: page fields for PageResponse, cursor fields for CursorResponse
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record PageInfo(
+            Integer page,
+            Integer size,
+            Long totalElements,
+            Integer totalPages,
+            String nextCursor,
+            Long estimatedTotal,
+            boolean last
+    ) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.fei.twitterjavaapi.model.dto.tweet;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+// Tweets currently on screen (replaces the previous set, empty = stop)
+public record WatchTweetsRequest(
+        @NotNull
+        @Size(max = 100, message = "At most 100 tweets can be watched at once")
+        List<Long> tweetIds
+) {}
@@ -0,0 +1,9 @@
+package com.fei.twitterjavaapi.model.dto.user;
+
+// Slim user card (autocomplete, embedded authors). No email / bio / counters.
+public record UserSummary(
+        Long id,
+        String username,
+        String displayName,
+        String avatarUrl
+) {}
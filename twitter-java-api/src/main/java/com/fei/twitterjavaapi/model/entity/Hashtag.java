@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 @Table(name = "hashtags")
 public class Hashtag {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hashtags_id_seq")
+    @SequenceGenerator(name = "hashtags_id_seq", sequenceName = "hashtags_id_seq", allocationSize = 50) // Pooled, matches V6 INCREMENT BY
     @Column(name = "id", nullable = false)
     private Long id;
 
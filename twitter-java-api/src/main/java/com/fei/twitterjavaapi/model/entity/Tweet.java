@@ -1,9 +1,11 @@
 package com.fei.twitterjavaapi.model.entity;
 
 import com.fei.twitterjavaapi.model.enums.MediaType;
+import com.fei.twitterjavaapi.util.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -19,9 +21,10 @@ import java.util.Set;
 @Builder
 @Entity
 @Table(name = "tweets")
+@SQLRestriction("deleted_at IS NULL") // Tombstoned tweets are invisible to JPA (native queries filter explicitly)
 public class Tweet {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId // Time-sortable: ID order = creation order (V7)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -0,0 +1,12 @@
+package com.fei.twitterjavaapi.model.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Sent by another node to all nodes (SseRelay.broadcast), not addressed to a user
+@Getter
+@AllArgsConstructor
+public class SseBroadcastEvent {
+    private final String eventName;
+    private final String data;      // Payload, already JSON
+}
@@ -0,0 +1,12 @@
+package com.fei.twitterjavaapi.model.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SseRelayedEvent {
+    private final Long userId;      // Recipient (has a stream on this node)
+    private final String eventName; // SSE "event:" field
+    private final String data;      // Payload, already JSON
+}
@@ -0,0 +1,17 @@
+package com.fei.twitterjavaapi.model.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// Plain values only: listeners run after commit, when the entity is detached
+@Getter
+@AllArgsConstructor
+public class TweetCreatedEvent {
+    private final Long tweetId;
+    private final Long authorId;
+    private final Long parentId;        // NULL unless it is a reply
+    private final String content;       // NULL for a Retweet
+    private final LocalDateTime createdAt;
+}
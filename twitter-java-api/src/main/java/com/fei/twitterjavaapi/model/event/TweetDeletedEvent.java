@@ -0,0 +1,12 @@
+package com.fei.twitterjavaapi.model.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class TweetDeletedEvent {
+    private final List<Long> tweetIds; // The deleted tweet + every reply removed with it
+}
@@ -7,6 +7,6 @@ import lombok.Getter;
 @Getter
 @AllArgsConstructor
 public class UserFollowedEvent {
-    private final User actor;   // Who followed?
-    private final User target;  // Who was followed?
-}
\ No newline at end of file
+    private final User actor;     // Who followed?
+    private final Long targetId;  // Who was followed?
+}
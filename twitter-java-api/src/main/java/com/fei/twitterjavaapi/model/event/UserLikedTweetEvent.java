@@ -1,6 +1,5 @@
 package com.fei.twitterjavaapi.model.event;
 
-import com.fei.twitterjavaapi.model.entity.Tweet;
 import com.fei.twitterjavaapi.model.entity.User;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -8,6 +7,7 @@ import lombok.Getter;
 @Getter
 @AllArgsConstructor
 public class UserLikedTweetEvent {
-    private final User actor;  // Who liked it?
-    private final Tweet tweet; // Which tweet?
+    private final User actor;     // Who liked it?
+    private final Long tweetId;   // Which tweet?
+    private final Long authorId;  // Who gets notified? (returned by the like statement)
 }
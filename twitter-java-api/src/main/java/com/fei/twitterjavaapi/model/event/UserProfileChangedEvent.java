@@ -0,0 +1,15 @@
+package com.fei.twitterjavaapi.model.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Fired when a user registers or edits their profile
+@Getter
+@AllArgsConstructor
+public class UserProfileChangedEvent {
+    private final Long userId;
+    private final String username;
+    private final String displayName;
+    private final String avatarUrl;
+    private final int followersCount;
+}
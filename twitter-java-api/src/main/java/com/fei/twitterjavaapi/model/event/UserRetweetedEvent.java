@@ -1,6 +1,5 @@
 package com.fei.twitterjavaapi.model.event;
 
-import com.fei.twitterjavaapi.model.entity.Tweet;
 import com.fei.twitterjavaapi.model.entity.User;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -9,5 +8,6 @@ import lombok.Getter;
 @AllArgsConstructor
 public class UserRetweetedEvent {
     private final User actor;
-    private final Tweet targetTweet; // The tweet being retweeted
-}
\ No newline at end of file
+    private final Long targetTweetId; // The original tweet being retweeted
+    private final Long authorId;      // Its author (who gets notified)
+}
@@ -0,0 +1,7 @@
+package com.fei.twitterjavaapi.model.projection;
+
+public interface ConversationNodeProjection {
+    Long getId();
+    Long getParentId();
+    Integer getDepth(); // < 0 = ancestor, 0 = focus tweet, > 0 = reply level
+}
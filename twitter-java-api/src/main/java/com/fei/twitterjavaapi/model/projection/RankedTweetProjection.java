@@ -0,0 +1,7 @@
+package com.fei.twitterjavaapi.model.projection;
+
+public interface RankedTweetProjection {
+    Long getId();
+    Double getScore();
+    Long getTotalCandidates();
+}
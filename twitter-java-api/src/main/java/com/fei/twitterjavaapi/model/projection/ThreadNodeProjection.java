@@ -0,0 +1,6 @@
+package com.fei.twitterjavaapi.model.projection;
+
+public interface ThreadNodeProjection {
+    Long getId();
+    String getMediaUrl();
+}
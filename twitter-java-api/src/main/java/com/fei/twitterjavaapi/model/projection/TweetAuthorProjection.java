@@ -0,0 +1,6 @@
+package com.fei.twitterjavaapi.model.projection;
+
+public interface TweetAuthorProjection {
+    Long getTweetId();
+    Long getAuthorId();
+}
@@ -0,0 +1,7 @@
+package com.fei.twitterjavaapi.model.projection;
+
+public interface TweetIndexProjection {
+    Long getId();
+    String getContent();
+    Long getCreatedAtMillis();
+}
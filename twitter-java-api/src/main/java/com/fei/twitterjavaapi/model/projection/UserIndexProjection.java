@@ -0,0 +1,9 @@
+package com.fei.twitterjavaapi.model.projection;
+
+public interface UserIndexProjection {
+    Long getId();
+    String getUsername();
+    String getDisplayName();
+    String getAvatarUrl();
+    int getFollowersCount();
+}
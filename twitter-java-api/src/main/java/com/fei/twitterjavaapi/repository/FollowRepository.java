@@ -2,12 +2,13 @@ package com.fei.twitterjavaapi.repository;
 
 import com.fei.twitterjavaapi.model.entity.Follow;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 @Repository
@@ -21,16 +22,48 @@ public interface FollowRepository extends JpaRepository<Follow, Follow.FollowKey
     """, nativeQuery = true)
     boolean isFollowing(@Param("followerId") Long followerId, @Param("followingId") Long followingId);
 
-    // 1. Follow (Insert the row)
-    // use native INSERT to avoid creating entity object in Java just to save it.
-    @Modifying
-    @Query(value = "INSERT INTO follows (follower_id, following_id, created_at) VALUES (:followerId, :followingId, NOW())", nativeQuery = true)
-    void followUser(@Param("followerId") Long followerId, @Param("followingId") Long followingId);
+    // 2. Follow: insert + both counters in 1 statement (idempotent, safe under double-taps)
+    // Returns the followed user's ID only if this call created the follow (empty = already following / no user)
+    @Transactional
+    @Query(value = """
+            WITH inserted AS (
+                INSERT INTO follows (follower_id, following_id, created_at)
+                SELECT :followerId, u.id, NOW() FROM users u WHERE u.id = :followingId
+                ON CONFLICT DO NOTHING
+                RETURNING following_id
+            ),
+            target AS (
+                UPDATE users SET followers_count = followers_count + 1
+                FROM inserted
+                WHERE users.id = inserted.following_id
+                RETURNING users.id
+            )
+            UPDATE users SET following_count = following_count + 1
+            FROM target
+            WHERE users.id = :followerId
+            RETURNING target.id
+            """, nativeQuery = true)
+    Optional<Long> insertFollow(@Param("followerId") Long followerId, @Param("followingId") Long followingId);
 
-    // 2. Unfollow (Delete the row)
-    @Modifying
-    @Query(value = "DELETE FROM follows WHERE follower_id = :followerId AND following_id = :followingId", nativeQuery = true)
-    void unfollowUser(@Param("followerId") Long followerId, @Param("followingId") Long followingId);
+    // 3. Unfollow: delete + both counters in 1 statement. Returns the ID only if a follow was removed.
+    @Transactional
+    @Query(value = """
+            WITH deleted AS (
+                DELETE FROM follows WHERE follower_id = :followerId AND following_id = :followingId
+                RETURNING following_id
+            ),
+            target AS (
+                UPDATE users SET followers_count = followers_count - 1
+                FROM deleted
+                WHERE users.id = deleted.following_id
+                RETURNING users.id
+            )
+            UPDATE users SET following_count = following_count - 1
+            FROM target
+            WHERE users.id = :followerId
+            RETURNING target.id
+            """, nativeQuery = true)
+    Optional<Long> deleteFollow(@Param("followerId") Long followerId, @Param("followingId") Long followingId);
 
     // Batch Fetch: Returns a Set of IDs of the users I follow from a specific list
     @Query("SELECT f.id.followingId FROM Follow f WHERE f.id.followerId = :followerId AND f.id.followingId IN :targetIds")
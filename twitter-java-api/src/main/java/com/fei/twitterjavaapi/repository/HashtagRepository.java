@@ -4,10 +4,13 @@ import com.fei.twitterjavaapi.model.entity.Hashtag;
 import com.fei.twitterjavaapi.model.projection.TrendingHashtagProjection;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -30,7 +33,7 @@ public interface HashtagRepository extends JpaRepository<Hashtag, Long> {
         FROM hashtags h
         JOIN tweet_hashtags th ON h.id = th.hashtag_id
         JOIN tweets t ON th.tweet_id = t.id
-        WHERE t.created_at >= NOW() - INTERVAL '24 hours'
+        WHERE t.created_at >= NOW() - INTERVAL '24 hours' AND t.deleted_at IS NULL
         GROUP BY h.id, h.text
         ORDER BY count DESC
         LIMIT :limit
@@ -47,4 +50,28 @@ public interface HashtagRepository extends JpaRepository<Hashtag, Long> {
          LIMIT :limit
      """, nativeQuery = true)
      List<TrendingHashtagProjection> findAllTimeTopHashtags(@Param("limit") int limit);
+
+     // Purge chunk: deletes the links (no FK cascade from partitioned tweets) and takes exactly the
+     // links deleted off usage_count, in 1 statement. A link deleted by someone else is never counted twice.
+     // Returns the IDs of the tags that were decremented.
+     @Transactional
+     @Query(value = """
+         WITH removed AS (
+             DELETE FROM tweet_hashtags WHERE tweet_id IN (:tweetIds)
+             RETURNING hashtag_id
+         ), used AS (
+             SELECT hashtag_id, COUNT(*) AS cnt FROM removed GROUP BY hashtag_id
+         )
+         UPDATE hashtags h
+         SET usage_count = GREATEST(h.usage_count - used.cnt, 0)
+         FROM used
+         WHERE h.id = used.hashtag_id
+         RETURNING h.id
+     """, nativeQuery = true)
+     List<Long> unlinkAndDecrementForTweets(@Param("tweetIds") Collection<Long> tweetIds);
+
+     // Tags of a purge chunk that reached 0
+     @Modifying
+     @Query(value = "DELETE FROM hashtags WHERE usage_count = 0 AND id IN (:hashtagIds)", nativeQuery = true)
+     int deleteUnusedByIdIn(@Param("hashtagIds") Collection<Long> hashtagIds);
 }
\ No newline at end of file
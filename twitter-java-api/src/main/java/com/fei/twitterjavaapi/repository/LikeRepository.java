@@ -7,23 +7,54 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 @Repository
 public interface LikeRepository extends JpaRepository<TweetLike, TweetLikeId> {
 
-    // 1. Check Existence (Using the entity relationships)
-    @Query("SELECT COUNT(tl) > 0 FROM TweetLike tl WHERE tl.user.id = :userId AND tl.tweet.id = :tweetId")
-    boolean existsByUserIdAndTweetId(@Param("userId") Long userId, @Param("tweetId") Long tweetId);
+    // 1. Like: insert + counter in 1 statement (idempotent, safe under double-taps)
+    // tweet_created_at is the partition key of tweet_likes (likes live in their tweet's month)
+    // Returns the tweet author's ID only if this call created the like (empty = already liked / no tweet)
+    @Transactional
+    @Query(value = """
+            WITH inserted AS (
+                INSERT INTO tweet_likes (user_id, tweet_id, created_at, tweet_created_at)
+                SELECT :userId, t.id, NOW(), t.created_at FROM tweets t WHERE t.id = :tweetId AND t.deleted_at IS NULL
+                ON CONFLICT DO NOTHING
+                RETURNING tweet_id, tweet_created_at
+            )
+            UPDATE tweets SET like_count = like_count + 1
+            FROM inserted
+            WHERE tweets.id = inserted.tweet_id AND tweets.created_at = inserted.tweet_created_at
+            RETURNING tweets.user_id
+            """, nativeQuery = true)
+    Optional<Long> insertLike(@Param("userId") Long userId, @Param("tweetId") Long tweetId);
 
-    // 2. Delete (Native is faster and cleaner for composite keys)
+    // 2. Unlike: delete + counter in 1 statement. Returns the tweet ID only if a like was removed.
+    @Transactional
+    @Query(value = """
+            WITH deleted AS (
+                DELETE FROM tweet_likes WHERE user_id = :userId AND tweet_id = :tweetId
+                RETURNING tweet_id
+            )
+            UPDATE tweets SET like_count = like_count - 1
+            FROM deleted
+            WHERE tweets.id = deleted.tweet_id
+            RETURNING tweets.id
+            """, nativeQuery = true)
+    Optional<Long> deleteLike(@Param("userId") Long userId, @Param("tweetId") Long tweetId);
+
+    // 3. Purge cleanup (no FK cascade from partitioned tweets)
     @Modifying
-    @Query(value = "DELETE FROM tweet_likes WHERE user_id = :userId AND tweet_id = :tweetId", nativeQuery = true)
-    void deleteByUserIdAndTweetId(@Param("userId") Long userId, @Param("tweetId") Long tweetId);
+    @Query(value = "DELETE FROM tweet_likes WHERE tweet_id IN (:tweetIds)", nativeQuery = true)
+    int deleteAllByTweetIdIn(@Param("tweetIds") Collection<Long> tweetIds);
 
-    // 3. Optimized Fetch for "Did I like these tweets?"
+    // 4. Optimized Fetch for "Did I like these tweets?"
     @Query("SELECT tl.tweet.id FROM TweetLike tl WHERE tl.user.id = :userId AND tl.tweet.id IN :tweetIds")
     Set<Long> findLikedTweetIdsByUserId(@Param("userId") Long userId, @Param("tweetIds") List<Long> tweetIds);
 }
\ No newline at end of file
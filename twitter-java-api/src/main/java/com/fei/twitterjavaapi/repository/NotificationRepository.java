@@ -9,6 +9,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
@@ -22,6 +24,11 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     """)
     Page<Notification> findByRecipientId(@Param("userId") Long userId, Pageable pageable);
 
+    // Purge cleanup (no FK cascade from partitioned tweets)
+    @Modifying
+    @Query(value = "DELETE FROM notifications WHERE tweet_id IN (:tweetIds)", nativeQuery = true)
+    int deleteAllByTweetIdIn(@Param("tweetIds") Collection<Long> tweetIds);
+
     long countByRecipientIdAndIsReadFalse(Long recipientId);
 
     @Modifying
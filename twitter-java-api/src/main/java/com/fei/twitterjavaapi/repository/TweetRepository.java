@@ -1,6 +1,12 @@
 package com.fei.twitterjavaapi.repository;
 
 import com.fei.twitterjavaapi.model.entity.Tweet;
+import com.fei.twitterjavaapi.model.projection.ConversationNodeProjection;
+import com.fei.twitterjavaapi.model.projection.IdRangeProjection;
+import com.fei.twitterjavaapi.model.projection.RankedTweetProjection;
+import com.fei.twitterjavaapi.model.projection.ThreadNodeProjection;
+import com.fei.twitterjavaapi.model.projection.TweetAuthorProjection;
+import com.fei.twitterjavaapi.model.projection.TweetIndexProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
@@ -11,6 +17,9 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -53,20 +62,27 @@ public interface TweetRepository extends JpaRepository<Tweet, Long> {
      * </li>
      * </ul>
      *
+     * <p>
+     * Only tweets newer than {@code since} are ranked: past a few weeks the decay makes any
+     * score negligible, and the bound lets the planner prune to the recent monthly partitions.
+     * </p>
+     *
+     * @param since    Oldest tweet considered (FeedService: now - app.feed.for-you.window-days)
      * @param pageable Pagination info (page, size)
      * @return A page of tweets sorted by their calculated "Hot" score.
      */
     // NOTE: @EntityGraph does NOT work on native queries.
     @Query(value = """
                 SELECT * FROM tweets t
-                WHERE t.parent_id IS NULL
+                WHERE t.created_at >= :since AND t.parent_id IS NULL AND t.deleted_at IS NULL
                 ORDER BY
                     (t.like_count * 2 + t.retweet_count * 3 + t.reply_count + 1) /
                     POWER((EXTRACT(EPOCH FROM NOW() - t.created_at) / 3600) + 2, 1.8)
                     DESC,
                     t.created_at DESC
-            """, countQuery = "SELECT count(*) FROM tweets WHERE parent_id IS NULL", nativeQuery = true)
-    Page<Tweet> findForYouFeed(Pageable pageable);
+            """, countQuery = "SELECT count(*) FROM tweets WHERE created_at >= :since AND parent_id IS NULL AND deleted_at IS NULL",
+            nativeQuery = true)
+    Page<Tweet> findForYouFeed(@Param("since") Instant since, Pageable pageable);
 
     // Following Timeline (People you follow)
     @EntityGraph(attributePaths = { "user", "retweet", "retweet.user" })
@@ -77,13 +93,47 @@ public interface TweetRepository extends JpaRepository<Tweet, Long> {
             """)
     Page<Tweet> findFollowingTimeline(@Param("userId") Long userId, Pageable pageable);
 
+    // Keyset variant: IDs are time-sortable, so "older than the cursor" is just "id < :cursor".
+    // The created_at range (PartitionBounds) only limits the monthly partitions scanned.
+    @EntityGraph(attributePaths = { "user", "retweet", "retweet.user" })
+    @Query("""
+            SELECT t FROM Tweet t
+            WHERE t.user.id IN (SELECT f.following.id FROM Follow f WHERE f.follower.id = :userId)
+            AND t.parent IS NULL AND t.id < :cursor
+            AND t.createdAt >= :from AND t.createdAt < :until
+            ORDER BY t.id DESC
+            """)
+    List<Tweet> findFollowingTimelineBefore(@Param("userId") Long userId, @Param("cursor") Long cursor,
+                                            @Param("from") LocalDateTime from, @Param("until") LocalDateTime until,
+                                            Pageable pageable);
+
+    // Incremental sync: what's newer than the client's head, oldest first (the cursor moves up)
+    @EntityGraph(attributePaths = { "user", "retweet", "retweet.user" })
+    @Query("""
+            SELECT t FROM Tweet t
+            WHERE t.user.id IN (SELECT f.following.id FROM Follow f WHERE f.follower.id = :userId)
+            AND t.parent IS NULL AND t.id > :cursor AND t.createdAt >= :from
+            ORDER BY t.id ASC
+            """)
+    List<Tweet> findFollowingTimelineAfter(@Param("userId") Long userId, @Param("cursor") Long cursor,
+                                           @Param("from") LocalDateTime from, Pageable pageable);
+
     // Main Profile Feed (User's tweets + retweets)
     @EntityGraph(attributePaths = { "user", "retweet", "retweet.user" })
     Page<Tweet> findAllByUserIdAndParentIdIsNull(Long userId, Pageable pageable);
 
-    // Reply Thread (Flat strategy)
     @EntityGraph(attributePaths = { "user", "retweet", "retweet.user" })
-    Page<Tweet> findAllByParentId(Long parentId, Pageable pageable);
+    List<Tweet> findAllByUserIdAndParentIdIsNullAndIdLessThanAndCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByIdDesc(
+            Long userId, Long cursor, LocalDateTime from, LocalDateTime until, Pageable pageable);
+
+    // Reply Thread (Flat strategy). Replies are newer than their parent: "from" comes from its ID.
+    @EntityGraph(attributePaths = { "user", "retweet", "retweet.user" })
+    Page<Tweet> findAllByParentIdAndCreatedAtGreaterThanEqual(Long parentId, LocalDateTime from, Pageable pageable);
+
+    // Replies read oldest first, so the cursor moves up
+    @EntityGraph(attributePaths = { "user", "retweet", "retweet.user" })
+    List<Tweet> findAllByParentIdAndIdGreaterThanAndCreatedAtGreaterThanEqualOrderByIdAsc(
+            Long parentId, Long cursor, LocalDateTime from, Pageable pageable);
 
     // ========================================================================
     // 2. ATOMIC COUNTERS (WRITES)
@@ -128,12 +178,70 @@ public interface TweetRepository extends JpaRepository<Tweet, Long> {
     // 3. RETWEET LOGIC
     // ========================================================================
 
-    // Check if user has already retweeted a specific tweet (Fast)
-    boolean existsByUserIdAndRetweetId(Long userId, Long retweetId);
+    /**
+     * Retweet: claim + insert + counter in 1 statement.
+     * The claim row in "retweets" (PK user_id + tweet_id) makes it idempotent: a unique index
+     * on partitioned tweets would have to include created_at, so it can't do this anymore.
+     * Retweeting a retweet targets the original (flattened in SQL).
+     * The ID comes from SnowflakeIdGenerator, not the column default: the DB's snowflake_id() shares 1
+     * sequence that cycles at 128/ms across the cluster. The insert has no "ON CONFLICT DO NOTHING":
+     * if it fails, the claim rolls back with it instead of staying without its retweet (which would
+     * block that user from ever retweeting the tweet).
+     *
+     * @param id  New snowflake ID for the retweet row
+     * @return tweetId + authorId of the original, only if this call created the retweet
+     */
+    @Transactional
+    @Query(value = """
+            WITH target AS (
+                SELECT COALESCE(t.retweet_id, t.id) AS id
+                FROM tweets t
+                WHERE t.id = :tweetId AND t.deleted_at IS NULL
+            ),
+            claimed AS (
+                INSERT INTO retweets (user_id, tweet_id, created_at)
+                SELECT :userId, target.id, NOW() FROM target
+                ON CONFLICT DO NOTHING
+                RETURNING tweet_id
+            ),
+            inserted AS (
+                INSERT INTO tweets (id, user_id, retweet_id, media_type, reply_count, retweet_count, like_count,
+                                    created_at, updated_at)
+                SELECT :id, :userId, claimed.tweet_id, 'NONE', 0, 0, 0, NOW(), NOW() FROM claimed
+                RETURNING retweet_id
+            )
+            UPDATE tweets SET retweet_count = retweet_count + 1
+            FROM inserted
+            WHERE tweets.id = inserted.retweet_id
+            RETURNING tweets.id AS tweetId, tweets.user_id AS authorId
+            """, nativeQuery = true)
+    Optional<TweetAuthorProjection> insertRetweet(@Param("id") Long id, @Param("userId") Long userId,
+                                                  @Param("tweetId") Long tweetId);
 
-    // Find specific retweet entity (Used for "Un-retweet" to delete the row)
-    // We don't need the graph here because we just need the Tweet ID to delete it.
-    Optional<Tweet> findByUserIdAndRetweetId(Long userId, Long retweetId);
+    // Undo retweet: unclaim + delete + counter in 1 statement. Returns the original's ID only if a retweet was removed.
+    @Transactional
+    @Query(value = """
+            WITH target AS (
+                SELECT COALESCE(t.retweet_id, t.id) AS id FROM tweets t WHERE t.id = :tweetId
+            ),
+            unclaimed AS (
+                DELETE FROM retweets c
+                USING target
+                WHERE c.user_id = :userId AND c.tweet_id = target.id
+                RETURNING c.tweet_id
+            ),
+            deleted AS (
+                DELETE FROM tweets r
+                USING unclaimed
+                WHERE r.user_id = :userId AND r.retweet_id = unclaimed.tweet_id
+                RETURNING r.retweet_id
+            )
+            UPDATE tweets SET retweet_count = retweet_count - 1
+            FROM deleted
+            WHERE tweets.id = deleted.retweet_id
+            RETURNING tweets.id
+            """, nativeQuery = true)
+    Optional<Long> deleteRetweet(@Param("userId") Long userId, @Param("tweetId") Long tweetId);
 
     // Batch Fetch: Finds which of the given tweetIds were retweeted by the user
     // Returns: A Set of IDs that should have the "Green Retweet Button" active
@@ -150,35 +258,271 @@ public interface TweetRepository extends JpaRepository<Tweet, Long> {
             SELECT t FROM Tweet t
             JOIN t.hashtags h
             WHERE LOWER(h.text) = LOWER(:hashtag)
-            ORDER BY t.createdAt DESC
+            AND (t.parent IS NULL OR EXISTS (SELECT 1 FROM Tweet p WHERE p = t.parent))
+            ORDER BY t.id DESC
             """)
     Page<Tweet> findTweetsByHashtag(@Param("hashtag") String hashtag, Pageable pageable);
 
+    @EntityGraph(attributePaths = { "user", "retweet", "retweet.user" })
+    @Query("""
+            SELECT t FROM Tweet t
+            JOIN t.hashtags h
+            WHERE LOWER(h.text) = LOWER(:hashtag) AND t.id < :cursor
+            AND t.createdAt >= :from AND t.createdAt < :until
+            AND (t.parent IS NULL OR EXISTS (SELECT 1 FROM Tweet p WHERE p = t.parent))
+            ORDER BY t.id DESC
+            """)
+    List<Tweet> findTweetsByHashtagBefore(@Param("hashtag") String hashtag, @Param("cursor") Long cursor,
+                                          @Param("from") LocalDateTime from, @Param("until") LocalDateTime until,
+                                          Pageable pageable);
+
     // Using PostgreSQL Full-Text Search (FTS)
     @Query(value = """
-            SELECT * FROM tweets
-            WHERE search_vector @@ to_tsquery('english', :query)
-            ORDER BY ts_rank(search_vector, to_tsquery('english', :query)) DESC, created_at DESC
-            """, countQuery = "SELECT count(*) FROM tweets WHERE search_vector @@ to_tsquery('english', :query)", nativeQuery = true)
+            SELECT * FROM tweets t
+            WHERE t.search_vector @@ to_tsquery('english', :query) AND t.deleted_at IS NULL
+              AND (t.parent_id IS NULL OR EXISTS (
+                  SELECT 1 FROM tweets p
+                  WHERE p.id = t.parent_id AND p.created_at <= t.created_at + INTERVAL '1 day' AND p.deleted_at IS NULL))
+            ORDER BY ts_rank(t.search_vector, to_tsquery('english', :query)) DESC, t.created_at DESC
+            """, countQuery = """
+            SELECT count(*) FROM tweets t
+            WHERE t.search_vector @@ to_tsquery('english', :query) AND t.deleted_at IS NULL
+              AND (t.parent_id IS NULL OR EXISTS (
+                  SELECT 1 FROM tweets p
+                  WHERE p.id = t.parent_id AND p.created_at <= t.created_at + INTERVAL '1 day' AND p.deleted_at IS NULL))
+            """, nativeQuery = true)
     Page<Tweet> searchTweets(@Param("query") String query, Pageable pageable);
 
+    /**
+     * Ranked search ("Top" tab) over a capped candidate set.
+     *
+     * <ol>
+     * <li><strong>Candidates:</strong> The GIN index finds the matches, and only the
+     * newest {@code candidateLimit} of them are kept. Popular terms no longer
+     * rank tens of thousands of rows.</li>
+     * <li><strong>Score:</strong> ts_rank * engagement boost / recency decay, computed
+     * for the candidates only, using the denormalized counters.
+     *
+     * <pre>
+     * Score = ts_rank * (1 + ln(1 + Likes * 2 + Retweets * 3 + Replies)) / (AgeInHours + 2) ^ 0.5
+     * </pre>
+     * </li>
+     * <li><strong>Keyset:</strong> Pages are cut with (score, id) &lt; cursor. Age is measured
+     * from {@code asOf} (fixed by the first page), so scores stay stable between pages.</li>
+     * </ol>
+     * {@code from} limits the partitions searched: TweetSearchEngine tries a recent window first and
+     * keeps it only when it holds all {@code candidateLimit} candidates (the same set as without it).
+     *
+     * The candidate count (capped) is returned with each row as the estimated total.
+     */
+    @Query(value = """
+            WITH candidates AS (
+                SELECT t.id, t.created_at, t.like_count, t.retweet_count, t.reply_count, t.search_vector
+                FROM tweets t
+                WHERE t.search_vector @@ to_tsquery('english', :query)
+                  AND t.created_at >= CAST(:from AS timestamptz)
+                  AND t.created_at <= CAST(:asOf AS timestamptz)
+                  AND t.deleted_at IS NULL
+                  AND (t.parent_id IS NULL OR EXISTS (
+                      SELECT 1 FROM tweets p
+                      WHERE p.id = t.parent_id AND p.created_at <= t.created_at + INTERVAL '1 day' AND p.deleted_at IS NULL))
+                ORDER BY t.created_at DESC
+                LIMIT :candidateLimit
+            ),
+            scored AS (
+                SELECT c.id,
+                       ts_rank(c.search_vector, to_tsquery('english', :query))
+                           * (1 + LN(1 + c.like_count * 2 + c.retweet_count * 3 + c.reply_count))
+                           / POWER((EXTRACT(EPOCH FROM CAST(:asOf AS timestamptz) - c.created_at) / 3600) + 2, 0.5)
+                           AS score,
+                       COUNT(*) OVER () AS total_candidates
+                FROM candidates c
+            )
+            SELECT s.id AS id, s.score AS score, s.total_candidates AS totalCandidates
+            FROM scored s
+            WHERE s.score < :cursorScore OR (s.score = :cursorScore AND s.id < :cursorId)
+            ORDER BY s.score DESC, s.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<RankedTweetProjection> searchTweetsRanked(@Param("query") String query,
+                                                   @Param("from") Instant from,
+                                                   @Param("asOf") Instant asOf,
+                                                   @Param("candidateLimit") int candidateLimit,
+                                                   @Param("cursorScore") double cursorScore,
+                                                   @Param("cursorId") long cursorId,
+                                                   @Param("limit") int limit);
+
+    // Loads a batch of tweets with authors/retweets in 1 query (order is NOT preserved).
+    // Replies to a tombstoned tweet are left out like the tombstoned tweets themselves.
+    @EntityGraph(attributePaths = { "user", "retweet", "retweet.user" })
+    @Query("""
+            SELECT t FROM Tweet t
+            WHERE t.id IN :ids
+            AND (t.parent IS NULL OR EXISTS (SELECT 1 FROM Tweet p WHERE p = t.parent))
+            """)
+    List<Tweet> findAllWithAuthorsByIdIn(@Param("ids") Collection<Long> ids);
+
     // ========================================================================
     // 5. UTILITIES & COMPLEX QUERIES
     // ========================================================================
 
-    // Recursive Cleanup: Finds the tweet and ALL descendants' media URLs
-    // Uses CTE (Common Table Expression) for tree traversal
+    // ========================================================================
+    // 6. DELETION (Tombstone now, purge in the background)
+    // ========================================================================
+
+    // Only the tweet and its retweets are tombstoned: a reply is hidden by its parent's tombstone
+    // (@SQLRestriction on p) until the purge removes it. Replies to those replies stay reachable by ID
+    // until their own chunk is purged (deepest first, usually within seconds).
+    @Query("""
+            SELECT t FROM Tweet t
+            WHERE t.id = :id
+            AND (t.parent IS NULL OR EXISTS (SELECT 1 FROM Tweet p WHERE p = t.parent))
+            """)
+    Optional<Tweet> findVisibleById(@Param("id") Long id);
+
+    @Query("""
+            SELECT COUNT(t) > 0 FROM Tweet t
+            WHERE t.id = :id
+            AND (t.parent IS NULL OR EXISTS (SELECT 1 FROM Tweet p WHERE p = t.parent))
+            """)
+    boolean existsVisibleById(@Param("id") Long id);
+
+    // Hides the tweet + its retweets right away (they'd point at a deleted tweet otherwise)
+    @Modifying
+    @Query(value = "UPDATE tweets SET deleted_at = NOW() WHERE (id = :tweetId OR retweet_id = :tweetId) AND deleted_at IS NULL",
+            nativeQuery = true)
+    int tombstone(@Param("tweetId") Long tweetId);
+
+    // Retweets of purged replies (the root's own retweets were tombstoned with it): they become purge roots too
+    @Modifying
+    @Query(value = "UPDATE tweets SET deleted_at = NOW() WHERE retweet_id IN (:ids) AND deleted_at IS NULL", nativeQuery = true)
+    int tombstoneRetweetsOf(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT id FROM tweets WHERE deleted_at IS NOT NULL ORDER BY deleted_at LIMIT :limit", nativeQuery = true)
+    List<Long> findTombstonedIds(@Param("limit") int limit);
+
+    // Claims a thread for 1 purge chunk (released at commit). FALSE = another node is purging it right now.
+    // Single 64-bit key: a separate key space from the (namespace, node) locks of SnowflakeIdGenerator.
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:rootId)", nativeQuery = true)
+    boolean tryLockThreadForPurge(@Param("rootId") Long rootId);
+
+    /**
+     * Next chunk of a thread to purge: deepest replies first (IDs + media URLs).
+     * Deleting leaves before their parents means no reply is ever left pointing at a
+     * deleted parent, so each chunk deletes exactly the rows it names. The root (depth 0) comes last.
+     */
     @Query(value = """
                 WITH RECURSIVE tweet_tree AS (
-                    SELECT id, media_url, parent_id
+                    SELECT id, 0 AS depth
                     FROM tweets
-                    WHERE id = :tweetId
+                    WHERE id = :rootId
                     UNION ALL
-                    SELECT t.id, t.media_url, t.parent_id
+                    SELECT t.id, tt.depth + 1
                     FROM tweets t
                     INNER JOIN tweet_tree tt ON t.parent_id = tt.id
                 )
-                SELECT media_url FROM tweet_tree WHERE media_url IS NOT NULL
+                SELECT t.id AS id, t.media_url AS mediaUrl
+                FROM tweet_tree tt
+                JOIN tweets t ON t.id = tt.id
+                ORDER BY tt.depth DESC, tt.id
+                LIMIT :limit
+            """, nativeQuery = true)
+    List<ThreadNodeProjection> findThreadPurgeChunk(@Param("rootId") Long rootId, @Param("limit") int limit);
+
+    // Retweet claims of a purge chunk: claims made by purged retweets + claims on purged originals
+    @Modifying
+    @Query(value = """
+            DELETE FROM retweets
+            WHERE (user_id, tweet_id) IN (SELECT user_id, retweet_id FROM tweets WHERE id IN (:ids) AND retweet_id IS NOT NULL)
+               OR tweet_id IN (:ids)
+            """, nativeQuery = true)
+    int deleteRetweetClaimsForTweets(@Param("ids") Collection<Long> ids);
+
+    // Set-based delete (no entity loading, no JPA cascade). Dependents are removed first by ThreadPurgeJob.
+    // Returns the rows actually deleted: their media is released, nothing else.
+    @Transactional
+    @Query(value = "DELETE FROM tweets WHERE id IN (:ids) RETURNING id AS id, media_url AS mediaUrl", nativeQuery = true)
+    List<ThreadNodeProjection> deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Conversation skeleton (IDs + parent links) in 1 round trip.
+     *
+     * <ul>
+     * <li><strong>Ancestors:</strong> Walks up from the focus tweet, at most {@code maxAncestors}.</li>
+     * <li><strong>Descendants:</strong> Walks down at most {@code maxDepth} levels, keeping only the
+     * first {@code maxBreadth} replies of each tweet (oldest first, same order as the replies page),
+     * so a viral thread can't explode the result.</li>
+     * </ul>
+     * Rows are ordered so that children come out in display order for each parent.
+     * A reply is newer than its parent, so each step only scans the partitions from the parent's month
+     * on (give or take PartitionBounds.MARGIN, 1 day).
+     */
+    @Query(value = """
+            WITH RECURSIVE ancestors AS (
+                SELECT t.id, t.parent_id, 0 AS depth, t.created_at
+                FROM tweets t
+                WHERE t.id = :tweetId AND t.deleted_at IS NULL
+                UNION ALL
+                SELECT p.id, p.parent_id, a.depth - 1, p.created_at
+                FROM tweets p
+                INNER JOIN ancestors a ON p.id = a.parent_id AND p.created_at <= a.created_at + INTERVAL '1 day'
+                WHERE a.depth > 0 - :maxAncestors
+            ),
+            descendants AS (
+                SELECT t.id, t.parent_id, 0 AS depth, t.created_at
+                FROM tweets t
+                WHERE t.id = :tweetId AND t.deleted_at IS NULL
+                UNION ALL
+                SELECT c.id, c.parent_id, d.depth + 1, c.created_at
+                FROM descendants d
+                CROSS JOIN LATERAL (
+                    SELECT r.id, r.parent_id, r.created_at
+                    FROM tweets r
+                    WHERE r.parent_id = d.id AND r.created_at >= d.created_at - INTERVAL '1 day'
+                      AND r.deleted_at IS NULL
+                    ORDER BY r.created_at ASC, r.id ASC
+                    LIMIT :maxBreadth
+                ) c
+                WHERE d.depth < :maxDepth
+            )
+            SELECT id AS id, parent_id AS parentId, depth AS depth
+            FROM (
+                SELECT a.id, a.parent_id, a.depth, CAST(NULL AS timestamptz) AS created_at FROM ancestors a WHERE a.depth < 0
+                UNION ALL
+                SELECT d.id, d.parent_id, d.depth, d.created_at FROM descendants d
+            ) nodes
+            ORDER BY depth ASC, created_at ASC, id ASC
+            """, nativeQuery = true)
+    List<ConversationNodeProjection> findConversationSkeleton(@Param("tweetId") Long tweetId,
+                                                              @Param("maxAncestors") int maxAncestors,
+                                                              @Param("maxDepth") int maxDepth,
+                                                              @Param("maxBreadth") int maxBreadth);
+
+    // ========================================================================
+    // 7. SEARCH INDEX REBUILD (Projections only, no entities in memory)
+    // ========================================================================
+
+    @Query(value = "SELECT MIN(id) AS minId, MAX(id) AS maxId FROM tweets", nativeQuery = true)
+    IdRangeProjection findIdRange();
+
+    // Snowflake IDs are sparse (huge gaps), so chunks are cut by row count instead of ID width.
+    // Returns the first ID of every chunk (index-only scan on the PK).
+    @Query(value = """
+            SELECT id FROM (
+                SELECT id, ROW_NUMBER() OVER (ORDER BY id) AS rn FROM tweets
+            ) numbered
+            WHERE (rn - 1) % :chunkSize = 0
+            ORDER BY id
+            """, nativeQuery = true)
+    List<Long> findIdChunkStarts(@Param("chunkSize") int chunkSize);
+
+    // Retweets have no text, so they are never indexed
+    @Query(value = """
+            SELECT id AS id,
+                   content AS content,
+                   CAST(EXTRACT(EPOCH FROM created_at) * 1000 AS BIGINT) AS createdAtMillis
+            FROM tweets
+            WHERE id BETWEEN :fromId AND :toId AND content IS NOT NULL AND deleted_at IS NULL
             """, nativeQuery = true)
-    List<String> findAllMediaUrlsInThread(@Param("tweetId") Long tweetId);
+    List<TweetIndexProjection> findIndexableTweetsInRange(@Param("fromId") long fromId, @Param("toId") long toId);
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.fei.twitterjavaapi.repository;
 
 import com.fei.twitterjavaapi.model.entity.User;
+import com.fei.twitterjavaapi.model.projection.IdRangeProjection;
+import com.fei.twitterjavaapi.model.projection.UserIndexProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,7 +10,9 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,13 +20,46 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
-    @Query("""
-            SELECT u FROM User u
-            WHERE LOWER(u.username) LIKE LOWER(CONCAT('%', :query, '%'))
-               OR LOWER(u.displayName) LIKE LOWER(CONCAT('%', :query, '%'))
-            ORDER BY u.followersCount DESC
-            """)
-    Page<User> searchUsers(@Param("query") String query, Pageable pageable);
+    /**
+     * People search ranked by trigram similarity * popularity.
+     *
+     * <pre>
+     * Score = max(similarity(username), similarity(display_name)) * ln(Followers + 2)
+     * </pre>
+     *
+     * The columns are NOT wrapped in LOWER(): ILIKE and the % (similar-to) operator
+     * are served directly by the gin_trgm_ops indexes from V1.
+     * ILIKE catches substrings ("ohn" -> "john"), % catches typos ("jonh" -> "john").
+     *
+     * @param query   Raw search text (used for similarity)
+     * @param pattern ILIKE pattern, e.g. "%ohn%" (LIKE wildcards in the input already escaped)
+     */
+    @Query(value = """
+            SELECT u.* FROM users u
+            WHERE u.username ILIKE :pattern
+               OR u.display_name ILIKE :pattern
+               OR u.username % :query
+               OR u.display_name % :query
+            ORDER BY GREATEST(similarity(u.username, :query), similarity(COALESCE(u.display_name, ''), :query))
+                         * LN(u.followers_count + 2) DESC,
+                     u.id DESC
+            LIMIT :limit OFFSET :offset
+            """, nativeQuery = true)
+    List<User> searchUsersBySimilarity(@Param("query") String query, @Param("pattern") String pattern,
+                                       @Param("limit") int limit, @Param("offset") long offset);
+
+    // Counts matches up to :cap only (stops scanning early for very common fragments)
+    @Query(value = """
+            SELECT COUNT(*) FROM (
+                SELECT 1 FROM users u
+                WHERE u.username ILIKE :pattern
+                   OR u.display_name ILIKE :pattern
+                   OR u.username % :query
+                   OR u.display_name % :query
+                LIMIT :cap
+            ) matches
+            """, nativeQuery = true)
+    long countUsersBySimilarity(@Param("query") String query, @Param("pattern") String pattern, @Param("cap") int cap);
 
     // FOLLOWER COUNTS (The person being followed)
     @Modifying
@@ -50,20 +87,68 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u JOIN Follow f ON u.id = f.id.followingId WHERE f.id.followerId = :targetUserId")
     Page<User> findFollowingByUserId(@Param("targetUserId") Long targetUserId, Pageable pageable);
 
-    // List ALL users (except self), but sort by:
-    // 1. Not followed by me (Status = 0)
-    // 2. Followed by me (Status = 1)
-    // 3. Then by popularity
+    // "Who to follow": precomputed list, best first (see refreshSuggestions)
+    @Query(value = """
+            SELECT u.* FROM user_suggestions s
+            JOIN users u ON u.id = s.suggested_user_id
+            WHERE s.user_id = :userId
+            ORDER BY s.score DESC, s.suggested_user_id DESC
+            """, nativeQuery = true)
+    List<User> findPrecomputedSuggestions(@Param("userId") Long userId);
+
+    // Cold start (no precomputed list yet): most followed users
+    List<User> findTop100ByOrderByFollowersCountDesc();
+
+    /**
+     * Recomputes "Who to follow" for one user: friends-of-friends, scored by mutuals * popularity.
+     *
+     * <pre>
+     * Score = Mutuals * ln(Followers + 2)
+     * </pre>
+     *
+     * Mutuals = how many of the people I follow also follow the candidate.
+     * Upserts with the run timestamp, stale rows are removed by {@link #deleteStaleSuggestions}.
+     * Readers never see an empty list while a user is being recomputed.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO user_suggestions (user_id, suggested_user_id, mutual_count, score, computed_at)
+            SELECT :userId, c.id, c.mutuals, c.mutuals * LN(GREATEST(c.followers_count, 0) + 2), :computedAt
+            FROM (
+                SELECT u.id, u.followers_count, COUNT(*) AS mutuals
+                FROM follows mine
+                JOIN follows theirs ON theirs.follower_id = mine.following_id
+                JOIN users u ON u.id = theirs.following_id
+                WHERE mine.follower_id = :userId
+                  AND theirs.following_id <> :userId
+                  AND NOT EXISTS (SELECT 1 FROM follows f
+                                  WHERE f.follower_id = :userId AND f.following_id = theirs.following_id)
+                GROUP BY u.id, u.followers_count
+            ) c
+            ORDER BY 4 DESC, c.id DESC
+            LIMIT :limit
+            ON CONFLICT (user_id, suggested_user_id) DO UPDATE
+            SET mutual_count = EXCLUDED.mutual_count, score = EXCLUDED.score, computed_at = EXCLUDED.computed_at
+            """, nativeQuery = true)
+    int refreshSuggestions(@Param("userId") long userId, @Param("computedAt") Instant computedAt,
+                           @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM user_suggestions WHERE user_id = :userId AND computed_at < :computedAt", nativeQuery = true)
+    int deleteStaleSuggestions(@Param("userId") long userId, @Param("computedAt") Instant computedAt);
+
+    // Users worth recomputing: follow someone + signed in recently (live refresh token), keyset batches
     @Query(value = """
-                SELECT u FROM User u
-                LEFT JOIN Follow f ON f.following.id = u.id AND f.follower.id = :currentUserId
-                WHERE u.id != :currentUserId
-                ORDER BY (CASE WHEN f.id IS NULL THEN 0 ELSE 1 END) ASC, u.followersCount DESC
-            """, countQuery = """
-                SELECT count(u) FROM User u
-                WHERE u.id != :currentUserId
-            """)
-    Page<User> findSuggestedUsers(@Param("currentUserId") Long currentUserId, Pageable pageable);
+            SELECT u.id FROM users u
+            WHERE u.id > :afterId
+              AND u.following_count > 0
+              AND EXISTS (SELECT 1 FROM refresh_tokens rt WHERE rt.user_id = u.id AND rt.expiry_date > NOW())
+            ORDER BY u.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Long> findActiveFollowerIdsAfter(@Param("afterId") long afterId, @Param("limit") int limit);
 
     // Guest: Top users globally
     @Query(value = "SELECT u FROM User u ORDER BY u.followersCount DESC", countQuery = "SELECT count(u) FROM User u")
@@ -71,4 +156,27 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT f.following.id FROM Follow f WHERE f.follower.id = :followerId AND f.following.id IN :targetIds")
     List<Long> findFollowedUserIds(@Param("followerId") Long followerId, @Param("targetIds") List<Long> targetIds);
+
+    // SEARCH INDEX REBUILD / HANDLE INDEX (Projections only, no entities in memory)
+    @Query(value = "SELECT MIN(id) AS minId, MAX(id) AS maxId FROM users", nativeQuery = true)
+    IdRangeProjection findIdRange();
+
+    @Query(value = """
+            SELECT id AS id, username AS username, display_name AS displayName,
+                   avatar_url AS avatarUrl, followers_count AS followersCount
+            FROM users
+            WHERE id BETWEEN :fromId AND :toId
+            """, nativeQuery = true)
+    List<UserIndexProjection> findIndexableUsersInRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    // Keyset batches for the in-memory handle index
+    @Query(value = """
+            SELECT id AS id, username AS username, display_name AS displayName,
+                   avatar_url AS avatarUrl, followers_count AS followersCount
+            FROM users
+            WHERE id > :afterId
+            ORDER BY id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<UserIndexProjection> findIndexableUsersAfter(@Param("afterId") long afterId, @Param("limit") int limit);
 }
\ No newline at end of file
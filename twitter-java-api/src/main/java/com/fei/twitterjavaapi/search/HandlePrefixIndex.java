@@ -0,0 +1,151 @@
+package com.fei.twitterjavaapi.search;
+
+import com.fei.twitterjavaapi.model.dto.user.UserSummary;
+import com.fei.twitterjavaapi.model.projection.UserIndexProjection;
+import com.fei.twitterjavaapi.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory handle lookup for "@jo..." mention autocomplete. Never touches the DB on reads.
+ * <p>
+ * Handles are kept sorted (skip list), so all handles starting with a prefix are one
+ * contiguous range. The range is scanned (bounded) and the most-followed users win.
+ * <ul>
+ * <li><strong>Writes:</strong> Registrations / profile edits are applied via HandleIndexListener. Writes made
+ * during a full reload are replayed onto the new snapshot before it's swapped in.</li>
+ * <li><strong>Keys:</strong> (lower-cased handle, user ID): "John" and "john" are 2 users, each with its own entry.</li>
+ * <li><strong>Drift:</strong> Follower counts are re-synced by a periodic full reload.</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HandlePrefixIndex {
+
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    private final UserRepository userRepository;
+
+    // Max entries looked at per lookup (short prefixes like "j" can match a big range)
+    @Value("${app.search.handles.max-scan:20000}")
+    private int maxScan;
+
+    // (Lower-cased handle, ID) -> entry (swapped atomically on full reload)
+    private volatile ConcurrentSkipListMap<HandleKey, HandleEntry> byHandle = new ConcurrentSkipListMap<>(HandleKey.ORDER);
+    // User ID -> current key (to drop the old key if a handle changes)
+    private volatile Map<Long, HandleKey> handleById = new ConcurrentHashMap<>();
+
+    // Upserts since the running reload started, latest per user (null = no reload). Guarded by "this".
+    private Map<Long, HandleEntry> upsertsDuringReload;
+
+    public List<UserSummary> lookup(String rawPrefix, int limit) {
+        String prefix = normalize(rawPrefix);
+        if (prefix.isEmpty() || limit <= 0) return List.of();
+
+        // Min-heap of size "limit", ordered by followers
+        PriorityQueue<HandleEntry> top = new PriorityQueue<>(Comparator.comparingInt(HandleEntry::followersCount));
+        int scanned = 0;
+
+        HandleKey from = new HandleKey(prefix, Long.MIN_VALUE);
+        HandleKey to = new HandleKey(prefix + Character.MAX_VALUE, Long.MIN_VALUE);
+        for (HandleEntry entry : byHandle.subMap(from, true, to, false).values()) {
+            top.offer(entry);
+            if (top.size() > limit) top.poll();
+            if (++scanned >= maxScan) break;
+        }
+
+        return top.stream()
+                .sorted(Comparator.comparingInt(HandleEntry::followersCount).reversed())
+                .map(HandleEntry::toSummary)
+                .toList();
+    }
+
+    public synchronized void upsert(long id, String username, String displayName, String avatarUrl, int followersCount) {
+        HandleEntry entry = new HandleEntry(id, username, displayName, avatarUrl, followersCount);
+        apply(byHandle, handleById, entry);
+        // The reload may have read this user before the change: replayed before its swap
+        if (upsertsDuringReload != null) upsertsDuringReload.put(id, entry);
+    }
+
+    // Full reload in keyset batches, then swap (readers never see a half-built index)
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.search.handles.reload-interval-ms:600000}")
+    public void reload() {
+        long start = System.currentTimeMillis();
+        ConcurrentSkipListMap<HandleKey, HandleEntry> newByHandle = new ConcurrentSkipListMap<>(HandleKey.ORDER);
+        Map<Long, HandleKey> newHandleById = new ConcurrentHashMap<>();
+        synchronized (this) {
+            upsertsDuringReload = new LinkedHashMap<>();
+        }
+
+        try {
+            long afterId = 0;
+            List<UserIndexProjection> batch;
+            do {
+                batch = userRepository.findIndexableUsersAfter(afterId, LOAD_BATCH_SIZE);
+                for (UserIndexProjection u : batch) {
+                    apply(newByHandle, newHandleById, new HandleEntry(u.getId(), u.getUsername(), u.getDisplayName(),
+                            u.getAvatarUrl(), u.getFollowersCount()));
+                    afterId = u.getId();
+                }
+            } while (batch.size() == LOAD_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            // Keep serving the previous snapshot
+            log.error("Handle index reload failed", e);
+            synchronized (this) {
+                upsertsDuringReload = null;
+            }
+            return;
+        }
+
+        // Replay + swap under the upsert lock: no write lands in the old maps after this
+        synchronized (this) {
+            upsertsDuringReload.values().forEach(entry -> apply(newByHandle, newHandleById, entry));
+            upsertsDuringReload = null;
+            this.byHandle = newByHandle;
+            this.handleById = newHandleById;
+        }
+        log.info("Handle index loaded: {} users in {} ms", newByHandle.size(), System.currentTimeMillis() - start);
+    }
+
+    // Only removes this user's previous key (another user may share the lower-cased handle)
+    private static void apply(ConcurrentSkipListMap<HandleKey, HandleEntry> byHandle, Map<Long, HandleKey> handleById,
+                              HandleEntry entry) {
+        HandleKey key = new HandleKey(normalize(entry.username()), entry.id());
+        HandleKey previousKey = handleById.put(entry.id(), key);
+        if (previousKey != null && !previousKey.equals(key)) {
+            byHandle.remove(previousKey);
+        }
+        byHandle.put(key, entry);
+    }
+
+    // "@John_A" -> "john_a"
+    private static String normalize(String handle) {
+        if (handle == null) return "";
+        String trimmed = handle.trim();
+        if (trimmed.startsWith("@")) trimmed = trimmed.substring(1);
+        return trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    private record HandleKey(String handle, long id) {
+        static final Comparator<HandleKey> ORDER = Comparator.comparing(HandleKey::handle).thenComparingLong(HandleKey::id);
+    }
+
+    private record HandleEntry(long id, String username, String displayName, String avatarUrl, int followersCount) {
+        UserSummary toSummary() {
+            return new UserSummary(id, username, displayName, avatarUrl);
+        }
+    }
+}
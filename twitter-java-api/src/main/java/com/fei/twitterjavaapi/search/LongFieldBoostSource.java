@@ -0,0 +1,79 @@
+package com.fei.twitterjavaapi.search;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.search.DoubleValues;
+import org.apache.lucene.search.DoubleValuesSource;
+import org.apache.lucene.search.IndexSearcher;
+
+import java.io.IOException;
+import java.util.function.LongToDoubleFunction;
+
+/**
+ * Turns a numeric doc-values field into a score multiplier.
+ * e.g. createdAt -> recency decay, followersCount -> popularity boost.
+ */
+class LongFieldBoostSource extends DoubleValuesSource {
+
+    private final String field;
+    private final String description;
+    private final LongToDoubleFunction boost;
+
+    LongFieldBoostSource(String field, String description, LongToDoubleFunction boost) {
+        this.field = field;
+        this.description = description;
+        this.boost = boost;
+    }
+
+    @Override
+    public DoubleValues getValues(LeafReaderContext ctx, DoubleValues scores) throws IOException {
+        NumericDocValues values = DocValues.getNumeric(ctx.reader(), field);
+        return new DoubleValues() {
+            private long current;
+
+            @Override
+            public double doubleValue() {
+                return boost.applyAsDouble(current);
+            }
+
+            @Override
+            public boolean advanceExact(int doc) throws IOException {
+                // Missing value -> treat as 0 (still returns a boost, never drops the hit)
+                current = values.advanceExact(doc) ? values.longValue() : 0L;
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public boolean needsScores() {
+        return false;
+    }
+
+    @Override
+    public DoubleValuesSource rewrite(IndexSearcher searcher) {
+        return this;
+    }
+
+    // Boost functions may capture "now", so results must not be cached
+    @Override
+    public boolean isCacheable(LeafReaderContext ctx) {
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj;
+    }
+
+    @Override
+    public String toString() {
+        return description + "(" + field + ")";
+    }
+}
@@ -0,0 +1,311 @@
+package com.fei.twitterjavaapi.search;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queries.function.FunctionScoreQuery;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Embedded Lucene index for tweet + people search.
+ * <p>
+ * Takes text search off PostgreSQL: the DB is only used to load the final page by primary key.
+ * <ul>
+ * <li><strong>Writes:</strong> Buffered by the IndexWriter (fed by SearchIndexListener after each commit).</li>
+ * <li><strong>Near-real-time:</strong> The searcher is reopened every second, so new tweets become
+ * searchable within ~1s without a full commit.</li>
+ * <li><strong>Scoring:</strong> BM25 (Lucene default) multiplied by a recency decay (tweets)
+ * or a follower boost (users).</li>
+ * </ul>
+ * The index is rebuilt from the DB on startup (SearchIndexRebuilder). Until that finishes,
+ * {@link #isReady()} is false and searches stay on PostgreSQL.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.lucene.enabled", havingValue = "true")
+@Slf4j
+public class LuceneSearchIndex {
+
+    // Field names
+    private static final String KEY = "key";           // "tweet:42" / "user:7" (unique per doc)
+    private static final String TYPE = "type";
+    private static final String ID = "id";
+    private static final String CONTENT = "content";
+    private static final String CREATED_AT = "createdAt";
+    private static final String USERNAME = "username";
+    private static final String DISPLAY_NAME = "displayName";
+    private static final String FOLLOWERS = "followers";
+
+    private static final String TYPE_TWEET = "tweet";
+    private static final String TYPE_USER = "user";
+
+    private static final double MILLIS_PER_HOUR = 3_600_000.0;
+
+    @Value("${app.search.lucene.path:./data/search-index}")
+    private String indexPath;
+
+    private final Analyzer contentAnalyzer = new EnglishAnalyzer(); // Stemming + stop words (like to_tsvector('english'))
+    private final Analyzer nameAnalyzer = new StandardAnalyzer();
+
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private volatile boolean ready = false;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Analyzer analyzer = new PerFieldAnalyzerWrapper(nameAnalyzer, Map.of(CONTENT, contentAnalyzer));
+
+        this.directory = FSDirectory.open(Path.of(indexPath));
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        // NRT: searchers opened from the writer see uncommitted changes
+        this.searcherManager = new SearcherManager(writer, null);
+
+        log.info("Lucene search index opened at {}", indexPath);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ========================================================================
+    // 1. WRITES
+    // ========================================================================
+
+    public void indexTweet(long id, String content, long createdAtMillis) {
+        // Retweets have no text, nothing to search
+        if (content == null || content.isBlank()) return;
+
+        Document doc = new Document();
+        doc.add(new StringField(KEY, tweetKey(id), Field.Store.NO));
+        doc.add(new StringField(TYPE, TYPE_TWEET, Field.Store.NO));
+        doc.add(new StoredField(ID, id));
+        doc.add(new TextField(CONTENT, content, Field.Store.NO));
+        doc.add(new NumericDocValuesField(CREATED_AT, createdAtMillis));
+
+        update(tweetKey(id), doc);
+    }
+
+    public void deleteTweets(Collection<Long> ids) {
+        if (ids.isEmpty()) return;
+
+        Term[] keys = ids.stream().map(id -> new Term(KEY, tweetKey(id))).toArray(Term[]::new);
+        try {
+            writer.deleteDocuments(keys);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void indexUser(long id, String username, String displayName, int followersCount) {
+        Document doc = new Document();
+        doc.add(new StringField(KEY, userKey(id), Field.Store.NO));
+        doc.add(new StringField(TYPE, TYPE_USER, Field.Store.NO));
+        doc.add(new StoredField(ID, id));
+        // Handle is matched as a whole (prefix), lower-cased for case-insensitive lookup
+        doc.add(new StringField(USERNAME, username.toLowerCase(Locale.ROOT), Field.Store.NO));
+        if (displayName != null) {
+            doc.add(new TextField(DISPLAY_NAME, displayName, Field.Store.NO));
+        }
+        doc.add(new NumericDocValuesField(FOLLOWERS, followersCount));
+
+        update(userKey(id), doc);
+    }
+
+    // Makes buffered writes visible to new searches (cheap if nothing changed)
+    @Scheduled(fixedDelayString = "${app.search.lucene.refresh-interval-ms:1000}")
+    public void refresh() throws IOException {
+        searcherManager.maybeRefresh();
+    }
+
+    // Durability only: the index is rebuilt on startup anyway, so this can be infrequent
+    @Scheduled(fixedDelayString = "${app.search.lucene.commit-interval-ms:30000}")
+    public void commit() throws IOException {
+        if (writer.hasUncommittedChanges()) {
+            writer.commit();
+        }
+    }
+
+    void beginRebuild() throws IOException {
+        ready = false;
+        writer.deleteAll();
+    }
+
+    void finishRebuild() throws IOException {
+        writer.commit();
+        searcherManager.maybeRefreshBlocking();
+        ready = true;
+    }
+
+    // ========================================================================
+    // 2. SEARCHES
+    // ========================================================================
+
+    // All words must match (same semantics as "a & b" in to_tsquery)
+    public IndexHits searchTweets(String rawQuery, int page, int size) {
+        Set<String> terms = analyze(contentAnalyzer, CONTENT, rawQuery);
+        if (terms.isEmpty()) return IndexHits.EMPTY;
+
+        BooleanQuery.Builder text = new BooleanQuery.Builder();
+        for (String term : terms) {
+            text.add(new TermQuery(new Term(CONTENT, term)), Occur.MUST);
+        }
+
+        Query query = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(TYPE, TYPE_TWEET)), Occur.FILTER)
+                .add(text.build(), Occur.MUST)
+                .build();
+
+        // Score = BM25 / (AgeInHours + 2) ^ 0.5
+        long now = System.currentTimeMillis();
+        Query ranked = FunctionScoreQuery.boostByValue(query, new LongFieldBoostSource(CREATED_AT, "recency",
+                createdAt -> 1.0 / Math.sqrt(Math.max(0, now - createdAt) / MILLIS_PER_HOUR + 2)));
+
+        return search(ranked, page, size);
+    }
+
+    // Matches a handle prefix ("@jo" -> "john_a1b2") or the display name words
+    public IndexHits searchUsers(String rawQuery, int page, int size) {
+        String handlePrefix = rawQuery.trim().toLowerCase(Locale.ROOT).replaceFirst("^@", "");
+        if (handlePrefix.isEmpty()) return IndexHits.EMPTY;
+
+        BooleanQuery.Builder match = new BooleanQuery.Builder()
+                .add(new PrefixQuery(new Term(USERNAME, handlePrefix)), Occur.SHOULD);
+
+        Set<String> tokens = analyze(nameAnalyzer, DISPLAY_NAME, rawQuery);
+        if (!tokens.isEmpty()) {
+            BooleanQuery.Builder name = new BooleanQuery.Builder();
+            for (String token : tokens) {
+                // Exact word gets a BM25 score, the prefix keeps "search-as-you-type" working
+                name.add(new BooleanQuery.Builder()
+                        .add(new TermQuery(new Term(DISPLAY_NAME, token)), Occur.SHOULD)
+                        .add(new PrefixQuery(new Term(DISPLAY_NAME, token)), Occur.SHOULD)
+                        .build(), Occur.MUST);
+            }
+            match.add(name.build(), Occur.SHOULD);
+        }
+
+        Query query = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(TYPE, TYPE_USER)), Occur.FILTER)
+                .add(match.build(), Occur.MUST)
+                .build();
+
+        // Score = BM25 * ln(Followers + 2)
+        Query ranked = FunctionScoreQuery.boostByValue(query, new LongFieldBoostSource(FOLLOWERS, "popularity",
+                followers -> Math.log(Math.max(0, followers) + 2)));
+
+        return search(ranked, page, size);
+    }
+
+    // ========================================================================
+    // 3. HELPERS
+    // ========================================================================
+
+    private IndexHits search(Query query, int page, int size) {
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs top = searcher.search(query, (page + 1) * size);
+                StoredFields storedFields = searcher.storedFields();
+
+                List<Long> ids = new ArrayList<>(size);
+                for (int i = page * size; i < top.scoreDocs.length; i++) {
+                    Document doc = storedFields.document(top.scoreDocs[i].doc, Set.of(ID));
+                    ids.add(doc.getField(ID).numericValue().longValue());
+                }
+                return new IndexHits(ids, top.totalHits.value());
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void update(String key, Document doc) {
+        try {
+            writer.updateDocument(new Term(KEY, key), doc);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Runs the query text through the same analyzer used at index time
+    private static Set<String> analyze(Analyzer analyzer, String field, String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        try (TokenStream stream = analyzer.tokenStream(field, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private static String tweetKey(long id) {
+        return TYPE_TWEET + ":" + id;
+    }
+
+    private static String userKey(long id) {
+        return TYPE_USER + ":" + id;
+    }
+
+    /**
+     * @param ids       Matching IDs for the requested page, in score order
+     * @param totalHits Total matches (may be a lower bound for very large result sets)
+     */
+    public record IndexHits(List<Long> ids, long totalHits) {
+        static final IndexHits EMPTY = new IndexHits(List.of(), 0);
+    }
+}
@@ -0,0 +1,42 @@
+package com.fei.twitterjavaapi.search;
+
+import com.fei.twitterjavaapi.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keyset position inside a ranked result list.
+ * Encoded as an opaque URL-safe token: base64("asOfMillis:score:id").
+ *
+ * @param asOf  Reference time fixed by the first page (keeps recency scores stable between pages)
+ * @param score Score of the last item returned
+ * @param id    Id of the last item returned (tie-breaker)
+ */
+public record RankedCursor(Instant asOf, double score, long id) {
+
+    // Starting position: everything ranks below it
+    public static RankedCursor first(Instant asOf) {
+        return new RankedCursor(asOf, Double.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    public String encode() {
+        String raw = asOf.toEpochMilli() + ":" + score + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RankedCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            return new RankedCursor(
+                    Instant.ofEpochMilli(Long.parseLong(parts[0])),
+                    Double.parseDouble(parts[1]),
+                    Long.parseLong(parts[2])
+            );
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.fei.twitterjavaapi.search;
+
+import com.fei.twitterjavaapi.model.projection.IdRangeProjection;
+import com.fei.twitterjavaapi.repository.TweetRepository;
+import com.fei.twitterjavaapi.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+/**
+ * Rebuilds the Lucene index from PostgreSQL on startup.
+ * <p>
+ * Each table is split into chunks that are read in parallel (projections only,
+ * so nothing piles up in a persistence context). Tweet IDs are time-based and sparse,
+ * so tweets are chunked by row count; users by ID range.
+ * The thread count is kept small on purpose: each worker holds one pooled DB connection.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.lucene.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexRebuilder {
+
+    private final LuceneSearchIndex searchIndex;
+    private final TweetRepository tweetRepository;
+    private final UserRepository userRepository;
+
+    @Value("${app.search.lucene.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    @Value("${app.search.lucene.rebuild-chunk-size:5000}")
+    private int chunkSize;
+
+    @Async // Don't block startup, searches use PostgreSQL until the index is ready
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        log.info("Rebuilding search index with {} threads", rebuildThreads);
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(rebuildThreads)) {
+            searchIndex.beginRebuild();
+
+            List<Future<Integer>> chunks = new ArrayList<>();
+            submitChunks(pool, chunks, tweetRepository.findIdChunkStarts(chunkSize), (fromId, toId) -> {
+                var rows = tweetRepository.findIndexableTweetsInRange(fromId, toId);
+                rows.forEach(t -> searchIndex.indexTweet(t.getId(), t.getContent(), t.getCreatedAtMillis()));
+                return rows.size();
+            });
+            submitChunks(pool, chunks, userRepository.findIdRange(), (fromId, toId) -> {
+                var rows = userRepository.findIndexableUsersInRange(fromId, toId);
+                rows.forEach(u -> searchIndex.indexUser(u.getId(), u.getUsername(), u.getDisplayName(), u.getFollowersCount()));
+                return rows.size();
+            });
+
+            int indexed = 0;
+            for (Future<Integer> chunk : chunks) {
+                indexed += chunk.get();
+            }
+
+            searchIndex.finishRebuild();
+            log.info("Search index rebuilt: {} documents in {} ms", indexed, System.currentTimeMillis() - start);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Search index rebuild interrupted. Searches stay on PostgreSQL.");
+        } catch (Exception e) {
+            log.error("Search index rebuild failed. Searches stay on PostgreSQL.", e);
+        }
+    }
+
+    // Sparse IDs (snowflake tweets): chunk boundaries come from the DB, "chunkSize" rows each
+    private void submitChunks(ExecutorService pool, List<Future<Integer>> chunks, List<Long> chunkStarts,
+                              BiFunction<Long, Long, Integer> loader) {
+        for (int i = 0; i < chunkStarts.size(); i++) {
+            long from = chunkStarts.get(i);
+            long to = i + 1 < chunkStarts.size() ? chunkStarts.get(i + 1) - 1 : Long.MAX_VALUE;
+            Callable<Integer> task = () -> loader.apply(from, to);
+            chunks.add(pool.submit(task));
+        }
+    }
+
+    // Dense IDs (sequences): fixed-width ID ranges
+    private void submitChunks(ExecutorService pool, List<Future<Integer>> chunks, IdRangeProjection range,
+                              BiFunction<Long, Long, Integer> loader) {
+        // Empty table
+        if (range == null || range.getMinId() == null) return;
+
+        for (long fromId = range.getMinId(); fromId <= range.getMaxId(); fromId += chunkSize) {
+            long from = fromId;
+            long to = fromId + chunkSize - 1;
+            Callable<Integer> task = () -> loader.apply(from, to);
+            chunks.add(pool.submit(task));
+        }
+    }
+}
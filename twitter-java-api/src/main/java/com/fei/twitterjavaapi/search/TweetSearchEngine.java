@@ -0,0 +1,80 @@
+package com.fei.twitterjavaapi.search;
+
+import com.fei.twitterjavaapi.model.projection.RankedTweetProjection;
+import com.fei.twitterjavaapi.repository.TweetRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Ranked tweet search on top of PostgreSQL FTS.
+ * Returns ordered tweet IDs only. Loading and mapping the entities is up to the caller.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TweetSearchEngine {
+
+    private final TweetRepository tweetRepository;
+
+    // Max number of matches that get ranked per query (newest first)
+    @Value("${app.search.candidate-limit:1000}")
+    private int candidateLimit;
+
+    @Value("${app.partitioning.recent-window-days:7}")
+    private int recentWindowDays;
+
+    public SearchHits search(String tsQuery, String cursorToken, int size) {
+        RankedCursor cursor = (cursorToken == null || cursorToken.isBlank())
+                ? RankedCursor.first(Instant.now())
+                : RankedCursor.decode(cursorToken);
+
+        // Fetch one extra row to know if there is a next page
+        List<RankedTweetProjection> rows = search(tsQuery, cursor, size + 1);
+
+        boolean hasNext = rows.size() > size;
+        List<RankedTweetProjection> page = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            RankedTweetProjection lastRow = page.getLast();
+            nextCursor = new RankedCursor(cursor.asOf(), lastRow.getScore(), lastRow.getId()).encode();
+        }
+
+        long estimatedTotal = rows.isEmpty() ? 0 : rows.getFirst().getTotalCandidates();
+        log.debug("Ranked search '{}' -> {} hits (estimated total {})", tsQuery, page.size(), estimatedTotal);
+
+        return new SearchHits(
+                page.stream().map(RankedTweetProjection::getId).toList(),
+                nextCursor,
+                estimatedTotal
+        );
+    }
+
+    // Candidates are the newest matches: if the recent partitions already hold all of them, the
+    // older ones could never be candidates. Otherwise (or when this page is empty, no count): all of them.
+    private List<RankedTweetProjection> search(String tsQuery, RankedCursor cursor, int limit) {
+        if (recentWindowDays > 0) {
+            Instant from = cursor.asOf().minus(recentWindowDays, ChronoUnit.DAYS);
+            List<RankedTweetProjection> rows = tweetRepository.searchTweetsRanked(
+                    tsQuery, from, cursor.asOf(), candidateLimit, cursor.score(), cursor.id(), limit);
+            if (!rows.isEmpty() && rows.getFirst().getTotalCandidates() >= candidateLimit) {
+                return rows;
+            }
+        }
+        return tweetRepository.searchTweetsRanked(
+                tsQuery, Instant.EPOCH, cursor.asOf(), candidateLimit, cursor.score(), cursor.id(), limit);
+    }
+
+    /**
+     * @param ids            Tweet IDs in rank order
+     * @param nextCursor     Token for the next page (NULL on the last page)
+     * @param estimatedTotal Number of ranked candidates (capped by the candidate limit)
+     */
+    public record SearchHits(List<Long> ids, String nextCursor, long estimatedTotal) {}
+}
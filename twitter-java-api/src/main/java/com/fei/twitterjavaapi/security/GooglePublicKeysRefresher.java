@@ -0,0 +1,51 @@
+package com.fei.twitterjavaapi.security;
+
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps Google's signing keys warm so no login request ever pays for the download.
+ * <p>
+ * GooglePublicKeysManager refreshes lazily (on the request thread) once the keys are
+ * within 5 minutes of their Cache-Control expiry. We refresh a bit earlier than that
+ * in the background, so the lazy path is never hit while Google is reachable.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GooglePublicKeysRefresher {
+
+    // Must be larger than the 5 minute skew used by GooglePublicKeysManager
+    private static final long REFRESH_AHEAD_MS = 10 * 60 * 1000;
+
+    private final GooglePublicKeysManager googlePublicKeysManager;
+
+    // Warm up on startup (e.g. right after a deploy, when every session logs in again)
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.google.keys-check-interval-ms:60000}")
+    public void refreshIfExpiringSoon() {
+        long expiresAt = googlePublicKeysManager.getExpirationTimeMilliseconds();
+        if (System.currentTimeMillis() + REFRESH_AHEAD_MS >= expiresAt) {
+            refresh();
+        }
+    }
+
+    private void refresh() {
+        try {
+            googlePublicKeysManager.refresh();
+            log.info("Google public keys refreshed. Next expiry at {}", googlePublicKeysManager.getExpirationTimeMilliseconds());
+        } catch (Exception e) {
+            // Keep serving the keys we already have. The next tick (or a login) will retry.
+            log.warn("Failed to refresh Google public keys: {}", e.getMessage());
+        }
+    }
+}
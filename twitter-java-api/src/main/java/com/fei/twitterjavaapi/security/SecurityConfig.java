@@ -34,7 +34,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         // SPECIFIC RESTRICTIONS (Must come BEFORE generic wildcards)
                         .requestMatchers(HttpMethod.GET, "/api/v1/auth/me").authenticated()
-                        .requestMatchers(HttpMethod.GET, "/api/v1/feeds/following").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/api/v1/feeds/following", "/api/v1/feeds/following/cursor",
+                                "/api/v1/feeds/following/since").authenticated()
 
                         // Public Endpoints
                         .requestMatchers("/error").permitAll()
@@ -47,6 +48,9 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/v1/users/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/v1/search/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/v1/discovery/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/v1/bootstrap").permitAll() // Guests get the public parts
+                        .requestMatchers(HttpMethod.GET, "/media/**").permitAll()         // Media proxy (app.media.proxy)
+                        .requestMatchers(HttpMethod.HEAD, "/media/**").permitAll()
 
                         // Swagger UI (Optional)
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
@@ -9,17 +9,15 @@ import com.fei.twitterjavaapi.model.dto.user.UserResponse;
 import com.fei.twitterjavaapi.model.entity.RefreshToken;
 import com.fei.twitterjavaapi.model.entity.User;
 import com.fei.twitterjavaapi.model.enums.Role;
+import com.fei.twitterjavaapi.model.event.UserProfileChangedEvent;
 import com.fei.twitterjavaapi.repository.UserRepository;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.gson.GsonFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
 import java.util.UUID;
 
 @Service
@@ -27,13 +25,12 @@ import java.util.UUID;
 @Slf4j
 public class AuthService {
 
-    @Value("${spring.security.oauth2.client.registration.google.client-id}")
-    private String googleClientId;
-
     private final UserRepository userRepository;
     private final JwtService jwtService;
     private final RefreshTokenService refreshTokenService;
     private final UserMapper userMapper;
+    private final GoogleIdTokenVerifier googleIdTokenVerifier;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AuthResponse loginWithGoogle(String googleIdToken) {
         log.info("Attempting Google login/registration");
@@ -62,7 +59,11 @@ public class AuthService {
             newUser.setAvatarUrl((String) payload.get("picture"));
             newUser.setRole(Role.USER);
             newUser.setProvider("GOOGLE");
-            return userRepository.save(newUser);
+            User saved = userRepository.save(newUser);
+
+            eventPublisher.publishEvent(new UserProfileChangedEvent(
+                    saved.getId(), saved.getHandle(), saved.getDisplayName(), saved.getAvatarUrl(), saved.getFollowersCount()));
+            return saved;
         });
 
         String accessToken = jwtService.generateToken(user);
@@ -119,12 +120,8 @@ public class AuthService {
 
     private GoogleIdToken.Payload verifyGoogleToken(String idTokenString) {
         try {
-            GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(
-                    new NetHttpTransport(), new GsonFactory())
-                    .setAudience(Collections.singletonList(googleClientId))
-                    .build();
-
-            GoogleIdToken idToken = verifier.verify(idTokenString);
+            // Shared verifier: signing keys are cached and refreshed in the background
+            GoogleIdToken idToken = googleIdTokenVerifier.verify(idTokenString);
             return (idToken != null) ? idToken.getPayload() : null;
         } catch (Exception e) {
             log.error("Internal error during Google Token verification: {}", e.getMessage());
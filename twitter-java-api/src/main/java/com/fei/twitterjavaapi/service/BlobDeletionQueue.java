@@ -0,0 +1,80 @@
+package com.fei.twitterjavaapi.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Persistent queue of blob deletions (table "blob_deletions", drained by BlobDeletionWorker).
+ * <p>
+ * {@link #enqueue} joins the caller's transaction: the file is only deleted if the DB change
+ * that dropped it commits. Callers never talk to blob storage for deletes anymore.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BlobDeletionQueue {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record QueuedDeletion(long id, String blobName, int attempts) {
+    }
+
+    public void enqueue(Collection<String> fileUrls) {
+        List<Object[]> rows = fileUrls.stream()
+                .filter(Objects::nonNull)
+                .filter(url -> !url.isBlank())
+                .map(FileStorageService::blobNameOf)
+                .distinct()
+                .map(name -> new Object[] { name })
+                .toList();
+        if (rows.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate("INSERT INTO blob_deletions (blob_name) VALUES (?)", rows);
+    }
+
+    /**
+     * Claims up to {@code limit} due deletions. Claimed rows are pushed {@code leaseMs} into the future,
+     * so other instances skip them, and a crashed worker's rows come back on their own.
+     */
+    List<QueuedDeletion> claim(int limit, long leaseMs) {
+        return jdbcTemplate.query("""
+                UPDATE blob_deletions
+                SET next_attempt_at = NOW() + ? * INTERVAL '1 millisecond'
+                WHERE id IN (
+                    SELECT id FROM blob_deletions
+                    WHERE next_attempt_at <= NOW()
+                    ORDER BY next_attempt_at
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING id, blob_name, attempts
+                """,
+                (rs, rowNum) -> new QueuedDeletion(rs.getLong("id"), rs.getString("blob_name"), rs.getInt("attempts")),
+                leaseMs, limit);
+    }
+
+    void complete(Collection<Long> ids) {
+        if (ids.isEmpty()) return;
+        jdbcTemplate.batchUpdate("DELETE FROM blob_deletions WHERE id = ?",
+                ids.stream().map(id -> new Object[] { id }).toList());
+    }
+
+    // Exponential backoff per row: base * 2^attempts, capped
+    void retryLater(Collection<Long> ids, String error, long backoffBaseMs, long backoffMaxMs) {
+        if (ids.isEmpty()) return;
+        jdbcTemplate.batchUpdate("""
+                UPDATE blob_deletions
+                SET attempts = attempts + 1,
+                    last_error = ?,
+                    next_attempt_at = NOW() + LEAST(? * POWER(2, LEAST(attempts, 30)), ?) * INTERVAL '1 millisecond'
+                WHERE id = ?
+                """,
+                ids.stream().map(id -> new Object[] { error, backoffBaseMs, backoffMaxMs, id }).toList());
+    }
+}
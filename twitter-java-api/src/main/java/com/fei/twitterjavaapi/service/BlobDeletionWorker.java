@@ -0,0 +1,120 @@
+package com.fei.twitterjavaapi.service;
+
+import com.fei.twitterjavaapi.service.BlobDeletionQueue.QueuedDeletion;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains BlobDeletionQueue into Azure batch deletes (256 per HTTP request).
+ * <p>
+ * Deletions from all requests and jobs pile up between runs, so one run sends full batches
+ * instead of one round trip per file. Safe on every instance: rows are claimed with
+ * SKIP LOCKED and a lease.
+ * <ul>
+ * <li><strong>Failure:</strong> Only the failed blobs are retried, with exponential backoff.</li>
+ * <li><strong>Never dropped:</strong> A blob that keeps failing stays queued (capped backoff) and is logged.</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BlobDeletionWorker {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final BlobDeletionQueue queue;
+    private final FileStorageService fileStorageService;
+
+    // Claimed rows are invisible to other instances this long (a crashed run's rows come back after it)
+    @Value("${app.storage.deletions.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${app.storage.deletions.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.storage.deletions.backoff-base-ms:5000}")
+    private long backoffBaseMs;
+
+    @Value("${app.storage.deletions.backoff-max-ms:3600000}")
+    private long backoffMaxMs;
+
+    @Value("${app.storage.deletions.alert-after-attempts:10}")
+    private int alertAfterAttempts;
+
+    @Scheduled(initialDelay = 10_000, fixedDelayString = "${app.storage.deletions.interval-ms:5000}")
+    public void drain() {
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            List<QueuedDeletion> claimed;
+            try {
+                claimed = queue.claim(FileStorageService.MAX_BATCH_SIZE, leaseMs);
+            } catch (RuntimeException e) {
+                log.error("Blob deletion queue unavailable", e);
+                return;
+            }
+            if (claimed.isEmpty()) return;
+
+            submit(claimed);
+
+            // A partial batch means the due backlog is empty, wait for more to pile up
+            if (claimed.size() < FileStorageService.MAX_BATCH_SIZE) return;
+        }
+    }
+
+    private void submit(List<QueuedDeletion> claimed) {
+        // The same blob can be queued twice (e.g. two paths dropped it), 1 operation is enough
+        Map<String, List<QueuedDeletion>> byName = new LinkedHashMap<>();
+        for (QueuedDeletion deletion : claimed) {
+            byName.computeIfAbsent(deletion.blobName(), name -> new ArrayList<>()).add(deletion);
+        }
+
+        Map<String, String> failures;
+        try {
+            failures = fileStorageService.deleteBlobs(new ArrayList<>(byName.keySet()));
+        } catch (RuntimeException e) {
+            // Whole batch failed (network, auth): everything is retried
+            log.warn("Blob batch delete of {} files failed: {}", byName.size(), e.getMessage());
+            retry(claimed, String.valueOf(e.getMessage()));
+            return;
+        }
+
+        List<Long> done = new ArrayList<>();
+        byName.forEach((name, deletions) -> {
+            String error = failures.get(name);
+            if (error == null) {
+                deletions.forEach(d -> done.add(d.id()));
+            } else {
+                retry(deletions, error);
+            }
+        });
+
+        try {
+            queue.complete(done);
+        } catch (RuntimeException e) {
+            // Harmless: the lease expires and the (already gone) blobs are deleted again
+            log.warn("Could not remove {} finished blob deletions: {}", done.size(), e.getMessage());
+        }
+    }
+
+    private void retry(List<QueuedDeletion> deletions, String error) {
+        String trimmed = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        for (QueuedDeletion d : deletions) {
+            if (d.attempts() + 1 >= alertAfterAttempts) {
+                log.error("Blob {} still not deleted after {} attempts: {}", d.blobName(), d.attempts() + 1, trimmed);
+            }
+        }
+        try {
+            queue.retryLater(deletions.stream().map(QueuedDeletion::id).toList(), trimmed, backoffBaseMs, backoffMaxMs);
+        } catch (RuntimeException e) {
+            // The lease still expires, so they are retried anyway (just without backoff)
+            log.warn("Could not reschedule {} blob deletions: {}", deletions.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.fei.twitterjavaapi.service;
+
+import com.fei.twitterjavaapi.manager.SnapshotManager;
+import com.fei.twitterjavaapi.model.dto.bootstrap.BootstrapResponse;
+import com.fei.twitterjavaapi.model.dto.common.PageResponse;
+import com.fei.twitterjavaapi.model.dto.hashtag.TrendingHashtagDTO;
+import com.fei.twitterjavaapi.model.dto.tweet.TweetResponse;
+import com.fei.twitterjavaapi.model.dto.user.UserResponse;
+import com.fei.twitterjavaapi.model.entity.User;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Loads the home screen in parallel: one virtual thread per part, so the latency is
+ * roughly the slowest part instead of the sum.
+ * <ul>
+ * <li><strong>Partial results:</strong> All parts share 1 deadline. A slow or failing part is
+ * reported in "unavailable" instead of failing the whole response; the response never waits for it.</li>
+ * <li><strong>Bounded in the DB:</strong> Interrupting a thread does not stop a pgjdbc query, so each
+ * part runs in a read-only transaction with a timeout (the deadline rounded up to whole seconds):
+ * an abandoned part is cancelled by the DB and gives its connection back.</li>
+ * <li><strong>Bounded in the pool:</strong> Each live part holds 1 pooled connection (up to 5 per
+ * request). At most {@code max-connections} parts run at once on this node; a part that can't get
+ * a permit before the deadline is left out (or served from its snapshot).</li>
+ * </ul>
+ * Same service calls as the dedicated endpoints (their transactions join the part's), with the
+ * caller's SecurityContext (same replica routing as the dedicated endpoints).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BootstrapService {
+
+    private static final int FEED_PAGE_SIZE = 20;
+    private static final int TRENDING_LIMIT = 10;
+    private static final int SUGGESTIONS_SIZE = 5;
+
+    private final AuthService authService;
+    private final FeedService feedService;
+    private final NotificationService notificationService;
+    private final DiscoveryService discoveryService;
+    private final SnapshotManager snapshotManager;
+    private final TransactionTemplate transactionTemplate;
+
+    // Deadline for each part, measured from the start of the request
+    @Value("${app.bootstrap.part-timeout-ms:800}")
+    private long partTimeoutMs;
+
+    // Pooled connections bootstrap parts may hold at once (the rest of the pool stays for other endpoints)
+    @Value("${app.bootstrap.max-connections:5}")
+    private int maxConnections;
+
+    private Semaphore connectionPermits;
+    private TransactionTemplate partTransaction;
+
+    @PostConstruct
+    void init() {
+        connectionPermits = new Semaphore(maxConnections);
+        partTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        partTransaction.setReadOnly(true);
+        partTransaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(partTimeoutMs + 999)));
+    }
+
+    public BootstrapResponse load(User user) {
+        String viewer = user != null ? String.valueOf(user.getId()) : "guest";
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(partTimeoutMs);
+
+        // 1. Fork all parts (JDK 21 has StructuredTaskScope only as a preview, so the scope is
+        // a virtual-thread-per-task executor). Each part runs with the caller's SecurityContext:
+        // ReplicaRoutingDataSource reads it to keep a recent writer's reads on the primary.
+        ExecutorService scope = new DelegatingSecurityContextExecutorService(Executors.newVirtualThreadPerTaskExecutor());
+        try {
+            Future<UserResponse> me = user != null
+                    ? scope.submit(() -> live(deadline, () -> authService.getCurrentUser(user))) : null;
+            Future<Long> unread = user != null
+                    ? scope.submit(() -> live(deadline, () -> notificationService.countUnread(user))) : null;
+            // Same snapshot keys as the dedicated endpoints, so degraded mode behaves the same
+            Future<PageResponse<TweetResponse>> feed = scope.submit(snapshot("for-you:" + viewer + ":0:" + FEED_PAGE_SIZE,
+                    deadline, () -> feedService.getForYouFeed(user, 0, FEED_PAGE_SIZE)));
+            Future<List<TrendingHashtagDTO>> trending = scope.submit(snapshot("trending:" + TRENDING_LIMIT,
+                    deadline, () -> discoveryService.getTrendingHashtags(TRENDING_LIMIT)));
+            Future<PageResponse<UserResponse>> suggestions = scope.submit(snapshot("suggestions:" + viewer + ":0:" + SUGGESTIONS_SIZE,
+                    deadline, () -> discoveryService.getSuggestedUsers(user, 0, SUGGESTIONS_SIZE)));
+
+            // 2. Join with the shared deadline (parts run concurrently, so waiting in order is fine)
+            List<String> unavailable = new ArrayList<>();
+
+            return new BootstrapResponse(
+                    join("me", me, deadline, unavailable),
+                    join("feed", feed, deadline, unavailable),
+                    join("unreadCount", unread, deadline, unavailable),
+                    join("trending", trending, deadline, unavailable),
+                    join("suggestions", suggestions, deadline, unavailable),
+                    unavailable
+            );
+        } finally {
+            // 3. Don't wait for abandoned parts (close() would): interrupt them and let the
+            // transaction timeout end their query
+            scope.shutdownNow();
+        }
+    }
+
+    private <T> Callable<T> snapshot(String key, long deadline, Supplier<T> loader) {
+        return () -> snapshotManager.get(key, () -> live(deadline, loader));
+    }
+
+    // Background snapshot refreshes go through here too: past the request deadline they only
+    // run if a permit is free right away (otherwise the snapshot is refreshed next time)
+    private <T> T live(long deadline, Supplier<T> loader) {
+        boolean permitted;
+        try {
+            permitted = connectionPermits.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a connection permit", e);
+        }
+        if (!permitted) {
+            throw new IllegalStateException("No connection permit before the deadline");
+        }
+
+        try {
+            return partTransaction.execute(status -> loader.get());
+        } finally {
+            connectionPermits.release();
+        }
+    }
+
+    private <T> T join(String part, Future<T> future, long deadline, List<String> unavailable) {
+        if (future == null) return null; // Not applicable (guest)
+
+        try {
+            long remaining = deadline - System.nanoTime();
+            return future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true); // Its query (if any) is ended by the transaction timeout
+            log.warn("Bootstrap part '{}' timed out after {} ms", part, partTimeoutMs);
+        } catch (ExecutionException e) {
+            log.warn("Bootstrap part '{}' failed: {}", part, e.getCause().toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+        }
+        unavailable.add(part);
+        return null;
+    }
+}
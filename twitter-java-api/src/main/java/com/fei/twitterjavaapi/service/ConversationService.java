@@ -0,0 +1,144 @@
+package com.fei.twitterjavaapi.service;
+
+import com.fei.twitterjavaapi.exception.ResourceNotFoundException;
+import com.fei.twitterjavaapi.mapper.TweetMapper;
+import com.fei.twitterjavaapi.model.dto.tweet.ConversationResponse;
+import com.fei.twitterjavaapi.model.dto.tweet.ConversationResponse.ConversationNode;
+import com.fei.twitterjavaapi.model.dto.tweet.TweetResponse;
+import com.fei.twitterjavaapi.model.entity.Tweet;
+import com.fei.twitterjavaapi.model.entity.User;
+import com.fei.twitterjavaapi.model.projection.ConversationNodeProjection;
+import com.fei.twitterjavaapi.repository.TweetRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conversation view: ancestors + a depth/breadth-limited reply tree in 1 request.
+ * <ol>
+ * <li><strong>Skeleton:</strong> IDs + parent links from 1 recursive query, cached for a few
+ * seconds (hot threads get hit by many viewers at once).</li>
+ * <li><strong>Hydrate:</strong> All tweets loaded by ID in 1 query, viewer state batch-fetched.</li>
+ * <li><strong>Assemble:</strong> Nested in memory.</li>
+ * </ol>
+ * Counters and viewer state are always fresh, only the tree shape can lag by the cache TTL.
+ */
+@Service
+@Slf4j
+public class ConversationService {
+
+    private final TweetRepository tweetRepository;
+    private final TweetMapper tweetMapper;
+    private final int maxAncestors;
+    private final Cache<SkeletonKey, Skeleton> skeletons;
+
+    public ConversationService(TweetRepository tweetRepository,
+                               TweetMapper tweetMapper,
+                               @Value("${app.conversation.max-ancestors:50}") int maxAncestors,
+                               @Value("${app.conversation.cache.ttl-seconds:10}") int ttlSeconds,
+                               @Value("${app.conversation.cache.max-entries:10000}") int maxEntries) {
+        this.tweetRepository = tweetRepository;
+        this.tweetMapper = tweetMapper;
+        this.maxAncestors = maxAncestors;
+        this.skeletons = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxEntries)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public ConversationResponse getConversation(User currentUser, Long tweetId, int depth, int breadth) {
+        log.info("Fetching conversation for tweet {} (depth {}, breadth {})", tweetId, depth, breadth);
+
+        // 1. Skeleton (cached)
+        Skeleton skeleton = skeletons.get(new SkeletonKey(tweetId, depth, breadth), this::loadSkeleton);
+        if (skeleton.isEmpty()) {
+            // Don't cache misses (the ID may belong to a tweet that is being created right now)
+            skeletons.invalidate(new SkeletonKey(tweetId, depth, breadth));
+            throw new ResourceNotFoundException("Tweet", "id", tweetId);
+        }
+
+        // 2. Hydrate every node in 1 query + batch viewer state
+        List<Tweet> tweets = tweetRepository.findAllWithAuthorsByIdIn(skeleton.allIds());
+        Map<Long, TweetResponse> byId = new HashMap<>();
+        for (TweetResponse response : tweetMapper.toResponseList(tweets, currentUser)) {
+            byId.put(response.id(), response);
+        }
+
+        // The skeleton may be a few seconds old: deleted replies are simply skipped. A missing focus
+        // or ancestor means the thread above was deleted (its replies wait for the purge): not found.
+        TweetResponse focus = byId.get(tweetId);
+        if (focus == null || !byId.keySet().containsAll(skeleton.ancestorIds())) {
+            throw new ResourceNotFoundException("Tweet", "id", tweetId);
+        }
+
+        // 3. Assemble
+        List<TweetResponse> ancestors = skeleton.ancestorIds().stream()
+                .map(byId::get)
+                .toList();
+
+        return new ConversationResponse(ancestors, buildNode(focus, skeleton.childrenByParent(), byId));
+    }
+
+    private ConversationNode buildNode(TweetResponse tweet, Map<Long, List<Long>> childrenByParent,
+                                       Map<Long, TweetResponse> byId) {
+        List<ConversationNode> replies = new ArrayList<>();
+        for (Long childId : childrenByParent.getOrDefault(tweet.id(), List.of())) {
+            TweetResponse child = byId.get(childId);
+            if (child != null) {
+                replies.add(buildNode(child, childrenByParent, byId));
+            }
+        }
+        return new ConversationNode(tweet, replies);
+    }
+
+    private Skeleton loadSkeleton(SkeletonKey key) {
+        List<ConversationNodeProjection> rows =
+                tweetRepository.findConversationSkeleton(key.tweetId(), maxAncestors, key.depth(), key.breadth());
+
+        // Rows come ordered by depth, so ancestors are root first and children keep display order
+        List<Long> ancestorIds = new ArrayList<>();
+        Map<Long, List<Long>> childrenByParent = new LinkedHashMap<>();
+        boolean focusFound = false;
+
+        for (ConversationNodeProjection row : rows) {
+            if (row.getDepth() < 0) {
+                ancestorIds.add(row.getId());
+            } else if (row.getDepth() == 0) {
+                focusFound = true;
+            } else {
+                childrenByParent.computeIfAbsent(row.getParentId(), k -> new ArrayList<>()).add(row.getId());
+            }
+        }
+
+        return focusFound ? new Skeleton(key.tweetId(), List.copyOf(ancestorIds), childrenByParent) : Skeleton.EMPTY;
+    }
+
+    private record SkeletonKey(long tweetId, int depth, int breadth) {
+    }
+
+    private record Skeleton(Long focusId, List<Long> ancestorIds, Map<Long, List<Long>> childrenByParent) {
+        static final Skeleton EMPTY = new Skeleton(null, List.of(), Map.of());
+
+        boolean isEmpty() {
+            return focusId == null;
+        }
+
+        List<Long> allIds() {
+            List<Long> ids = new ArrayList<>(ancestorIds);
+            ids.add(focusId);
+            childrenByParent.values().forEach(ids::addAll);
+            return ids;
+        }
+    }
+}
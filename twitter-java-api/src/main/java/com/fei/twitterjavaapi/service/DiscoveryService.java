@@ -10,12 +10,15 @@ import com.fei.twitterjavaapi.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -47,26 +50,43 @@ public class DiscoveryService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * "Who to follow". Logged-in users get their precomputed friends-of-friends list
+     * (SuggestionRecomputeJob), guests and users without a list yet get the most followed users.
+     * At most 100 rows are loaded, so follow changes since the last run are filtered in memory.
+     */
     @Transactional(readOnly = true)
     public PageResponse<UserResponse> getSuggestedUsers(User currentUser, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<User> usersPage;
 
         if (currentUser == null) {
             // Guest? Show global top users
-            usersPage = userRepository.findTopUsersGlobally(pageable);
+            Page<User> usersPage = userRepository.findTopUsersGlobally(pageable);
             return PageResponse.from(
                     usersPage.map(user -> UserResponse.fromEntity(user, false)));
-        } else {
-            // Logged in? Show personalized suggestions (sorted by not followed first)
-            usersPage = userRepository.findSuggestedUsers(currentUser.getId(), pageable);
-
-            // Determine which of these users are followed by me
-            List<Long> userIds = usersPage.getContent().stream().map(User::getId).collect(Collectors.toList());
-            List<Long> followedIds = userRepository.findFollowedUserIds(currentUser.getId(), userIds);
+        }
 
-            return PageResponse.from(
-                    usersPage.map(user -> UserResponse.fromEntity(user, followedIds.contains(user.getId()))));
+        // 1. Precomputed list (fallback: global top users)
+        List<User> candidates = userRepository.findPrecomputedSuggestions(currentUser.getId());
+        if (candidates.isEmpty()) {
+            candidates = userRepository.findTop100ByOrderByFollowersCountDesc();
         }
+
+        // 2. Drop myself + anyone I followed since the list was computed
+        List<Long> candidateIds = candidates.stream().map(User::getId).collect(Collectors.toList());
+        Set<Long> followedIds = candidateIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(userRepository.findFollowedUserIds(currentUser.getId(), candidateIds));
+
+        List<User> suggestions = candidates.stream()
+                .filter(user -> !user.getId().equals(currentUser.getId()) && !followedIds.contains(user.getId()))
+                .collect(Collectors.toList());
+
+        // 3. Page in memory
+        int from = (int) Math.min(pageable.getOffset(), suggestions.size());
+        int to = Math.min(from + size, suggestions.size());
+        Page<User> usersPage = new PageImpl<>(suggestions.subList(from, to), pageable, suggestions.size());
+
+        return PageResponse.from(usersPage.map(user -> UserResponse.fromEntity(user, false)));
     }
-}
\ No newline at end of file
+}
@@ -1,14 +1,19 @@
 package com.fei.twitterjavaapi.service;
 
+import com.fei.twitterjavaapi.exception.BadRequestException;
 import com.fei.twitterjavaapi.exception.UnauthorizedException;
 import com.fei.twitterjavaapi.mapper.TweetMapper;
+import com.fei.twitterjavaapi.model.dto.common.CursorResponse;
 import com.fei.twitterjavaapi.model.dto.common.PageResponse;
 import com.fei.twitterjavaapi.model.dto.tweet.TweetResponse;
 import com.fei.twitterjavaapi.model.entity.Tweet;
 import com.fei.twitterjavaapi.model.entity.User;
 import com.fei.twitterjavaapi.repository.TweetRepository;
+import com.fei.twitterjavaapi.util.IdCursor;
+import com.fei.twitterjavaapi.util.PartitionBounds;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -16,6 +21,11 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -24,12 +34,24 @@ public class FeedService {
     private final TweetRepository tweetRepository;
     private final TweetMapper tweetMapper;
 
+    // 0 = rank every tweet
+    @Value("${app.feed.for-you.window-days:30}")
+    private int forYouWindowDays;
+
+    @Value("${app.partitioning.recent-window-days:7}")
+    private int recentWindowDays;
+
+    @Value("${app.feed.following.since-overlap-ms:5000}")
+    private long sinceOverlapMs;
+
     @Transactional(readOnly = true)
     public PageResponse<TweetResponse> getForYouFeed(User currentUser, int page, int size) {
         log.info("Loading 'For You' feed for user: {}", currentUser != null ? currentUser.getId() : "Guest");
         Pageable pageable = PageRequest.of(page, size);
 
-        Page<Tweet> tweets = tweetRepository.findForYouFeed(pageable);
+        // Bounded window: prunes to the recent monthly partitions
+        Instant since = forYouWindowDays > 0 ? Instant.now().minus(forYouWindowDays, ChronoUnit.DAYS) : Instant.EPOCH;
+        Page<Tweet> tweets = tweetRepository.findForYouFeed(since, pageable);
         return tweetMapper.toResponsePage(tweets, currentUser);
     }
 
@@ -40,18 +62,81 @@ public class FeedService {
             throw new UnauthorizedException("Login to see following feed");
         }
         log.info("Loading 'Following' timeline for user: {}", currentUser.getId());
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
 
         Page<Tweet> tweets = tweetRepository.findFollowingTimeline(currentUser.getId(), pageable);
         return tweetMapper.toResponsePage(tweets, currentUser);
     }
 
+    // Keyset paging on the tweet ID (time-sortable): no COUNT, no OFFSET, no duplicates when new tweets arrive
+    @Transactional(readOnly = true)
+    public CursorResponse<TweetResponse> getFollowingTimelineByCursor(User currentUser, String cursor, int size) {
+        if (currentUser == null) {
+            throw new UnauthorizedException("Login to see following feed");
+        }
+        log.info("Loading 'Following' timeline for user: {} before {}", currentUser.getId(), cursor);
+
+        long before = IdCursor.parse(cursor, Long.MAX_VALUE);
+        LocalDateTime until = PartitionBounds.createdUntil(before);
+        List<Tweet> tweets = PartitionBounds.recentFirst(until, recentWindowDays, size + 1, Tweet::getId,
+                from -> tweetRepository.findFollowingTimelineBefore(
+                        currentUser.getId(), before, from, until, PageRequest.of(0, size + 1)));
+        return tweetMapper.toResponseCursor(tweets, size, currentUser);
+    }
+
+    /**
+     * Delta since the client's newest tweet (the "new_tweets" SSE event tells when to call it).
+     * <p>
+     * "id > cursor" alone would miss tweets that become visible after a newer one: IDs are taken
+     * before the commit (a slow transaction) and by nodes whose clocks differ a little, and this read
+     * can go to a replica that is behind.
+     * So it re-reads an overlap window ({@code since-overlap-ms} of ID space before the cursor,
+     * more than the replica lag allowed by ReplicaRoutingDataSource); the client dedupes by ID.
+     * Staying on the replicas is what keeps this cheap, rather than pinning it to the primary.
+     * <p>
+     * Only the client's head ({@code cursor}) is rewound. The pages after it continue from the
+     * returned {@code nextCursor}, passed back as {@code after}, exactly: rewinding those too would
+     * return the same page forever once the window holds more than 1 page.
+     */
+    @Transactional(readOnly = true)
+    public CursorResponse<TweetResponse> getFollowingTimelineSince(User currentUser, String cursor, String after, int size) {
+        if (currentUser == null) {
+            throw new UnauthorizedException("Login to see following feed");
+        }
+        log.info("Loading 'Following' timeline for user: {} since {} after {}", currentUser.getId(), cursor, after);
+
+        long from;
+        if (after != null && !after.isBlank()) {
+            from = IdCursor.parse(after, 0L);
+        } else if (cursor != null && !cursor.isBlank()) {
+            from = IdCursor.rewind(IdCursor.parse(cursor, 0L), sinceOverlapMs);
+        } else {
+            throw new BadRequestException("cursor or after is required");
+        }
+
+        List<Tweet> tweets = tweetRepository.findFollowingTimelineAfter(
+                currentUser.getId(), from, PartitionBounds.createdFrom(from), PageRequest.of(0, size + 1));
+        return tweetMapper.toResponseCursor(tweets, size, currentUser);
+    }
+
     @Transactional(readOnly = true)
     public PageResponse<TweetResponse> getUserTweets(User currentUser, Long userId, int page, int size) {
         log.info("Fetching profile feed for user {}. Page: {}", userId, page);
-        Pageable pageable =  PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
+        Pageable pageable =  PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
 
         Page<Tweet> tweetsPage = tweetRepository.findAllByUserIdAndParentIdIsNull(userId, pageable);
         return tweetMapper.toResponsePage(tweetsPage, currentUser);
     }
+
+    @Transactional(readOnly = true)
+    public CursorResponse<TweetResponse> getUserTweetsByCursor(User currentUser, Long userId, String cursor, int size) {
+        log.info("Fetching profile feed for user {} before {}", userId, cursor);
+
+        long before = IdCursor.parse(cursor, Long.MAX_VALUE);
+        LocalDateTime until = PartitionBounds.createdUntil(before);
+        List<Tweet> tweets = PartitionBounds.recentFirst(until, recentWindowDays, size + 1, Tweet::getId,
+                from -> tweetRepository.findAllByUserIdAndParentIdIsNullAndIdLessThanAndCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByIdDesc(
+                        userId, before, from, until, PageRequest.of(0, size + 1)));
+        return tweetMapper.toResponseCursor(tweets, size, currentUser);
+    }
 }
@@ -1,5 +1,7 @@
 package com.fei.twitterjavaapi.service;
 
+import com.azure.core.http.rest.Response;
+import com.azure.core.util.Context;
 import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.BlobServiceClient;
@@ -7,19 +9,31 @@ import com.azure.storage.blob.batch.BlobBatch;
 import com.azure.storage.blob.batch.BlobBatchClient;
 import com.azure.storage.blob.batch.BlobBatchClientBuilder;
 import com.azure.storage.blob.models.BlobHttpHeaders;
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.BlobStorageException;
 import com.azure.storage.blob.models.DeleteSnapshotsOptionType;
 import com.fei.twitterjavaapi.exception.AppException;
-import jakarta.annotation.PostConstruct;
+import com.fei.twitterjavaapi.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.util.function.SingletonSupplier;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -27,131 +41,152 @@ import java.util.UUID;
 @Slf4j
 public class FileStorageService {
 
-    private final BlobServiceClient blobServiceClient;
-    private BlobBatchClient blobBatchClient;
+    // Azure Batch limit is 256 operations per request
+    public static final int MAX_BATCH_SIZE = 256;
+
+    // Lazy (see LazyClientConfig): the Azure clients are built on the first upload / delete, not at startup
+    private final ObjectProvider<BlobServiceClient> blobServiceClientProvider;
+    private final MediaObjectService mediaObjectService;
+
+    // Build the Batch Client using the authenticated Service Client (once, on first use)
+    private final SingletonSupplier<BlobBatchClient> blobBatchClient =
+            SingletonSupplier.of(() -> new BlobBatchClientBuilder(blobServiceClient()).buildClient());
 
     @Value("${spring.cloud.azure.storage.blob.container-name}")
     private String containerName;
 
-    @PostConstruct
-    public void init() {
-        // Build the Batch Client using the authenticated Service Client
-        this.blobBatchClient = new BlobBatchClientBuilder(blobServiceClient).buildClient();
+    private BlobServiceClient blobServiceClient() {
+        return blobServiceClientProvider.getObject();
     }
 
+    /**
+     * Content-addressed upload: the file is stored once per distinct content (SHA-256).
+     * Re-uploads of known content skip the storage write and return the existing URL.
+     * The returned URL is pinned (MediaObjectService), release it if it ends up unused.
+     */
     public String uploadFile(MultipartFile file) {
         if (file == null || file.isEmpty()) return null;
 
-        // 1. Generate Unique Filename
-        // e.g., "550e8400-e29b-41d4-a716-446655440000_cat_video.mp4"
-        String filename = UUID.randomUUID() + "_" + file.getOriginalFilename();
+        // 1. Hash the content (streamed from the multipart temp file, never fully in memory)
+        String contentHash = sha256Hex(file);
+
+        // 2. Pin the media object. New content gets a fresh name,
+        // e.g. "9f86d081...b0f00a08-3fa85f64.mp4"
+        MediaObjectService.Acquired media = mediaObjectService.acquire(
+                contentHash, newBlobName(contentHash, file.getOriginalFilename()), file.getContentType(), file.getSize());
+
+        BlobContainerClient containerClient = blobServiceClient().getBlobContainerClient(containerName);
+        BlobClient blobClient = containerClient.getBlobClient(media.blobName());
 
-        // 2. Get Blob Client
-        BlobContainerClient containerClient = blobServiceClient.getBlobContainerClient(containerName);
-        BlobClient blobClient = containerClient.getBlobClient(filename);
+        // 3. Known content: nothing to write
+        if (media.uploaded()) {
+            log.info("Reused stored media {} (no upload)", media.blobName());
+            return blobClient.getBlobUrl();
+        }
 
         try {
-            // 3. Set Content-Type (Essential for Video Streaming)
+            // 4. Set Content-Type (Essential for Video Streaming)
             BlobHttpHeaders headers = new BlobHttpHeaders().setContentType(file.getContentType());
 
-            // 4. Upload & Apply Headers
+            // 5. Upload & Apply Headers (a concurrent first upload of the same bytes writes the same blob)
             blobClient.upload(file.getInputStream(), file.getSize(), true);
             blobClient.setHttpHeaders(headers);
+            mediaObjectService.markUploaded(contentHash);
 
-            log.info("Uploaded file to Azure: {}", filename);
+            log.info("Uploaded file to Azure: {}", media.blobName());
             return blobClient.getBlobUrl();
 
-        } catch (IOException e) {
+        } catch (IOException | RuntimeException e) {
             log.error("Failed to upload file to Azure", e);
+            mediaObjectService.releaseQuietly(blobClient.getBlobUrl());
             throw new AppException("Failed to upload file", HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
-    public void deleteFile(String fileUrl) {
-        if (fileUrl == null || fileUrl.isEmpty()) {
-            return;
+    private static String sha256Hex(MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.error("Failed to read uploaded file", e);
+            throw new AppException("Failed to upload file", HttpStatus.INTERNAL_SERVER_ERROR);
         }
+    }
 
-        try {
-            // 1. Extract filename from the full URL
-            String filename = fileUrl.substring(fileUrl.lastIndexOf("/") + 1);
-
-            // 2. Get Client
-            BlobContainerClient containerClient = blobServiceClient.getBlobContainerClient(containerName);
-            BlobClient blobClient = containerClient.getBlobClient(filename);
-
-            // 3. Delete (use deleteIfExists to avoid errors if already gone)
-            blobClient.deleteIfExists();
-            log.info("Deleted file from Azure: {}", filename);
-
-        } catch (RuntimeException e) {
-            // Log it but DO NOT throw exception.
-            // Reason: If Azure fails, we still want the Tweet to be deleted from the DB.
-            log.error("Failed to delete file from Azure: {}", fileUrl, e);
+    // "<sha256>-<random>.<ext>" (the extension is kept for readable URLs, lower-cased and sanitized)
+    private static String newBlobName(String contentHash, String originalFilename) {
+        String extension = "";
+        if (originalFilename != null && originalFilename.lastIndexOf('.') >= 0) {
+            String raw = originalFilename.substring(originalFilename.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+            if (raw.matches("[a-z0-9]{1,8}")) extension = "." + raw;
         }
+        return contentHash + "-" + UUID.randomUUID().toString().substring(0, 8) + extension;
     }
 
-    // BATCH DELETE
-    public void deleteFiles(List<String> rawFileUrls) {
-        if (rawFileUrls == null || rawFileUrls.isEmpty()) return;
-
-        // Azure Batch limit is 256 operations per request
-        final int BATCH_SIZE = 256;
-        List<String> currentBatchFilenames = new ArrayList<>();
-
-        for (String rawUrl : rawFileUrls) {
-            try {
-                // 1. Extract ONLY the filename.
-                String filename = rawUrl.substring(rawUrl.lastIndexOf("/") + 1);
-                currentBatchFilenames.add(filename);
+    public record DownloadedBlob(String contentType, long size, String etag) {
+    }
 
-                if (currentBatchFilenames.size() == BATCH_SIZE) {
-                    processBatchDelete(currentBatchFilenames);
-                    currentBatchFilenames.clear();
-                }
-            } catch (Exception e) {
-                log.warn("Skipping malformed URL parsing: {}", rawUrl);
+    // Streams a blob into a local file (media proxy cache misses)
+    public DownloadedBlob download(String blobName, Path target) {
+        try {
+            BlobProperties properties = blobServiceClient().getBlobContainerClient(containerName)
+                    .getBlobClient(blobName)
+                    .downloadToFile(target.toString(), true);
+            return new DownloadedBlob(properties.getContentType(), properties.getBlobSize(), properties.getETag());
+        } catch (BlobStorageException e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND.value()) {
+                throw new ResourceNotFoundException("Media", "key", blobName);
             }
-        }
-
-        // Process remaining
-        if (!currentBatchFilenames.isEmpty()) {
-            processBatchDelete(currentBatchFilenames);
+            throw e;
         }
     }
 
-    private void processBatchDelete(List<String> filenames) {
-        try {
-            // 1. Create a new Batch Object
-            BlobBatch batch = blobBatchClient.getBlobBatch();
+    // "https://acc.blob.core.windows.net/media/abc_cat.png" -> "abc_cat.png"
+    public static String blobNameOf(String fileUrl) {
+        return fileUrl.substring(fileUrl.lastIndexOf("/") + 1);
+    }
 
-            // 2. Add "Delete" operations to the batch using Container + Filename
-            for (String filename : filenames) {
-                batch.deleteBlob(containerName, filename, DeleteSnapshotsOptionType.INCLUDE, null);
-            }
+    /**
+     * Deletes up to {@link #MAX_BATCH_SIZE} blobs in 1 HTTP request. Called by BlobDeletionWorker only,
+     * requests and jobs go through BlobDeletionQueue.
+     *
+     * @return Blob name -> error code for the deletes that failed. A blob that is already gone counts as deleted.
+     * @throws RuntimeException if the whole batch failed (network, auth): nothing is known to be deleted
+     */
+    public Map<String, String> deleteBlobs(List<String> blobNames) {
+        if (blobNames.isEmpty()) return Map.of();
+        if (blobNames.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " blobs per batch");
+        }
 
-            // 3. Submit the Batch (One HTTP Request)
-            blobBatchClient.submitBatch(batch);
+        // 1. One "Delete" operation per blob (each gets its own response)
+        BlobBatch batch = blobBatchClient.obtain().getBlobBatch();
+        Map<String, Response<Void>> responses = new LinkedHashMap<>();
+        for (String blobName : blobNames) {
+            responses.put(blobName, batch.deleteBlob(containerName, blobName, DeleteSnapshotsOptionType.INCLUDE, null));
+        }
 
-            log.info("Batch deleted {} files successfully", filenames.size());
+        // 2. Submit (One HTTP Request). Don't throw on partial failure, sort it out per blob below.
+        blobBatchClient.obtain().submitBatchWithResponse(batch, false, null, Context.NONE);
 
-        } catch (Exception e) {
-            // 4. Fallback Strategy
-            log.warn("Batch delete failed (possibly due to missing file). Switching to singular delete fallback.");
-            for (String filename : filenames) {
-                deleteFileByName(filename);
+        // 3. Collect the failures
+        Map<String, String> failures = new HashMap<>();
+        responses.forEach((blobName, response) -> {
+            try {
+                response.getStatusCode(); // Throws if this operation failed
+            } catch (BlobStorageException e) {
+                if (e.getStatusCode() != HttpStatus.NOT_FOUND.value()) {
+                    failures.put(blobName, e.getStatusCode() + " " + e.getErrorCode());
+                }
             }
-        }
-    }
+        });
 
-    // Helper for the fallback
-    private void deleteFileByName(String filename) {
-        try {
-            blobServiceClient.getBlobContainerClient(containerName)
-                    .getBlobClient(filename)
-                    .deleteIfExists();
-        } catch (Exception ex) {
-            log.error("Failed to delete blob during fallback: {}", filename, ex);
-        }
+        log.info("Batch deleted {} files ({} failed)", blobNames.size() - failures.size(), failures.size());
+        return failures;
     }
-}
\ No newline at end of file
+}
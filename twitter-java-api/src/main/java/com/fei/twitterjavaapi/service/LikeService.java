@@ -1,8 +1,7 @@
 package com.fei.twitterjavaapi.service;
 
 import com.fei.twitterjavaapi.exception.ResourceNotFoundException;
-import com.fei.twitterjavaapi.model.entity.Tweet;
-import com.fei.twitterjavaapi.model.entity.TweetLike;
+import com.fei.twitterjavaapi.manager.EngagementStreamManager;
 import com.fei.twitterjavaapi.model.entity.User;
 import com.fei.twitterjavaapi.model.event.UserLikedTweetEvent;
 import com.fei.twitterjavaapi.repository.LikeRepository;
@@ -13,6 +12,8 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -21,56 +22,41 @@ public class LikeService {
     private final LikeRepository likeRepository;
     private final TweetRepository tweetRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final EngagementStreamManager engagementStreamManager;
 
     @Transactional
     public void likeTweet(User user, Long tweetId) {
         log.info("User {} is liking tweet {}", user.getId(), tweetId);
 
-        // Check if already liked
-        if (likeRepository.existsByUserIdAndTweetId(user.getId(), tweetId)) {
+        // Insert Like + Increment Counter (1 statement, a double-tap can't count twice)
+        Optional<Long> authorId = likeRepository.insertLike(user.getId(), tweetId);
+
+        if (authorId.isEmpty()) {
+            // Rare path: tell "already liked" apart from "no such tweet"
+            if (!tweetRepository.existsById(tweetId)) {
+                log.warn("Like attempt failed: Tweet {} not found", tweetId);
+                throw new ResourceNotFoundException("Tweet", "id", tweetId);
+            }
             log.warn("User {} attempted to like tweet {} but already liked it", user.getId(), tweetId);
             return;
         }
-
-        // Load Tweet
-        Tweet tweet = tweetRepository.findById(tweetId)
-                .orElseThrow(() -> {
-                    log.warn("Like attempt failed: Tweet {} not found", tweetId);
-                    return new ResourceNotFoundException("Tweet", "id", tweetId);
-                });
-
-        // Save Like
-        TweetLike like = TweetLike.builder()
-                .id(new TweetLike.TweetLikeId(user.getId(), tweetId))
-                .user(user)
-                .tweet(tweet)
-                .build();
-
-        likeRepository.save(like);
-
-        // Increment Counter
-        tweetRepository.incrementLikeCount(tweetId);
         log.info("Like count incremented for tweet {}", tweetId);
+        engagementStreamManager.record(tweetId);
 
         // Send Notification Event
-        eventPublisher.publishEvent(new UserLikedTweetEvent(user, tweet));
+        eventPublisher.publishEvent(new UserLikedTweetEvent(user, tweetId, authorId.get()));
     }
 
     @Transactional
     public void unlikeTweet(User user, Long tweetId) {
         log.info("User {} is unliking tweet {}", user.getId(), tweetId);
 
-        // Check if Like Exists
-        if (!likeRepository.existsByUserIdAndTweetId(user.getId(), tweetId)) {
+        // Delete Like + Decrement Counter (1 statement, no-op if there is no like)
+        if (likeRepository.deleteLike(user.getId(), tweetId).isEmpty()) {
             log.warn("User {} attempted to unlike tweet {} but no record found", user.getId(), tweetId);
             return;
         }
-
-        // Delete Like
-        likeRepository.deleteByUserIdAndTweetId(user.getId(), tweetId);
-
-        // Decrement Counter
-        tweetRepository.decrementLikeCount(tweetId);
         log.info("Like count decremented for tweet {}", tweetId);
+        engagementStreamManager.record(tweetId);
     }
-}
\ No newline at end of file
+}
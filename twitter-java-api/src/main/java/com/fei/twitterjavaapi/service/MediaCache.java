@@ -0,0 +1,277 @@
+package com.fei.twitterjavaapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local disk LRU of media blobs for the media proxy (MediaController).
+ * <p>
+ * Blob names never get new content (content-addressed or UUID), so a cached file never goes stale.
+ * <ul>
+ * <li><strong>Miss:</strong> The blob is streamed to disk once; concurrent misses on the same key wait for it.</li>
+ * <li><strong>Size:</strong> Least recently used files are evicted past {@code max-size-mb}.</li>
+ * <li><strong>Pins:</strong> Requests use a file through a {@link Pin}. An evicted file is only deleted once
+ * nobody pins it (plus {@code sendfile-grace-ms} for files handed to sendfile, which Tomcat opens after
+ * the handler returns). Each download gets its own file, so a re-download never replaces a pinned one.</li>
+ * <li><strong>Restart:</strong> The directory is wiped (the index lives in memory only).</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(name = "app.media.proxy.enabled", havingValue = "true")
+@Slf4j
+public class MediaCache {
+
+    public record CachedMedia(Path path, long size, String contentType, String etag) {
+    }
+
+    private final FileStorageService fileStorageService;
+    private final Path cacheDir;
+    private final long maxBytes;
+    private final long sendfileGraceMs;
+
+    // Access-ordered: iteration starts at the least recently used entry. Guarded by "this".
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    // Out of the index, file still there: pinned, or recently handed to sendfile. Guarded by "this".
+    private final List<Entry> evicted = new ArrayList<>();
+
+    // One download per key, however many requests miss at the same time
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bytesFromStorage;
+    private final Counter bytesServed;
+
+    public MediaCache(FileStorageService fileStorageService,
+                      MeterRegistry meterRegistry,
+                      @Value("${app.media.proxy.cache-dir:${java.io.tmpdir}/twitter-media-cache}") String cacheDir,
+                      @Value("${app.media.proxy.max-size-mb:2048}") long maxSizeMb,
+                      @Value("${app.media.proxy.sendfile-grace-ms:30000}") long sendfileGraceMs) {
+        this.fileStorageService = fileStorageService;
+        this.cacheDir = Path.of(cacheDir);
+        this.maxBytes = maxSizeMb * 1024 * 1024;
+        this.sendfileGraceMs = sendfileGraceMs;
+
+        this.hits = Counter.builder("app.media.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("app.media.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.bytesFromStorage = Counter.builder("app.media.cache.bytes").tag("source", "storage").register(meterRegistry);
+        this.bytesServed = Counter.builder("app.media.served.bytes").register(meterRegistry);
+        Gauge.builder("app.media.cache.size.bytes", this, c -> c.currentBytes()).register(meterRegistry);
+        Gauge.builder("app.media.cache.entries", this, c -> c.currentEntries()).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        FileSystemUtils.deleteRecursively(cacheDir);
+        Files.createDirectories(cacheDir);
+        log.info("Media cache at {} (max {} MB)", cacheDir, maxBytes / (1024 * 1024));
+    }
+
+    /**
+     * The cached file of {@code key} (downloaded on a miss), which stays on disk until the pin is closed.
+     * Open the file before closing it.
+     */
+    public Pin pin(String key) {
+        boolean missed = false;
+        while (true) {
+            synchronized (this) {
+                Entry entry = entries.get(key);
+                if (entry != null) {
+                    if (!missed) hits.increment();
+                    entry.pins++;
+                    return new Pin(entry);
+                }
+            }
+            if (!missed) misses.increment();
+            missed = true;
+            // Downloaded (by this request or a concurrent one), then pinned on the next pass
+            download(key);
+        }
+    }
+
+    public void recordServed(long bytes) {
+        bytesServed.increment(bytes);
+    }
+
+    // Deletes the evicted files nobody uses anymore. Scheduled too: sendfile grace periods end
+    // without any call, and a failed delete is retried here.
+    @Scheduled(fixedDelayString = "${app.media.proxy.sweep-interval-ms:5000}")
+    public synchronized void deleteEvicted() {
+        long now = System.currentTimeMillis();
+        Iterator<Entry> it = evicted.iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.pins > 0 || entry.keepUntil > now) continue;
+            try {
+                Files.deleteIfExists(entry.media.path());
+                it.remove();
+            } catch (IOException e) {
+                // Still open somewhere (e.g. Windows): retried on the next sweep
+                log.debug("Could not delete cached media {} yet: {}", entry.media.path(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A request's hold on a cached file. Closing it lets eviction delete the file.
+     */
+    public final class Pin implements AutoCloseable {
+
+        private final Entry entry;
+        private boolean closed;
+
+        private Pin(Entry entry) {
+            this.entry = entry;
+        }
+
+        public CachedMedia media() {
+            return entry.media;
+        }
+
+        // The file is opened after the handler returns (sendfile): keep it a while after close
+        public void handOff() {
+            synchronized (MediaCache.this) {
+                entry.keepUntil = Math.max(entry.keepUntil, System.currentTimeMillis() + sendfileGraceMs);
+            }
+        }
+
+        @Override
+        public void close() {
+            boolean lastOfEvicted;
+            synchronized (MediaCache.this) {
+                if (closed) return;
+                closed = true;
+                lastOfEvicted = --entry.pins == 0 && entry.evicted;
+            }
+            if (lastOfEvicted) deleteEvicted();
+        }
+    }
+
+    private static final class Entry {
+        private final CachedMedia media;
+        private int pins;
+        private long keepUntil;
+        private boolean evicted;
+
+        private Entry(CachedMedia media) {
+            this.media = media;
+        }
+    }
+
+    private void download(String key) {
+        CompletableFuture<Void> download = new CompletableFuture<>();
+        CompletableFuture<Void> running = inFlight.putIfAbsent(key, download);
+        if (running != null) {
+            try {
+                running.join();
+                return;
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            fetch(key);
+            download.complete(null);
+        } catch (RuntimeException e) {
+            download.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, download);
+        }
+    }
+
+    private void fetch(String key) {
+        // Unique per download: an evicted copy of the same key may still be pinned
+        String fileName = fileNameOf(key) + "-" + UUID.randomUUID();
+        Path target = cacheDir.resolve(fileName);
+        Path partial = cacheDir.resolve(fileName + ".part");
+        try {
+            FileStorageService.DownloadedBlob blob = fileStorageService.download(key, partial);
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            bytesFromStorage.increment(blob.size());
+            add(key, new Entry(new CachedMedia(target, blob.size(), blob.contentType(), blob.etag())));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException ignored) {
+                // Gone on the next restart
+            }
+        }
+    }
+
+    private synchronized void add(String key, Entry entry) {
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            totalBytes -= previous.media.size();
+            retire(previous);
+        }
+        totalBytes += entry.media.size();
+
+        // Evict the least recently used, never the entry that is about to be served
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && entries.size() > 1 && it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            if (eldest.getKey().equals(key)) continue;
+            it.remove();
+            totalBytes -= eldest.getValue().media.size();
+            retire(eldest.getValue());
+        }
+        deleteEvicted();
+    }
+
+    // Out of the index; the file goes once no request pins it (see deleteEvicted)
+    private void retire(Entry entry) {
+        entry.evicted = true;
+        evicted.add(entry);
+    }
+
+    private synchronized long currentBytes() {
+        return totalBytes;
+    }
+
+    private synchronized int currentEntries() {
+        return entries.size();
+    }
+
+    // Blob names can hold any character, cache files are named by their hash
+    private static String fileNameOf(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.fei.twitterjavaapi.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reference counts of content-addressed media (table "media_objects").
+ * <p>
+ * <ul>
+ * <li><strong>Acquire:</strong> Every upload pins its object (+1) before the tweet / profile is saved,
+ * so a concurrent release can't delete a blob that is about to be reused.</li>
+ * <li><strong>Release:</strong> Joins the caller's transaction (-1). At 0 the row goes away and the blob
+ * is queued in BlobDeletionQueue, in the same commit.</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MediaObjectService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlobDeletionQueue blobDeletionQueue;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * @param blobName  Used only if the content is new
+     * @return The blob that holds this content + whether it still has to be uploaded
+     */
+    Acquired acquire(String contentHash, String blobName, String contentType, long sizeBytes) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO media_objects (content_hash, blob_name, content_type, size_bytes, ref_count)
+                VALUES (?, ?, ?, ?, 1)
+                ON CONFLICT (content_hash) DO UPDATE SET ref_count = media_objects.ref_count + 1
+                RETURNING blob_name, uploaded
+                """,
+                (rs, rowNum) -> new Acquired(rs.getString("blob_name"), rs.getBoolean("uploaded")),
+                contentHash, blobName, contentType, sizeBytes);
+    }
+
+    void markUploaded(String contentHash) {
+        jdbcTemplate.update("UPDATE media_objects SET uploaded = TRUE WHERE content_hash = ?", contentHash);
+    }
+
+    record Acquired(String blobName, boolean uploaded) {
+    }
+
+    // Tweets purged, avatar replaced... Call inside the transaction that drops the references.
+    // 1 reference per URL: duplicates (2 tweets, same image) are released twice.
+    public void release(Collection<String> fileUrls) {
+        List<String> unreferenced = new ArrayList<>();
+
+        // Rows are locked in blob name order, whatever the caller's order: 2 concurrent
+        // releases of the same blobs wait on each other instead of deadlocking
+        List<String> urls = fileUrls.stream()
+                .filter(Objects::nonNull)
+                .filter(u -> !u.isBlank())
+                .sorted(Comparator.comparing(FileStorageService::blobNameOf))
+                .toList();
+
+        for (String url : urls) {
+            String blobName = FileStorageService.blobNameOf(url);
+            List<Integer> remaining = jdbcTemplate.queryForList(
+                    "UPDATE media_objects SET ref_count = ref_count - 1 WHERE blob_name = ? RETURNING ref_count",
+                    Integer.class, blobName);
+
+            if (remaining.isEmpty()) {
+                // Uploaded before content addressing (1 blob per upload), nothing else uses it
+                unreferenced.add(url);
+            } else if (remaining.getFirst() <= 0) {
+                // Row is locked by the UPDATE above, so nobody can pin it again before this commits
+                int removed = jdbcTemplate.update("DELETE FROM media_objects WHERE blob_name = ? AND ref_count <= 0", blobName);
+                if (removed > 0) unreferenced.add(url);
+            }
+        }
+
+        blobDeletionQueue.enqueue(unreferenced);
+    }
+
+    // Compensation after a failed DB write (upload pinned, row never saved). Never throws:
+    // the caller is already handling the original error.
+    public void releaseQuietly(String fileUrl) {
+        if (fileUrl == null || fileUrl.isBlank()) return;
+        try {
+            transactionTemplate.executeWithoutResult(status -> release(List.of(fileUrl)));
+        } catch (RuntimeException e) {
+            log.error("Could not release media {}", fileUrl, e);
+        }
+    }
+}
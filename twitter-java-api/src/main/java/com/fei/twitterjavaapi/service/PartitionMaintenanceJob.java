@@ -0,0 +1,39 @@
+package com.fei.twitterjavaapi.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the monthly partitions of tweets / tweet_likes / notifications created ahead of time.
+ * <p>
+ * Rows for a month without a partition land in the "*_default" partition, and a month can't be
+ * added anymore once the default partition holds rows for it. So the next months are always
+ * created early (idempotent, safe to run on every instance).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PartitionMaintenanceJob {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Scheduled(initialDelay = 60_000, fixedDelayString = "${app.partitioning.maintenance-interval-ms:21600000}")
+    public void createUpcomingPartitions() {
+        try {
+            Integer created = jdbcTemplate.queryForObject("SELECT ensure_monthly_partitions(?)", Integer.class, monthsAhead);
+            if (created != null && created > 0) {
+                log.info("Created {} monthly partitions", created);
+            }
+        } catch (RuntimeException e) {
+            // Retried on the next run, months are created well ahead
+            log.error("Monthly partition maintenance failed", e);
+        }
+    }
+}
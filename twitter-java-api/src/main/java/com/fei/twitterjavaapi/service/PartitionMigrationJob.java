@@ -0,0 +1,232 @@
+package com.fei.twitterjavaapi.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Online migration of tweets / tweet_likes / notifications to their monthly-partitioned twins (V5).
+ * <ol>
+ * <li><strong>Backfill:</strong> Existing rows are copied in keyset batches, one short transaction
+ * each. New writes are already mirrored by triggers, so only history is copied here.
+ * The position is stored in partition_migrations, a restart resumes where it stopped.</li>
+ * <li><strong>Swap:</strong> With {@code cutover=true} and every backfill finished, the tables are
+ * renamed in one transaction ({@code *_p} -> live name, live -> {@code *_legacy}). It needs a brief
+ * exclusive lock and gives up after {@code lock-timeout} (retried on the next start).</li>
+ * </ol>
+ * Run it on one instance only. The legacy tables are kept for rollback and dropped by hand afterwards.
+ */
+@Component
+@ConditionalOnProperty(name = "app.partitioning.migration.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class PartitionMigrationJob {
+
+    // Each batch: lock the source rows (FOR SHARE, so a concurrent UPDATE/DELETE waits and is then
+    // mirrored onto the copy), copy them, and return the last key of the batch (no row = done).
+    private static final String COPY_TWEETS = """
+            WITH batch AS (
+                SELECT id, user_id, content, media_type, media_url, parent_id, retweet_id,
+                       reply_count, retweet_count, like_count, created_at, updated_at, deleted_at
+                FROM tweets
+                WHERE id > ?
+                ORDER BY id
+                LIMIT ?
+                FOR SHARE
+            ),
+            copied AS (
+                INSERT INTO tweets_p (id, user_id, content, media_type, media_url, parent_id, retweet_id,
+                                      reply_count, retweet_count, like_count, created_at, updated_at, deleted_at)
+                SELECT * FROM batch
+                ON CONFLICT DO NOTHING
+            )
+            SELECT id AS last_key, 0 AS last_key2, (SELECT COUNT(*) FROM batch) AS copied
+            FROM batch ORDER BY id DESC LIMIT 1
+            """;
+
+    private static final String COPY_TWEET_LIKES = """
+            WITH batch AS (
+                SELECT l.user_id, l.tweet_id, l.created_at, t.created_at AS tweet_created_at
+                FROM tweet_likes l
+                JOIN tweets t ON t.id = l.tweet_id
+                WHERE (l.user_id, l.tweet_id) > (?, ?)
+                ORDER BY l.user_id, l.tweet_id
+                LIMIT ?
+                FOR SHARE OF l
+            ),
+            copied AS (
+                INSERT INTO tweet_likes_p (user_id, tweet_id, created_at, tweet_created_at)
+                SELECT * FROM batch
+                ON CONFLICT DO NOTHING
+            )
+            SELECT user_id AS last_key, tweet_id AS last_key2, (SELECT COUNT(*) FROM batch) AS copied
+            FROM batch ORDER BY user_id DESC, tweet_id DESC LIMIT 1
+            """;
+
+    private static final String COPY_NOTIFICATIONS = """
+            WITH batch AS (
+                SELECT id, recipient_id, actor_id, tweet_id, type, is_read, created_at
+                FROM notifications
+                WHERE id > ?
+                ORDER BY id
+                LIMIT ?
+                FOR SHARE
+            ),
+            copied AS (
+                INSERT INTO notifications_p (id, recipient_id, actor_id, tweet_id, type, is_read, created_at)
+                SELECT * FROM batch
+                ON CONFLICT DO NOTHING
+            )
+            SELECT id AS last_key, 0 AS last_key2, (SELECT COUNT(*) FROM batch) AS copied
+            FROM batch ORDER BY id DESC LIMIT 1
+            """;
+
+    private static final List<String> TABLES = List.of("tweets", "tweet_likes", "notifications");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.partitioning.migration.batch-size:5000}")
+    private int batchSize;
+
+    // Breathing room for the live workload between batches
+    @Value("${app.partitioning.migration.pause-ms:50}")
+    private long pauseMs;
+
+    @Value("${app.partitioning.migration.cutover:false}")
+    private boolean cutover;
+
+    @Value("${app.partitioning.migration.lock-timeout:5s}")
+    private String lockTimeout;
+
+    @Async // Don't block startup, the app keeps serving from the current tables meanwhile
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (jdbcTemplate.queryForObject("SELECT to_regclass('tweets_p') IS NULL", Boolean.class)) {
+            log.info("Partition migration: tables already swapped, nothing to do");
+            return;
+        }
+
+        try {
+            for (String table : TABLES) {
+                backfill(table);
+            }
+            if (cutover) {
+                swap();
+            } else {
+                log.info("Partition migration: backfill done. Set app.partitioning.migration.cutover=true to swap.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Partition migration interrupted, resumes on the next start");
+        } catch (RuntimeException e) {
+            log.error("Partition migration failed, resumes on the next start", e);
+        }
+    }
+
+    private void backfill(String table) throws InterruptedException {
+        Map<String, Object> progress = jdbcTemplate.queryForMap(
+                "SELECT last_key, last_key2, copied, finished_at FROM partition_migrations WHERE table_name = ?", table);
+        if (progress.get("finished_at") != null) return;
+
+        long lastKey = ((Number) progress.get("last_key")).longValue();
+        long lastKey2 = ((Number) progress.get("last_key2")).longValue();
+        long total = ((Number) progress.get("copied")).longValue();
+        long start = System.currentTimeMillis();
+        log.info("Partition migration: copying {} from key ({}, {})", table, lastKey, lastKey2);
+
+        while (true) {
+            long fromKey = lastKey;
+            long fromKey2 = lastKey2;
+            // 1 batch = 1 transaction (row locks are held only for the batch)
+            List<long[]> result = transactionTemplate.execute(status -> {
+                List<long[]> rows = copyBatch(table, fromKey, fromKey2);
+                if (rows.isEmpty()) {
+                    jdbcTemplate.update("UPDATE partition_migrations SET finished_at = NOW() WHERE table_name = ?", table);
+                } else {
+                    long[] last = rows.getFirst();
+                    jdbcTemplate.update("""
+                            UPDATE partition_migrations SET last_key = ?, last_key2 = ?, copied = copied + ?
+                            WHERE table_name = ?
+                            """, last[0], last[1], last[2], table);
+                }
+                return rows;
+            });
+
+            if (result == null || result.isEmpty()) break;
+
+            lastKey = result.getFirst()[0];
+            lastKey2 = result.getFirst()[1];
+            total += result.getFirst()[2];
+            Thread.sleep(pauseMs);
+        }
+
+        log.info("Partition migration: {} copied ({} rows in {} ms)", table, total, System.currentTimeMillis() - start);
+    }
+
+    private List<long[]> copyBatch(String table, long lastKey, long lastKey2) {
+        return switch (table) {
+            case "tweets" -> jdbcTemplate.query(COPY_TWEETS, (rs, i) -> lastKeyRow(rs), lastKey, batchSize);
+            case "tweet_likes" -> jdbcTemplate.query(COPY_TWEET_LIKES, (rs, i) -> lastKeyRow(rs), lastKey, lastKey2, batchSize);
+            case "notifications" -> jdbcTemplate.query(COPY_NOTIFICATIONS, (rs, i) -> lastKeyRow(rs), lastKey, batchSize);
+            default -> throw new IllegalArgumentException("Unknown table: " + table);
+        };
+    }
+
+    private static long[] lastKeyRow(ResultSet rs) throws SQLException {
+        return new long[] { rs.getLong("last_key"), rs.getLong("last_key2"), rs.getLong("copied") };
+    }
+
+    // Everything in 1 transaction: either the app sees the old tables or the new ones, never a mix
+    private void swap() {
+        Long pending = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM partition_migrations WHERE finished_at IS NULL", Long.class);
+        if (pending == null || pending > 0) {
+            log.warn("Partition migration: {} backfills unfinished, not swapping", pending);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SET LOCAL lock_timeout = '" + lockTimeout.replace("'", "") + "'");
+            jdbcTemplate.execute("""
+                    LOCK TABLE tweets, tweet_likes, notifications, tweet_hashtags,
+                               tweets_p, tweet_likes_p, notifications_p IN ACCESS EXCLUSIVE MODE
+                    """);
+
+            // Sync is no longer needed, the legacy tables are frozen from here on
+            jdbcTemplate.execute("DROP TRIGGER trg_tweets_mirror ON tweets");
+            jdbcTemplate.execute("DROP TRIGGER trg_tweet_likes_mirror ON tweet_likes");
+            jdbcTemplate.execute("DROP TRIGGER trg_notifications_mirror ON notifications");
+
+            // Would keep pointing at tweets_legacy after the rename
+            jdbcTemplate.execute("ALTER TABLE tweet_hashtags DROP CONSTRAINT IF EXISTS tweet_hashtags_tweet_id_fkey");
+
+            for (String table : TABLES) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " RENAME TO " + table + "_legacy");
+                jdbcTemplate.execute("ALTER TABLE " + table + "_p RENAME TO " + table);
+            }
+
+            // Dropping a legacy table must not drop the ID sequences the new tables use
+            jdbcTemplate.execute("ALTER SEQUENCE tweets_id_seq OWNED BY tweets.id");
+            jdbcTemplate.execute("ALTER SEQUENCE notifications_id_seq OWNED BY notifications.id");
+
+            jdbcTemplate.update("UPDATE partition_migrations SET swapped_at = NOW()");
+        });
+
+        log.info("Partition migration: tables swapped in {} ms (old tables kept as *_legacy)",
+                System.currentTimeMillis() - start);
+    }
+}
@@ -1,18 +1,18 @@
 package com.fei.twitterjavaapi.service;
 
 import com.fei.twitterjavaapi.exception.ResourceNotFoundException;
-import com.fei.twitterjavaapi.model.entity.Tweet;
+import com.fei.twitterjavaapi.manager.EngagementStreamManager;
 import com.fei.twitterjavaapi.model.entity.User;
-import com.fei.twitterjavaapi.model.enums.MediaType;
 import com.fei.twitterjavaapi.model.event.UserRetweetedEvent;
+import com.fei.twitterjavaapi.model.projection.TweetAuthorProjection;
 import com.fei.twitterjavaapi.repository.TweetRepository;
+import com.fei.twitterjavaapi.util.SnowflakeIdGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashSet;
 import java.util.Optional;
 
 @Service
@@ -22,62 +22,49 @@ public class RetweetService {
 
     private final TweetRepository tweetRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final EngagementStreamManager engagementStreamManager;
+    private final SnowflakeIdGenerator snowflakeIdGenerator;
 
     @Transactional
     public void retweet(User user, Long tweetId) {
         log.info("User {} is retweeting tweet {}", user.getId(), tweetId);
 
-        Tweet targetTweet = tweetRepository.findById(tweetId)
-                .orElseThrow(() -> new ResourceNotFoundException("Tweet", "id", tweetId));
+        // Insert Retweet + Increment Counter (1 statement, always targets the original post)
+        Optional<TweetAuthorProjection> original = tweetRepository.insertRetweet(
+                snowflakeIdGenerator.nextId(), user.getId(), tweetId);
 
-        // Flatten Logic: Always retweet the original post
-        if (targetTweet.getRetweet() != null) {
-            targetTweet = targetTweet.getRetweet();
-        }
-
-        // If already retweeted, just return
-        if (tweetRepository.existsByUserIdAndRetweetId(user.getId(), targetTweet.getId())) {
-            log.warn("User {} already retweeted tweet {}. Skipping.", user.getId(), targetTweet.getId());
+        if (original.isEmpty()) {
+            // Rare path: tell "already retweeted" apart from "no such tweet"
+            if (!tweetRepository.existsById(tweetId)) {
+                throw new ResourceNotFoundException("Tweet", "id", tweetId);
+            }
+            log.warn("User {} already retweeted tweet {}. Skipping.", user.getId(), tweetId);
             return;
         }
 
-        Tweet retweet = Tweet.builder()
-                .user(user)
-                .retweet(targetTweet)
-                .content(null)
-                .mediaType(MediaType.NONE)
-                .hashtags(new HashSet<>())
-                .build();
+        Long targetTweetId = original.get().getTweetId();
+        log.info("Retweet created for User {} on Tweet {}", user.getId(), targetTweetId);
+        engagementStreamManager.record(targetTweetId);
 
-        tweetRepository.save(retweet);
-        tweetRepository.incrementRetweetCount(targetTweet.getId());
-        log.info("Retweet created for User {} on Tweet {}", user.getId(), targetTweet.getId());
-
-        eventPublisher.publishEvent(new UserRetweetedEvent(user, targetTweet));
+        eventPublisher.publishEvent(new UserRetweetedEvent(user, targetTweetId, original.get().getAuthorId()));
     }
 
     @Transactional
     public void unretweet(User user, Long tweetId) {
         log.info("User {} is undoing retweet for tweet {}", user.getId(), tweetId);
 
-        Tweet targetTweet = tweetRepository.findById(tweetId)
-                .orElseThrow(() -> new ResourceNotFoundException("Tweet", "id", tweetId));
+        // Delete Retweet + Decrement Counter (1 statement)
+        Optional<Long> targetTweetId = tweetRepository.deleteRetweet(user.getId(), tweetId);
 
-        // Flatten Logic: Find the original if target is a retweet
-        if (targetTweet.getRetweet() != null) {
-            targetTweet = targetTweet.getRetweet();
-        }
-
-        // Idempotency: If the retweet doesn't exist, just return
-        Optional<Tweet> existingRetweet = tweetRepository.findByUserIdAndRetweetId(user.getId(), targetTweet.getId());
-
-        if (existingRetweet.isEmpty()) {
-            log.warn("No retweet record found for User {} and Tweet {}. Skipping.", user.getId(), targetTweet.getId());
+        if (targetTweetId.isEmpty()) {
+            // Idempotency: no retweet to undo (but still 404 for an unknown tweet)
+            if (!tweetRepository.existsById(tweetId)) {
+                throw new ResourceNotFoundException("Tweet", "id", tweetId);
+            }
+            log.warn("No retweet record found for User {} and Tweet {}. Skipping.", user.getId(), tweetId);
             return;
         }
-
-        tweetRepository.delete(existingRetweet.get());
-        tweetRepository.decrementRetweetCount(targetTweet.getId());
-        log.info("Retweet removed for User {} on Tweet {}", user.getId(), targetTweet.getId());
+        log.info("Retweet removed for User {} on Tweet {}", user.getId(), targetTweetId.get());
+        engagementStreamManager.record(targetTweetId.get());
     }
-}
\ No newline at end of file
+}
@@ -2,26 +2,41 @@ package com.fei.twitterjavaapi.service;
 
 import com.fei.twitterjavaapi.mapper.TweetMapper;
 import com.fei.twitterjavaapi.mapper.UserMapper;
+import com.fei.twitterjavaapi.model.dto.common.CursorResponse;
 import com.fei.twitterjavaapi.model.dto.common.PageResponse;
 import com.fei.twitterjavaapi.model.dto.hashtag.TrendingHashtagDTO;
 import com.fei.twitterjavaapi.model.dto.tweet.TweetResponse;
 import com.fei.twitterjavaapi.model.dto.user.UserResponse;
+import com.fei.twitterjavaapi.model.dto.user.UserSummary;
 import com.fei.twitterjavaapi.model.entity.Hashtag;
 import com.fei.twitterjavaapi.model.entity.Tweet;
 import com.fei.twitterjavaapi.model.entity.User;
 import com.fei.twitterjavaapi.repository.HashtagRepository;
 import com.fei.twitterjavaapi.repository.TweetRepository;
 import com.fei.twitterjavaapi.repository.UserRepository;
+import com.fei.twitterjavaapi.search.HandlePrefixIndex;
+import com.fei.twitterjavaapi.search.LuceneSearchIndex;
+import com.fei.twitterjavaapi.search.TweetSearchEngine;
+import com.fei.twitterjavaapi.util.IdCursor;
+import com.fei.twitterjavaapi.util.PartitionBounds;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,6 +49,16 @@ public class SearchService {
     private final HashtagRepository hashtagRepository;
     private final TweetMapper tweetMapper;
     private final UserMapper userMapper;
+    private final TweetSearchEngine tweetSearchEngine;
+    private final Optional<LuceneSearchIndex> searchIndex; // Present only when app.search.lucene.enabled=true
+    private final HandlePrefixIndex handlePrefixIndex;
+
+    // Max matches counted for the people search total
+    @Value("${app.search.candidate-limit:1000}")
+    private int candidateLimit;
+
+    @Value("${app.partitioning.recent-window-days:7}")
+    private int recentWindowDays;
 
     @Transactional(readOnly = true)
     public PageResponse<TweetResponse> searchTweets(User currentUser, String rawQuery, int page, int size) {
@@ -59,9 +84,13 @@ public class SearchService {
         }
         // STRATEGY 2: FULL-TEXT SEARCH (Fuzzy Match)
         else {
-            String sanitizedQuery = prepareTsQuery(trimmedQuery);
+            String sanitizedQuery = prepareTsQuery(trimmedQuery, false);
             if (sanitizedQuery.isEmpty()) return PageResponse.from(Page.empty());
 
+            // Prefer the embedded index (keeps FTS load off the DB), PostgreSQL is the fallback
+            PageResponse<TweetResponse> indexed = searchTweetsInIndex(currentUser, trimmedQuery, pageRequest);
+            if (indexed != null) return indexed;
+
             // Use the Native PostgreSQL FTS method
             tweetPage = tweetRepository.searchTweets(sanitizedQuery, pageRequest);
         }
@@ -69,6 +98,45 @@ public class SearchService {
         return tweetMapper.toResponsePage(tweetPage, currentUser);
     }
 
+    // "#tag" timeline, newest first, keyset-paged on the tweet ID
+    @Transactional(readOnly = true)
+    public CursorResponse<TweetResponse> searchHashtagTweets(User currentUser, String rawTag, String cursor, int size) {
+        String cleanHashtag = rawTag == null ? "" : rawTag.replaceAll("[^a-zA-Z0-9_]", "");
+        if (cleanHashtag.isEmpty()) return CursorResponse.empty();
+
+        long before = IdCursor.parse(cursor, Long.MAX_VALUE);
+        LocalDateTime until = PartitionBounds.createdUntil(before);
+        List<Tweet> tweets = PartitionBounds.recentFirst(until, recentWindowDays, size + 1, Tweet::getId,
+                from -> tweetRepository.findTweetsByHashtagBefore(cleanHashtag, before, from, until, PageRequest.of(0, size + 1)));
+        return tweetMapper.toResponseCursor(tweets, size, currentUser);
+    }
+
+    /**
+     * "Top" search: ranked by text relevance + engagement + recency, cursor-paged.
+     * With prefix = true the last word is matched as a prefix (search-as-you-type).
+     */
+    @Transactional(readOnly = true)
+    public CursorResponse<TweetResponse> searchTopTweets(User currentUser, String rawQuery, String cursor,
+                                                         int size, boolean prefix) {
+        log.info("User {} ranked search for: {}", currentUser != null ? currentUser.getId() : "Guest", rawQuery);
+
+        String tsQuery = prepareTsQuery(rawQuery, prefix);
+        if (tsQuery.isEmpty()) return CursorResponse.empty();
+
+        TweetSearchEngine.SearchHits hits = tweetSearchEngine.search(tsQuery, cursor, size);
+        if (hits.ids().isEmpty()) return CursorResponse.empty();
+
+        // Load the page in 1 query, then restore the rank order
+        List<Tweet> ordered = inIdOrder(hits.ids(), tweetRepository.findAllWithAuthorsByIdIn(hits.ids()), Tweet::getId);
+
+        return new CursorResponse<>(
+                tweetMapper.toResponseList(ordered, currentUser),
+                hits.nextCursor(),
+                hits.estimatedTotal(),
+                hits.nextCursor() == null
+        );
+    }
+
     @Transactional(readOnly = true)
     public PageResponse<UserResponse> searchUsers(User currentUser, String rawQuery, int page, int size) {
         log.info("User {} searching for people: {}", currentUser != null ? currentUser.getId() : "Guest", rawQuery);
@@ -80,11 +148,65 @@ public class SearchService {
         // Clean the query (Just trim it for the LIKE statement)
         String cleanQuery = rawQuery.trim();
 
-        // Execute DB Search
         PageRequest pageRequest = PageRequest.of(page, size);
-        Page<User> userPage = userRepository.searchUsers(cleanQuery, pageRequest);
 
-        return userMapper.toResponsePage(userPage, currentUser);
+        // Prefer the embedded index, PostgreSQL is the fallback
+        PageResponse<UserResponse> indexed = searchUsersInIndex(currentUser, cleanQuery, pageRequest);
+        if (indexed != null) return indexed;
+
+        // Execute DB Search (trigram similarity * popularity)
+        String pattern = "%" + escapeLike(cleanQuery) + "%";
+        List<User> users = userRepository.searchUsersBySimilarity(
+                cleanQuery, pattern, pageRequest.getPageSize(), pageRequest.getOffset());
+        long total = userRepository.countUsersBySimilarity(cleanQuery, pattern, candidateLimit);
+
+        return userMapper.toResponsePage(new PageImpl<>(users, pageRequest, total), currentUser);
+    }
+
+    /**
+     * Mention autocomplete: "@jo" -> handles starting with "jo", most followed first.
+     * Served from memory only (never hits the DB).
+     */
+    public List<UserSummary> searchHandles(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return Collections.emptyList();
+        }
+        return handlePrefixIndex.lookup(prefix, limit);
+    }
+
+    // Returns NULL when the index is disabled, still rebuilding, or failing (caller falls back to the DB)
+    private PageResponse<TweetResponse> searchTweetsInIndex(User currentUser, String query, PageRequest pageRequest) {
+        if (searchIndex.isEmpty() || !searchIndex.get().isReady()) return null;
+
+        try {
+            LuceneSearchIndex.IndexHits hits = searchIndex.get()
+                    .searchTweets(query, pageRequest.getPageNumber(), pageRequest.getPageSize());
+            List<Tweet> tweets = inIdOrder(hits.ids(), tweetRepository.findAllWithAuthorsByIdIn(hits.ids()), Tweet::getId);
+            return tweetMapper.toResponsePage(new PageImpl<>(tweets, pageRequest, hits.totalHits()), currentUser);
+        } catch (UncheckedIOException e) {
+            log.warn("Search index failed, falling back to PostgreSQL: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private PageResponse<UserResponse> searchUsersInIndex(User currentUser, String query, PageRequest pageRequest) {
+        if (searchIndex.isEmpty() || !searchIndex.get().isReady()) return null;
+
+        try {
+            LuceneSearchIndex.IndexHits hits = searchIndex.get()
+                    .searchUsers(query, pageRequest.getPageNumber(), pageRequest.getPageSize());
+            List<User> users = inIdOrder(hits.ids(), userRepository.findAllById(hits.ids()), User::getId);
+            return userMapper.toResponsePage(new PageImpl<>(users, pageRequest, hits.totalHits()), currentUser);
+        } catch (UncheckedIOException e) {
+            log.warn("Search index failed, falling back to PostgreSQL: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // Restores the ranked order after a "WHERE id IN (...)" load. Rows deleted in between are skipped.
+    private static <T> List<T> inIdOrder(List<Long> ids, List<T> entities, Function<T, Long> idGetter) {
+        Map<Long, T> byId = entities.stream().collect(Collectors.toMap(idGetter, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
     }
 
     /**
@@ -108,11 +230,17 @@ public class SearchService {
                 .collect(Collectors.toList());
     }
 
+    // Makes user input literal inside an ILIKE pattern ("50%_off" -> "50\\%\\_off")
+    private static String escapeLike(String input) {
+        return input.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     /**
      * Converts a raw user search like "java spring" into PostgreSQL format "java & spring".
+     * With prefix = true the last word becomes a prefix match: "java spr" -> "java & spr:*".
      * Strips dangerous characters to prevent SQL syntax errors.
      */
-    private String prepareTsQuery(String query) {
+    private String prepareTsQuery(String query, boolean prefix) {
         if (query == null || query.isBlank()) return "";
 
         // Remove characters that aren't alphanumeric or spaces
@@ -120,6 +248,7 @@ public class SearchService {
         if (clean.isEmpty()) return "";
 
         // Join words with the '&' operator so PostgreSQL knows to search for ALL words
-        return String.join(" & ", clean.split("\\s+"));
+        String tsQuery = String.join(" & ", clean.split("\\s+"));
+        return prefix ? tsQuery + ":*" : tsQuery;
     }
 }
\ No newline at end of file
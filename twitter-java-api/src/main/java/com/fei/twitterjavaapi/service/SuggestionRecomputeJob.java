@@ -0,0 +1,84 @@
+package com.fei.twitterjavaapi.service;
+
+import com.fei.twitterjavaapi.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Precomputes "Who to follow" (friends-of-friends) for active users.
+ * <p>
+ * Active users are read in keyset batches, and each batch is recomputed on a small
+ * fixed pool (1 pooled DB connection per thread). Every user is 2 statements:
+ * upsert the new top N, then drop whatever the run didn't produce.
+ * DiscoveryService only reads the stored list.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SuggestionRecomputeJob {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final UserRepository userRepository;
+
+    @Value("${app.discovery.suggestions.per-user:100}")
+    private int perUser;
+
+    @Value("${app.discovery.suggestions.threads:4}")
+    private int threads;
+
+    @Scheduled(initialDelayString = "${app.discovery.suggestions.initial-delay-ms:60000}",
+            fixedDelayString = "${app.discovery.suggestions.interval-ms:21600000}")
+    public void recomputeAll() {
+        long start = System.currentTimeMillis();
+        Instant computedAt = Instant.now();
+        int users = 0;
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> batches = new ArrayList<>();
+
+            long afterId = 0;
+            List<Long> batch;
+            do {
+                batch = userRepository.findActiveFollowerIdsAfter(afterId, BATCH_SIZE);
+                if (batch.isEmpty()) break;
+
+                List<Long> userIds = batch;
+                batches.add(pool.submit(() -> userIds.forEach(userId -> recompute(userId, computedAt))));
+                users += batch.size();
+                afterId = batch.getLast();
+            } while (batch.size() == BATCH_SIZE);
+
+            for (Future<?> f : batches) {
+                f.get();
+            }
+            log.info("Suggestions recomputed for {} users in {} ms", users, System.currentTimeMillis() - start);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Suggestion recompute interrupted. Previous lists are kept.");
+        } catch (Exception e) {
+            log.error("Suggestion recompute failed. Previous lists are kept.", e);
+        }
+    }
+
+    public void recompute(long userId, Instant computedAt) {
+        try {
+            userRepository.refreshSuggestions(userId, computedAt, perUser);
+            userRepository.deleteStaleSuggestions(userId, computedAt);
+        } catch (RuntimeException e) {
+            // One bad user shouldn't stop the batch
+            log.warn("Failed to recompute suggestions for user {}", userId, e);
+        }
+    }
+}
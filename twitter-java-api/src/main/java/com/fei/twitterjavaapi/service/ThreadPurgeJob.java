@@ -0,0 +1,126 @@
+package com.fei.twitterjavaapi.service;
+
+import com.fei.twitterjavaapi.model.event.TweetDeletedEvent;
+import com.fei.twitterjavaapi.model.projection.ThreadNodeProjection;
+import com.fei.twitterjavaapi.repository.HashtagRepository;
+import com.fei.twitterjavaapi.repository.LikeRepository;
+import com.fei.twitterjavaapi.repository.NotificationRepository;
+import com.fei.twitterjavaapi.repository.TweetRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Physically removes tombstoned tweets and their whole reply tree.
+ * <p>
+ * Each chunk is its own short transaction:
+ * <ol>
+ * <li>Claim the thread ({@code pg_try_advisory_xact_lock} on the root). Every node runs this job:
+ * a thread another node is purging is skipped.</li>
+ * <li>Pick the next {@code chunk-size} deepest nodes of the thread (leaves before parents).</li>
+ * <li>Delete the hashtag links and fix usage counts from the links deleted (1 statement), then empty tags.</li>
+ * <li>Delete the dependents (likes, notifications, retweet claims). Nothing can
+ * reference the monthly-partitioned tweets table by ID, so there is no DB cascade to rely on.</li>
+ * <li>Delete the chunk with 1 set-based DELETE ... RETURNING.</li>
+ * </ol>
+ * Media of the rows actually deleted is released in the same transaction (blobs nobody else uses are
+ * queued for deletion).
+ * The tombstone itself is the queue: a restart simply resumes where it stopped.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ThreadPurgeJob {
+
+    private final TweetRepository tweetRepository;
+    private final HashtagRepository hashtagRepository;
+    private final LikeRepository likeRepository;
+    private final NotificationRepository notificationRepository;
+    private final MediaObjectService mediaObjectService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int SKIPPED = -1;
+
+    @Value("${app.tweets.purge.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.tweets.purge.roots-per-run:20}")
+    private int rootsPerRun;
+
+    @Scheduled(fixedDelayString = "${app.tweets.purge.interval-ms:5000}")
+    public void purgeTombstones() {
+        for (Long rootId : tweetRepository.findTombstonedIds(rootsPerRun)) {
+            try {
+                purgeThread(rootId);
+            } catch (RuntimeException e) {
+                // Stays tombstoned, retried on the next run
+                log.error("Failed to purge thread {}", rootId, e);
+            }
+        }
+    }
+
+    private void purgeThread(Long rootId) {
+        long start = System.currentTimeMillis();
+        int deleted = 0;
+        int purged;
+
+        do {
+            purged = purgeChunk(rootId);
+            if (purged == SKIPPED) {
+                log.debug("Thread {} is being purged by another node, skipped", rootId);
+                return;
+            }
+            deleted += purged;
+        } while (purged > 0);
+
+        log.info("Purged thread {}: {} tweets in {} ms", rootId, deleted, System.currentTimeMillis() - start);
+    }
+
+    // Tweets deleted, or SKIPPED
+    private int purgeChunk(Long rootId) {
+        Integer purged = transactionTemplate.execute(status -> {
+            // 0. Claim: every node runs this job. The chunk is read only once we hold the thread,
+            // so 2 nodes never work on the same rows.
+            if (!tweetRepository.tryLockThreadForPurge(rootId)) return SKIPPED;
+
+            List<Long> ids = tweetRepository.findThreadPurgeChunk(rootId, chunkSize).stream()
+                    .map(ThreadNodeProjection::getId)
+                    .toList();
+            if (ids.isEmpty()) return 0;
+
+            // 1. Hashtags: links deleted + usage counts fixed from exactly those links, then empty tags
+            List<Long> hashtagIds = hashtagRepository.unlinkAndDecrementForTweets(ids);
+            if (!hashtagIds.isEmpty()) {
+                hashtagRepository.deleteUnusedByIdIn(hashtagIds);
+            }
+
+            // 2. Dependents (1 set-based DELETE each)
+            likeRepository.deleteAllByTweetIdIn(ids);
+            notificationRepository.deleteAllByTweetIdIn(ids);
+            tweetRepository.deleteRetweetClaimsForTweets(ids);
+            tweetRepository.tombstoneRetweetsOf(ids);
+
+            // 3. Tweets (their retweets are tombstoned now, and purged as roots of their own)
+            List<ThreadNodeProjection> deleted = tweetRepository.deleteAllByIdIn(ids);
+
+            // 4. Media of the rows deleted here (refcount -1, unused blobs queued, only if this chunk commits)
+            mediaObjectService.release(deleted.stream()
+                    .map(ThreadNodeProjection::getMediaUrl)
+                    .filter(Objects::nonNull)
+                    .toList());
+
+            eventPublisher.publishEvent(new TweetDeletedEvent(deleted.stream().map(ThreadNodeProjection::getId).toList()));
+            return deleted.size();
+        });
+
+        return purged != null ? purged : 0;
+    }
+}
@@ -3,7 +3,9 @@ package com.fei.twitterjavaapi.service;
 import com.fei.twitterjavaapi.exception.AccessDeniedException;
 import com.fei.twitterjavaapi.exception.BadRequestException;
 import com.fei.twitterjavaapi.exception.ResourceNotFoundException;
+import com.fei.twitterjavaapi.manager.EngagementStreamManager;
 import com.fei.twitterjavaapi.mapper.TweetMapper;
+import com.fei.twitterjavaapi.model.dto.common.CursorResponse;
 import com.fei.twitterjavaapi.model.dto.common.PageResponse;
 import com.fei.twitterjavaapi.model.dto.tweet.TweetRequest;
 import com.fei.twitterjavaapi.model.dto.tweet.TweetResponse;
@@ -11,12 +13,16 @@ import com.fei.twitterjavaapi.model.entity.Hashtag;
 import com.fei.twitterjavaapi.model.entity.Tweet;
 import com.fei.twitterjavaapi.model.entity.User;
 import com.fei.twitterjavaapi.model.enums.MediaType;
+import com.fei.twitterjavaapi.model.event.TweetCreatedEvent;
+import com.fei.twitterjavaapi.model.event.TweetDeletedEvent;
 import com.fei.twitterjavaapi.model.event.UserRepliedEvent;
 import com.fei.twitterjavaapi.repository.FollowRepository;
 import com.fei.twitterjavaapi.repository.HashtagRepository;
 import com.fei.twitterjavaapi.repository.LikeRepository;
 import com.fei.twitterjavaapi.repository.TweetRepository;
 import com.fei.twitterjavaapi.util.HashtagParser;
+import com.fei.twitterjavaapi.util.IdCursor;
+import com.fei.twitterjavaapi.util.PartitionBounds;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
@@ -26,8 +32,6 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.transaction.support.TransactionSynchronization;
-import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -44,11 +48,13 @@ public class TweetService {
     private final LikeRepository likeRepository;
     private final FollowRepository followRepository;
     private final FileStorageService fileStorageService;
+    private final MediaObjectService mediaObjectService;
     private final HashtagRepository hashtagRepository;
     private final HashtagParser hashtagParser;
     private final TweetMapper tweetMapper;
     private final TransactionTemplate transactionTemplate;
     private final ApplicationEventPublisher eventPublisher;
+    private final EngagementStreamManager engagementStreamManager;
 
     /**
      * Creates a new Tweet.
@@ -86,7 +92,7 @@ public class TweetService {
             // If the DB save fails (SQL error, constraint violation), delete the file.
             if (finalMediaUrl != null) {
                 log.warn("DB Transaction failed. Rolling back file upload: {}", finalMediaUrl);
-                fileStorageService.deleteFile(finalMediaUrl);
+                mediaObjectService.releaseQuietly(finalMediaUrl);
             }
             throw e;
         }
@@ -103,6 +109,7 @@ public class TweetService {
 
             // Update Reply Counter
             tweetRepository.incrementReplyCount(parent.getId());
+            engagementStreamManager.record(parent.getId());
         }
 
         Tweet tweet = Tweet.builder()
@@ -120,6 +127,10 @@ public class TweetService {
         Tweet savedTweet = tweetRepository.save(tweet);
         log.info("Tweet created successfully with ID: {}", savedTweet.getId());
 
+        eventPublisher.publishEvent(new TweetCreatedEvent(
+                savedTweet.getId(), user.getId(), parent != null ? parent.getId() : null,
+                savedTweet.getContent(), savedTweet.getCreatedAt()));
+
         if (parent != null) {
             eventPublisher.publishEvent(new UserRepliedEvent(user, parent, savedTweet));
         }
@@ -127,6 +138,11 @@ public class TweetService {
         return tweetMapper.toResponse(savedTweet, false, false, false);
     }
 
+    /**
+     * Deletes a tweet (and its replies).
+     * Strategy: Tombstone (Transactional, O(1)) -> Purge (ThreadPurgeJob, chunked, background)
+     * The tweet disappears immediately; a viral thread is never loaded or locked in one go.
+     */
     @Transactional
     public void deleteTweet(User user, Long tweetId) {
         log.info("User {} requesting deletion of tweet {}", user.getId(), tweetId);
@@ -140,38 +156,24 @@ public class TweetService {
             throw new AccessDeniedException("You can only delete your own tweets");
         }
 
-        // Decrease/Remove Hashtags
-        removeHashtagsForDelete(tweet);
-
         // Parent reply count cleanup
         if (tweet.getParent() != null) {
             tweetRepository.decrementReplyCount(tweet.getParent().getId());
+            engagementStreamManager.record(tweet.getParent().getId());
         }
 
-        // Harvest media URLs for clean up
-        List<String> allMediaToDelete = tweetRepository.findAllMediaUrlsInThread(tweetId);
-
-        // Delete from DB
-        tweetRepository.delete(tweet);
-        log.info("Tweet {} deleted from database", tweetId);
-
-        // Schedule media cleanup (support rollback)
-        if (!allMediaToDelete.isEmpty()) {
-            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-                @Override
-                public void afterCommit() {
-                    log.info("Transaction committed. Starting batch delete for {} files.", allMediaToDelete.size());
-                    fileStorageService.deleteFiles(allMediaToDelete);
-                }
-            });
-        }
+        // Hide it now. Hashtags, replies and media are cleaned up by the purge job.
+        tweetRepository.tombstone(tweetId);
+        log.info("Tweet {} tombstoned, queued for purge", tweetId);
+
+        eventPublisher.publishEvent(new TweetDeletedEvent(List.of(tweetId)));
     }
 
     @Transactional(readOnly = true)
     public TweetResponse getTweetById(User currentUser, Long tweetId) {
         log.info("Fetching single tweet details: {}", tweetId);
 
-        Tweet tweet = tweetRepository.findById(tweetId)
+        Tweet tweet = tweetRepository.findVisibleById(tweetId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tweet", "id", tweetId));
 
         Set<Long> likedTweetIds = new HashSet<>();
@@ -205,15 +207,31 @@ public class TweetService {
     public PageResponse<TweetResponse> getReplies(User currentUser, Long tweetId, int page, int size) {
         log.info("Fetching replies for tweet {}. Page: {}", tweetId, page);
 
-        if (!tweetRepository.existsById(tweetId)) {
+        if (!tweetRepository.existsVisibleById(tweetId)) {
             throw new ResourceNotFoundException("Tweet", "id", tweetId);
         }
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "createdAt"));
-        Page<Tweet> repliesPage = tweetRepository.findAllByParentId(tweetId, pageable);
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "id"));
+        Page<Tweet> repliesPage = tweetRepository.findAllByParentIdAndCreatedAtGreaterThanEqual(
+                tweetId, PartitionBounds.createdFrom(tweetId), pageable);
         return tweetMapper.toResponsePage(repliesPage, currentUser);
     }
 
+    // Keyset variant (oldest first): the cursor is the last reply ID seen
+    @Transactional(readOnly = true)
+    public CursorResponse<TweetResponse> getRepliesByCursor(User currentUser, Long tweetId, String cursor, int size) {
+        log.info("Fetching replies for tweet {} after {}", tweetId, cursor);
+
+        if (!tweetRepository.existsVisibleById(tweetId)) {
+            throw new ResourceNotFoundException("Tweet", "id", tweetId);
+        }
+
+        long after = IdCursor.parse(cursor, 0L);
+        List<Tweet> replies = tweetRepository.findAllByParentIdAndIdGreaterThanAndCreatedAtGreaterThanEqualOrderByIdAsc(
+                tweetId, after, PartitionBounds.createdFrom(Math.max(tweetId, after)), PageRequest.of(0, size + 1));
+        return tweetMapper.toResponseCursor(replies, size, currentUser);
+    }
+
     // Creation Hashtag
     private void processHashtagsForCreate(Tweet tweet, String content) {
         if (content == null)
@@ -237,25 +255,6 @@ public class TweetService {
         }
     }
 
-    // Deletion Hashtag
-    private void removeHashtagsForDelete(Tweet tweet) {
-        Set<Hashtag> tags = tweet.getHashtags();
-        if (tags.isEmpty())
-            return;
-
-        for (Hashtag tag : new HashSet<>(tags)) {
-            int newCount = Math.max(0, tag.getUsageCount() - 1);
-            tag.setUsageCount(newCount);
-
-            if (newCount == 0) {
-                hashtagRepository.delete(tag);
-            } else {
-                hashtagRepository.save(tag);
-            }
-        }
-        tweet.getHashtags().clear();
-    }
-
     // Helper to normalize the content
     private String getCleanContent(String content) {
         if (content == null)
@@ -278,7 +277,7 @@ public class TweetService {
 
     private void validateParentTweet(Long parentId) {
         if (parentId != null) {
-            boolean parentExists = tweetRepository.existsById(parentId);
+            boolean parentExists = tweetRepository.existsVisibleById(parentId);
             if (!parentExists) {
                 throw new ResourceNotFoundException("Tweet", "id", parentId);
             }
@@ -8,6 +8,7 @@ import com.fei.twitterjavaapi.model.dto.user.UpdateProfileRequest;
 import com.fei.twitterjavaapi.model.dto.user.UserResponse;
 import com.fei.twitterjavaapi.model.entity.User;
 import com.fei.twitterjavaapi.model.event.UserFollowedEvent;
+import com.fei.twitterjavaapi.model.event.UserProfileChangedEvent;
 import com.fei.twitterjavaapi.repository.FollowRepository;
 import com.fei.twitterjavaapi.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -21,6 +22,9 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+import java.util.Optional;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -29,6 +33,7 @@ public class UserService {
     private final UserRepository userRepository;
     private final FollowRepository followRepository;
     private final FileStorageService fileStorageService;
+    private final MediaObjectService mediaObjectService;
     private final UserMapper userMapper;
     private final TransactionTemplate transactionTemplate;
     private final ApplicationEventPublisher eventPublisher;
@@ -53,25 +58,18 @@ public class UserService {
         try {
             // Database : Fast Transaction
             updatedUser = transactionTemplate.execute(status ->
-                    performDbUpdate(user, request, finalNewAvatarUrl)
+                    performDbUpdate(user, request, finalNewAvatarUrl, oldAvatarUrl)
             );
 
         } catch (Exception e) {
             // Compensation: DB failed, delete the orphaned new file
             if (finalNewAvatarUrl != null) {
                 log.warn("DB Transaction failed. Rolling back new avatar upload: {}", finalNewAvatarUrl);
-                fileStorageService.deleteFile(finalNewAvatarUrl);
+                mediaObjectService.releaseQuietly(finalNewAvatarUrl);
             }
             throw e;
         }
 
-        // Post-Commit Cleanup: DB succeeded, safe to delete the old file
-        if (finalNewAvatarUrl != null && oldAvatarUrl != null && oldAvatarUrl.contains("blob.core.windows.net")) {
-            log.info("Profile updated successfully. Cleaning up old avatar: {}", oldAvatarUrl);
-            // This happens outside the DB transaction
-            fileStorageService.deleteFile(oldAvatarUrl);
-        }
-
         // Map and Return
         return userMapper.toResponse(updatedUser, updatedUser);
     }
@@ -80,7 +78,7 @@ public class UserService {
      * Strictly handles the Database updates.
      * Executes entirely within a transaction.
      */
-    private User performDbUpdate(User user, UpdateProfileRequest request, String newAvatarUrl) {
+    private User performDbUpdate(User user, UpdateProfileRequest request, String newAvatarUrl, String oldAvatarUrl) {
         // Update Display Name
         if (request.displayName() != null && !request.displayName().isBlank()) {
             user.setDisplayName(request.displayName().trim());
@@ -92,12 +90,18 @@ public class UserService {
             user.setBio(trimmedBio.isEmpty() ? null : trimmedBio);
         }
 
-        // Update Avatar URL
+        // Update Avatar URL (the old file is released, committed together with the new URL)
         if (newAvatarUrl != null) {
             user.setAvatarUrl(newAvatarUrl);
+            if (oldAvatarUrl != null && oldAvatarUrl.contains("blob.core.windows.net")) {
+                mediaObjectService.release(List.of(oldAvatarUrl));
+            }
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(
+                saved.getId(), saved.getHandle(), saved.getDisplayName(), saved.getAvatarUrl(), saved.getFollowersCount()));
+        return saved;
     }
 
     @Transactional
@@ -106,41 +110,31 @@ public class UserService {
             throw new BadRequestException("You cannot follow yourself");
         }
 
-        // Prevent duplicate follow records
-        if (followRepository.isFollowing(currentUser.getId(), targetUserId)) {
+        // Insert Follow + Update both Counters (1 statement, a double-tap can't count twice)
+        Optional<Long> followed = followRepository.insertFollow(currentUser.getId(), targetUserId);
+
+        if (followed.isEmpty()) {
+            // Rare path: tell "already following" apart from "no such user"
+            if (!userRepository.existsById(targetUserId)) {
+                throw new ResourceNotFoundException("User", "id", targetUserId);
+            }
             log.warn("User {} is already following user {}. Ignoring request.", currentUser.getId(), targetUserId);
             return;
         }
-
-        // Fetch Target User
-        User targetUser = userRepository.findById(targetUserId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", targetUserId));
-
         log.info("User {} is following User {}", currentUser.getId(), targetUserId);
-        followRepository.followUser(currentUser.getId(), targetUserId);
-
-        // Update Counters
-        userRepository.incrementFollowingCount(currentUser.getId());
-        userRepository.incrementFollowersCount(targetUserId);
 
         // Send Notification Event
-        eventPublisher.publishEvent(new UserFollowedEvent(currentUser, targetUser));
+        eventPublisher.publishEvent(new UserFollowedEvent(currentUser, targetUserId));
     }
 
     @Transactional
     public void unfollowUser(User currentUser, Long targetUserId) {
-        // Can't unfollow if not following
-        if (!followRepository.isFollowing(currentUser.getId(), targetUserId)) {
+        // Delete Follow + Update both Counters (1 statement, no-op if not following)
+        if (followRepository.deleteFollow(currentUser.getId(), targetUserId).isEmpty()) {
             log.info("User {} is not following user {}. Ignoring unfollow request.", currentUser.getId(), targetUserId);
             return;
         }
-
-        log.info("User {} is unfollowing User {}", currentUser.getId(), targetUserId);
-        followRepository.unfollowUser(currentUser.getId(), targetUserId);
-
-        // Update Counters
-        userRepository.decrementFollowingCount(currentUser.getId());
-        userRepository.decrementFollowersCount(targetUserId);
+        log.info("User {} unfollowed User {}", currentUser.getId(), targetUserId);
     }
 
     @Transactional(readOnly = true)
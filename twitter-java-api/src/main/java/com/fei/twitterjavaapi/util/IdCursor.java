@@ -0,0 +1,30 @@
+package com.fei.twitterjavaapi.util;
+
+import com.fei.twitterjavaapi.exception.BadRequestException;
+
+/**
+ * Cursor of the keyset timelines: the last tweet ID of the previous page, as a string.
+ * Tweet IDs are time-sortable, so the next page is simply "id < cursor" (or "id > cursor").
+ */
+public final class IdCursor {
+
+    private IdCursor() {
+    }
+
+    // Missing cursor = first page
+    public static long parse(String cursor, long firstPage) {
+        if (cursor == null || cursor.isBlank()) return firstPage;
+        try {
+            return Long.parseLong(cursor.trim());
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    // Moves a snowflake cursor back by "millis" of ID space. Cursors smaller than that
+    // (legacy IDENTITY IDs) are returned as they are.
+    public static long rewind(long cursor, long millis) {
+        long span = millis << SnowflakeIdGenerator.TIMESTAMP_SHIFT;
+        return cursor > span ? cursor - span : cursor;
+    }
+}
@@ -0,0 +1,83 @@
+package com.fei.twitterjavaapi.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * created_at bounds for the queries that page on the tweet ID, so PostgreSQL only scans the
+ * monthly partitions of tweets (V5) that can hold the page instead of probing every one of them.
+ * <ul>
+ * <li><strong>From the cursor:</strong> A snowflake ID carries its creation time. created_at is set
+ * by the node or by the DB ({@code NOW()}), whose clocks differ a little, so the bounds are widened by
+ * {@link #MARGIN}. Legacy IDENTITY IDs carry no time: no bound.</li>
+ * <li><strong>Recent first:</strong> "id &lt; cursor" has no lower bound at all. {@link #recentFirst}
+ * reads the recent partitions first and only reads them all when that page comes up short.</li>
+ * </ul>
+ * Bounds are LocalDateTime like {@code Tweet.createdAt} (JVM zone, same as when it is written).
+ */
+public final class PartitionBounds {
+
+    // Far more than any clock difference, and still at most 1 extra partition at a month boundary
+    public static final Duration MARGIN = Duration.ofDays(1);
+
+    public static final LocalDateTime NO_LOWER_BOUND = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    // Below 1 day of ID space (~350 billion) an ID can only be a legacy IDENTITY one
+    private static final long LEGACY_ID_LIMIT = Duration.ofDays(1).toMillis() << SnowflakeIdGenerator.TIMESTAMP_SHIFT;
+
+    private PartitionBounds() {
+    }
+
+    // Lower bound of created_at for tweets with an ID above "id" (replies, "id > cursor")
+    public static LocalDateTime createdFrom(long id) {
+        if (id < LEGACY_ID_LIMIT) return NO_LOWER_BOUND;
+        return toLocal(timeOf(id).minus(MARGIN));
+    }
+
+    // Upper bound of created_at for tweets with an ID below "id" ("id < cursor", Long.MAX_VALUE = first page)
+    public static LocalDateTime createdUntil(long id) {
+        Instant now = Instant.now();
+        Instant time = id < LEGACY_ID_LIMIT ? now : timeOf(Math.min(id, firstIdAt(now)));
+        return toLocal(time.plus(MARGIN));
+    }
+
+    /**
+     * Newest-first page of "id &lt; cursor": runs {@code query(from)} over the last {@code windowDays}
+     * before {@code until} first, then over everything if that can't be the exact page.
+     * <p>
+     * The recent page is kept only when it is full and its last row is {@link #MARGIN} newer than the
+     * window: every row outside the window has a smaller ID, so the unbounded query would return the
+     * same rows.
+     *
+     * @param wanted Rows the caller fetches (page size + 1)
+     */
+    public static <T> List<T> recentFirst(LocalDateTime until, int windowDays, int wanted,
+                                          ToLongFunction<T> id, Function<LocalDateTime, List<T>> query) {
+        if (windowDays > 0) {
+            LocalDateTime from = until.minusDays(windowDays);
+            List<T> recent = query.apply(from);
+            long safeId = firstIdAt(from.plus(MARGIN).atZone(ZoneId.systemDefault()).toInstant());
+            if (recent.size() >= wanted && id.applyAsLong(recent.get(wanted - 1)) >= safeId) {
+                return recent;
+            }
+        }
+        return query.apply(NO_LOWER_BOUND);
+    }
+
+    private static Instant timeOf(long id) {
+        return Instant.ofEpochMilli(SnowflakeIdGenerator.EPOCH_MILLIS + (id >>> SnowflakeIdGenerator.TIMESTAMP_SHIFT));
+    }
+
+    private static long firstIdAt(Instant time) {
+        return Math.max(0, time.toEpochMilli() - SnowflakeIdGenerator.EPOCH_MILLIS) << SnowflakeIdGenerator.TIMESTAMP_SHIFT;
+    }
+
+    private static LocalDateTime toLocal(Instant time) {
+        return LocalDateTime.ofInstant(time, ZoneId.systemDefault());
+    }
+}
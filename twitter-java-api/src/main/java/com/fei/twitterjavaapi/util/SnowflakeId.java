@@ -0,0 +1,18 @@
+package com.fei.twitterjavaapi.util;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an entity ID as a time-sortable snowflake ID (see SnowflakeIdGenerator).
+ * Replaces @GeneratedValue: the ID is assigned in memory, so inserts still batch.
+ */
+@IdGeneratorType(SnowflakeIdentifierGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD })
+public @interface SnowflakeId {
+}
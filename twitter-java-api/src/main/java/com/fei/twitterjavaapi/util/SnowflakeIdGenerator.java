@@ -0,0 +1,199 @@
+package com.fei.twitterjavaapi.util;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-sortable tweet IDs: higher ID = newer tweet, so timelines sort and page on the PK alone.
+ * <p>
+ * Layout (53 bits, exact as a JavaScript number):
+ * <pre>
+ * | 41 bits: ms since 2024-01-01 UTC | 5 bits: node | 7 bits: sequence |
+ * </pre>
+ * <ul>
+ * <li><strong>Lock-free:</strong> (timestamp, sequence) is 1 AtomicLong updated with CAS.
+ * A full sequence carries into the next ms, and a clock going backwards keeps counting
+ * from the last value, so IDs never repeat or go down on a node.</li>
+ * <li><strong>Node:</strong> {@code app.ids.node-id}, or leased from PostgreSQL with an
+ * advisory lock held for the lifetime of the app (0-30). 31 is the DB's own {@code snowflake_id()},
+ * the column default for hand-written SQL only: the app supplies every ID itself.</li>
+ * <li><strong>Lease:</strong> Held on a dedicated connection outside the pool (a pooled one could be
+ * evicted or reset under it). Once it's lost, {@link #nextId()} fails until a node is leased again:
+ * another instance may already be using that node.</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SnowflakeIdGenerator {
+
+    public static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z (same as V7)
+
+    private static final int NODE_BITS = 5;
+    private static final int SEQUENCE_BITS = 7;
+    public static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int MAX_APP_NODE = (1 << NODE_BITS) - 2; // 31 is reserved for the DB
+
+    // pg_try_advisory_lock(namespace, node): the namespace keeps clear of other advisory locks
+    private static final int LOCK_NAMESPACE = 0x1D5;
+
+    private static volatile SnowflakeIdGenerator instance;
+
+    private final DataSourceProperties dataSourceProperties;
+
+    // -1 = lease one from PostgreSQL
+    @Value("${app.ids.node-id:-1}")
+    private int configuredNodeId;
+
+    // (ms since EPOCH << SEQUENCE_BITS) | sequence of the last ID handed out
+    private final AtomicLong state = new AtomicLong();
+    private LongSupplier clock = System::currentTimeMillis;
+    private volatile long nodeId = -1;
+    private volatile boolean leased;
+    private Connection leaseConnection;
+
+    // Used by SnowflakeIdentifierGenerator (Hibernate creates it, not Spring)
+    public static SnowflakeIdGenerator get() {
+        SnowflakeIdGenerator generator = instance;
+        if (generator == null) {
+            throw new IllegalStateException("SnowflakeIdGenerator is not initialized yet");
+        }
+        return generator;
+    }
+
+    // Fixed node, no lease, given clock (tests)
+    static SnowflakeIdGenerator forNode(int nodeId, LongSupplier clock) {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(null);
+        generator.nodeId = nodeId;
+        generator.leased = true;
+        generator.clock = clock;
+        return generator;
+    }
+
+    @PostConstruct
+    void init() {
+        if (configuredNodeId >= 0) {
+            if (configuredNodeId > MAX_APP_NODE) {
+                throw new IllegalStateException("app.ids.node-id must be between 0 and " + MAX_APP_NODE);
+            }
+            nodeId = configuredNodeId;
+            leased = true;
+        } else {
+            leaseNodeId();
+        }
+        instance = this;
+        log.info("Snowflake ID generator ready on node {}", nodeId);
+    }
+
+    public long nextId() {
+        // Read before the sequence: an ID handed out after a lost lease could be someone else's
+        if (!leased) {
+            throw new IllegalStateException("Snowflake node lease lost, no IDs until a node is leased again");
+        }
+
+        long current;
+        long next;
+        do {
+            current = state.get();
+            long now = clock.getAsLong() - EPOCH_MILLIS;
+            next = now > (current >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : current + 1;
+        } while (!state.compareAndSet(current, next));
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        return (timestamp << TIMESTAMP_SHIFT) | (nodeId << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+    }
+
+    // The lease dies with its connection (DB restart, network). Stop handing out IDs right away,
+    // then take a node again before another instance can pick up the same one.
+    @Scheduled(fixedDelayString = "${app.ids.lease-check-interval-ms:2000}")
+    public synchronized void checkLease() {
+        if (configuredNodeId >= 0) return;
+        try {
+            if (leaseConnection != null && leaseConnection.isValid(2)) return;
+        } catch (SQLException e) {
+            // Treated as lost below
+        }
+
+        if (leased) log.warn("Snowflake node {} lease lost, leasing a node again", nodeId);
+        leased = false;
+        closeLease();
+        try {
+            leaseNodeId();
+            log.info("Snowflake ID generator leased node {}", nodeId);
+        } catch (IllegalStateException e) {
+            log.warn("{}, retrying on the next lease check", e.getMessage());
+        }
+    }
+
+    private synchronized void leaseNodeId() {
+        try {
+            Connection connection = openLeaseConnection();
+            try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?, ?)")) {
+                for (int node = 0; node <= MAX_APP_NODE; node++) {
+                    statement.setInt(1, LOCK_NAMESPACE);
+                    statement.setInt(2, node);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        if (rs.next() && rs.getBoolean(1)) {
+                            leaseConnection = connection;
+                            nodeId = node;
+                            leased = true;
+                            return;
+                        }
+                    }
+                }
+            }
+            connection.close();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not lease a snowflake node ID", e);
+        }
+        throw new IllegalStateException("No free snowflake node ID (all " + (MAX_APP_NODE + 1)
+                + " are taken). Set app.ids.node-id or run fewer instances.");
+    }
+
+    // Not from the pool: the lock lives exactly as long as this session (same as PostgresSseRelay's listener)
+    private Connection openLeaseConnection() throws SQLException {
+        Properties properties = new Properties();
+        String username = dataSourceProperties.determineUsername();
+        String password = dataSourceProperties.determinePassword();
+        if (username != null) properties.setProperty("user", username);
+        if (password != null) properties.setProperty("password", password);
+        properties.setProperty("tcpKeepAlive", "true"); // A silently dropped connection must surface
+        properties.setProperty("ApplicationName", "snowflake-lease");
+
+        Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(), properties);
+        connection.setAutoCommit(true); // Session-level lock, must not end with a transaction
+        return connection;
+    }
+
+    @PreDestroy
+    synchronized void closeLease() {
+        if (leaseConnection == null) return;
+        leased = false;
+        // Closing the session releases the lock too, unlocking first just frees the node sooner
+        try (Connection connection = leaseConnection;
+             PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?, ?)")) {
+            statement.setInt(1, LOCK_NAMESPACE);
+            statement.setInt(2, (int) nodeId);
+            statement.execute();
+        } catch (SQLException e) {
+            log.debug("Closing snowflake lease connection failed: {}", e.getMessage());
+        }
+        leaseConnection = null;
+    }
+}
@@ -0,0 +1,16 @@
+/* Flyway V10: Which node holds which user's SSE stream (PostgresSseRelay) */
+
+-- Live connection state only: UNLOGGED (no WAL, not replicated, emptied after a crash),
+-- every node rebuilds its own rows on its next heartbeat.
+CREATE UNLOGGED TABLE sse_nodes (
+    node_id TEXT PRIMARY KEY,                 -- Random per process start, LISTEN channel "sse_<node_id>"
+    last_seen TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE UNLOGGED TABLE sse_connections (
+    user_id BIGINT NOT NULL,
+    node_id TEXT NOT NULL REFERENCES sse_nodes(node_id) ON DELETE CASCADE, -- Dead node = its streams are gone
+    PRIMARY KEY (user_id, node_id)
+);
+
+CREATE INDEX idx_sse_connections_node ON sse_connections(node_id);
@@ -0,0 +1,13 @@
+/* Flyway V11: Tweets on each user's screen, for live counters (EngagementStreamManager) */
+
+-- Replaced as a whole by every PUT /notifications/stream/watch. Live state only: UNLOGGED,
+-- rows not refreshed within the stream timeout are deleted (the client re-sends on reconnect).
+CREATE UNLOGGED TABLE sse_watches (
+    user_id BIGINT NOT NULL,
+    tweet_id BIGINT NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, tweet_id)
+);
+
+CREATE INDEX idx_sse_watches_tweet ON sse_watches(tweet_id);     -- Who watches the tweets that changed
+CREATE INDEX idx_sse_watches_updated ON sse_watches(updated_at); -- Expiry
@@ -0,0 +1,15 @@
+/* Flyway V2: Precomputed "Who to follow" suggestions */
+
+-- Filled by SuggestionRecomputeJob (friends-of-friends), top N per user.
+-- Read path: 1 index range scan per request instead of scanning all users.
+CREATE TABLE user_suggestions (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,           -- Who sees the suggestion
+    suggested_user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE, -- Who is suggested
+    mutual_count INT NOT NULL,                                                -- People I follow who follow them
+    score DOUBLE PRECISION NOT NULL,
+    computed_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (user_id, suggested_user_id)
+);
+
+CREATE INDEX idx_user_suggestions_user_score ON user_suggestions(user_id, score DESC);
+CREATE INDEX idx_user_suggestions_suggested ON user_suggestions(suggested_user_id); -- FK cascade on user delete
@@ -0,0 +1,8 @@
+/* Flyway V3: Soft-deleted tweets (tombstones) */
+
+-- Set when a user deletes a tweet. The tweet is hidden right away,
+-- ThreadPurgeJob removes it and its replies in small chunks afterwards.
+ALTER TABLE tweets ADD COLUMN deleted_at TIMESTAMP WITH TIME ZONE;
+
+-- Purge queue: only tombstones are indexed (tiny)
+CREATE INDEX idx_tweets_tombstones ON tweets(deleted_at) WHERE deleted_at IS NOT NULL;
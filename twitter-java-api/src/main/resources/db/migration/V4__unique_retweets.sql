@@ -0,0 +1,23 @@
+/* Flyway V4: One retweet per (user, tweet), enforced by the DB */
+
+-- Remove duplicates left by concurrent double-taps (keep the oldest retweet)
+DELETE FROM tweets a
+USING tweets b
+WHERE a.retweet_id IS NOT NULL
+  AND a.retweet_id = b.retweet_id
+  AND a.user_id = b.user_id
+  AND a.id > b.id;
+
+-- Re-sync the counters the duplicates inflated
+UPDATE tweets t
+SET retweet_count = c.cnt
+FROM (
+    SELECT retweet_id, COUNT(*) AS cnt
+    FROM tweets
+    WHERE retweet_id IS NOT NULL
+    GROUP BY retweet_id
+) c
+WHERE t.id = c.retweet_id AND t.retweet_count <> c.cnt;
+
+-- Lets RetweetService use INSERT ... ON CONFLICT DO NOTHING (idempotent retweet)
+CREATE UNIQUE INDEX uq_tweets_user_retweet ON tweets(user_id, retweet_id) WHERE retweet_id IS NOT NULL;
@@ -0,0 +1,202 @@
+/* Flyway V5: Monthly range partitions for tweets, tweet_likes and notifications (phase 1: online copy) */
+
+-- A live table can't be turned into a partitioned one without rewriting (and locking) it.
+-- This migration only creates partitioned twins ("*_p") and keeps them in sync with triggers.
+-- PartitionMigrationJob copies the existing rows in small batches, then swaps the tables.
+--
+-- Postgres rules that shape the new tables:
+--   * Unique indexes on a partitioned table must contain the partition key.
+--   * Foreign keys can't point at a partitioned table by "id" alone.
+-- So after the swap, nothing references tweets(id): ThreadPurgeJob deletes the dependent
+-- rows itself (it already walks whole threads), and retweet uniqueness moves to "retweets".
+
+
+-- 1. RETWEET CLAIMS (one row per user + original tweet, replaces uq_tweets_user_retweet)
+CREATE TABLE retweets (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    tweet_id BIGINT NOT NULL,                                     -- The original (no FK, see above)
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, tweet_id)
+);
+
+CREATE INDEX idx_retweets_tweet ON retweets(tweet_id); -- Purge cleanup
+
+INSERT INTO retweets (user_id, tweet_id, created_at)
+SELECT user_id, retweet_id, created_at FROM tweets WHERE retweet_id IS NOT NULL;
+
+
+-- 2. PARTITIONED TWINS
+CREATE TABLE tweets_p (LIKE tweets INCLUDING DEFAULTS INCLUDING GENERATED) PARTITION BY RANGE (created_at);
+ALTER TABLE tweets_p ADD PRIMARY KEY (id, created_at); -- IDs still come from tweets_id_seq (unique)
+ALTER TABLE tweets_p ADD FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
+
+CREATE INDEX idx_tweets_p_user_created ON tweets_p(user_id, created_at DESC);
+CREATE INDEX idx_tweets_p_parent ON tweets_p(parent_id);
+CREATE INDEX idx_tweets_p_retweet ON tweets_p(retweet_id);
+CREATE INDEX idx_tweets_p_created_at ON tweets_p(created_at DESC);
+CREATE INDEX idx_tweets_p_search ON tweets_p USING GIN(search_vector);
+CREATE INDEX idx_tweets_p_tombstones ON tweets_p(deleted_at) WHERE deleted_at IS NOT NULL;
+
+-- Likes are partitioned by their TWEET's month: (user_id, tweet_id) stays unique because a tweet
+-- has exactly one created_at, and likes age out together with the tweets they belong to.
+ALTER TABLE tweet_likes ADD COLUMN tweet_created_at TIMESTAMP WITH TIME ZONE; -- Filled for new likes
+
+CREATE TABLE tweet_likes_p (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    tweet_id BIGINT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    tweet_created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (user_id, tweet_id, tweet_created_at)
+) PARTITION BY RANGE (tweet_created_at);
+
+CREATE INDEX idx_tweet_likes_p_tweet ON tweet_likes_p(tweet_id); -- Purge cleanup
+
+CREATE TABLE notifications_p (LIKE notifications INCLUDING DEFAULTS) PARTITION BY RANGE (created_at);
+ALTER TABLE notifications_p ADD PRIMARY KEY (id, created_at);
+ALTER TABLE notifications_p ADD FOREIGN KEY (recipient_id) REFERENCES users(id) ON DELETE CASCADE;
+ALTER TABLE notifications_p ADD FOREIGN KEY (actor_id) REFERENCES users(id) ON DELETE CASCADE;
+
+CREATE INDEX idx_notifications_p_recipient ON notifications_p(recipient_id, created_at DESC);
+CREATE INDEX idx_notifications_p_unread ON notifications_p(recipient_id) WHERE is_read = FALSE;
+CREATE INDEX idx_notifications_p_tweet ON notifications_p(tweet_id) WHERE tweet_id IS NOT NULL; -- Purge cleanup
+
+
+-- 3. PARTITION MANAGEMENT (months are UTC)
+-- Creates "<prefix>_yYYYYmMM" for every month in [from_month, to_month] that doesn't exist yet
+CREATE OR REPLACE FUNCTION create_monthly_partitions(parent TEXT, prefix TEXT, from_month DATE, to_month DATE)
+RETURNS INT AS $$
+DECLARE
+    m DATE := date_trunc('month', from_month)::date;
+    partition_name TEXT;
+    created INT := 0;
+BEGIN
+    WHILE m <= to_month LOOP
+        partition_name := prefix || '_y' || to_char(m, 'YYYY') || 'm' || to_char(m, 'MM');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, parent,
+                           m::timestamp AT TIME ZONE 'UTC',
+                           (m + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC');
+            created := created + 1;
+        END IF;
+        m := (m + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Called by PartitionMaintenanceJob. Works before the swap ("*_p") and after it.
+CREATE OR REPLACE FUNCTION ensure_monthly_partitions(months_ahead INT)
+RETURNS INT AS $$
+DECLARE
+    base TEXT;
+    parent TEXT;
+    this_month DATE := date_trunc('month', NOW() AT TIME ZONE 'UTC')::date;
+    created INT := 0;
+BEGIN
+    FOREACH base IN ARRAY ARRAY['tweets', 'tweet_likes', 'notifications'] LOOP
+        parent := CASE WHEN to_regclass(base || '_p') IS NOT NULL THEN base || '_p' ELSE base END;
+        IF (SELECT relkind FROM pg_class WHERE oid = to_regclass(parent)) = 'p' THEN
+            created := created + create_monthly_partitions(parent, base, this_month,
+                                                           (this_month + make_interval(months => months_ahead))::date);
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Existing history + 3 months ahead. The default partitions only catch rows if the job falls behind.
+DO $$
+DECLARE
+    tweets_from DATE := date_trunc('month', COALESCE((SELECT MIN(created_at) FROM tweets), NOW()) AT TIME ZONE 'UTC')::date;
+    notifications_from DATE := date_trunc('month', COALESCE((SELECT MIN(created_at) FROM notifications), NOW()) AT TIME ZONE 'UTC')::date;
+    up_to DATE := (date_trunc('month', NOW() AT TIME ZONE 'UTC') + INTERVAL '3 months')::date;
+BEGIN
+    PERFORM create_monthly_partitions('tweets_p', 'tweets', tweets_from, up_to);
+    PERFORM create_monthly_partitions('tweet_likes_p', 'tweet_likes', tweets_from, up_to);
+    PERFORM create_monthly_partitions('notifications_p', 'notifications', notifications_from, up_to);
+END;
+$$;
+
+CREATE TABLE tweets_default PARTITION OF tweets_p DEFAULT;
+CREATE TABLE tweet_likes_default PARTITION OF tweet_likes_p DEFAULT;
+CREATE TABLE notifications_default PARTITION OF notifications_p DEFAULT;
+
+
+-- 4. MIRROR TRIGGERS (every write after this migration also lands in the twin)
+-- The backfill copies with FOR SHARE, so a concurrent UPDATE/DELETE of a row being copied
+-- waits for the copy to commit and is then applied to it by these triggers.
+CREATE OR REPLACE FUNCTION mirror_tweets() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO tweets_p (id, user_id, content, media_type, media_url, parent_id, retweet_id,
+                              reply_count, retweet_count, like_count, created_at, updated_at, deleted_at)
+        VALUES (NEW.id, NEW.user_id, NEW.content, NEW.media_type, NEW.media_url, NEW.parent_id, NEW.retweet_id,
+                NEW.reply_count, NEW.retweet_count, NEW.like_count, NEW.created_at, NEW.updated_at, NEW.deleted_at)
+        ON CONFLICT DO NOTHING;
+    ELSIF TG_OP = 'UPDATE' THEN
+        UPDATE tweets_p
+        SET user_id = NEW.user_id, content = NEW.content, media_type = NEW.media_type, media_url = NEW.media_url,
+            parent_id = NEW.parent_id, retweet_id = NEW.retweet_id, reply_count = NEW.reply_count,
+            retweet_count = NEW.retweet_count, like_count = NEW.like_count, created_at = NEW.created_at,
+            updated_at = NEW.updated_at, deleted_at = NEW.deleted_at
+        WHERE id = OLD.id AND created_at = OLD.created_at;
+    ELSE
+        DELETE FROM tweets_p WHERE id = OLD.id AND created_at = OLD.created_at;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION mirror_tweet_likes() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO tweet_likes_p (user_id, tweet_id, created_at, tweet_created_at)
+        SELECT NEW.user_id, NEW.tweet_id, NEW.created_at, COALESCE(NEW.tweet_created_at, t.created_at)
+        FROM tweets t
+        WHERE t.id = NEW.tweet_id
+        ON CONFLICT DO NOTHING;
+    ELSE
+        DELETE FROM tweet_likes_p WHERE user_id = OLD.user_id AND tweet_id = OLD.tweet_id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION mirror_notifications() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO notifications_p (id, recipient_id, actor_id, tweet_id, type, is_read, created_at)
+        VALUES (NEW.id, NEW.recipient_id, NEW.actor_id, NEW.tweet_id, NEW.type, NEW.is_read, NEW.created_at)
+        ON CONFLICT DO NOTHING;
+    ELSIF TG_OP = 'UPDATE' THEN
+        UPDATE notifications_p
+        SET recipient_id = NEW.recipient_id, actor_id = NEW.actor_id, tweet_id = NEW.tweet_id,
+            type = NEW.type, is_read = NEW.is_read, created_at = NEW.created_at
+        WHERE id = OLD.id AND created_at = OLD.created_at;
+    ELSE
+        DELETE FROM notifications_p WHERE id = OLD.id AND created_at = OLD.created_at;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_tweets_mirror AFTER INSERT OR UPDATE OR DELETE ON tweets
+    FOR EACH ROW EXECUTE FUNCTION mirror_tweets();
+CREATE TRIGGER trg_tweet_likes_mirror AFTER INSERT OR DELETE ON tweet_likes
+    FOR EACH ROW EXECUTE FUNCTION mirror_tweet_likes();
+CREATE TRIGGER trg_notifications_mirror AFTER INSERT OR UPDATE OR DELETE ON notifications
+    FOR EACH ROW EXECUTE FUNCTION mirror_notifications();
+
+
+-- 5. BACKFILL PROGRESS (the keyset position survives restarts)
+CREATE TABLE partition_migrations (
+    table_name VARCHAR(50) PRIMARY KEY,
+    last_key BIGINT NOT NULL DEFAULT 0,     -- id (tweets, notifications) / user_id (tweet_likes)
+    last_key2 BIGINT NOT NULL DEFAULT 0,    -- tweet_id (tweet_likes)
+    copied BIGINT NOT NULL DEFAULT 0,
+    finished_at TIMESTAMP WITH TIME ZONE,
+    swapped_at TIMESTAMP WITH TIME ZONE
+);
+
+INSERT INTO partition_migrations (table_name) VALUES ('tweets'), ('tweet_likes'), ('notifications');
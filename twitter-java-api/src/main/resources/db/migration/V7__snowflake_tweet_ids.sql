@@ -0,0 +1,35 @@
+/* Flyway V7: Time-sortable tweet IDs + ID-ordered timeline indexes */
+
+-- The app assigns snowflake IDs itself (SnowflakeIdGenerator). Inserts that rely on the column
+-- default (e.g. the retweet statement) get one from the DB, in the same layout:
+--   41 bits ms since 2024-01-01 UTC | 5 bits node (31 = DB) | 7 bits sequence
+-- Every new ID is far above the old serial IDs, so ID order = creation order for old rows too.
+CREATE SEQUENCE tweet_snowflake_seq MINVALUE 0 MAXVALUE 127 START 0 CYCLE;
+
+CREATE OR REPLACE FUNCTION snowflake_id() RETURNS BIGINT AS $$
+    SELECT ((FLOOR(EXTRACT(EPOCH FROM clock_timestamp()) * 1000)::BIGINT - 1704067200000) << 12)
+           | (31 << 7)
+           | nextval('tweet_snowflake_seq');
+$$ LANGUAGE sql VOLATILE;
+
+ALTER TABLE tweets ALTER COLUMN id SET DEFAULT snowflake_id();
+
+-- Timelines now page on "id < :cursor" instead of created_at (no tie-breaker column needed)
+CREATE INDEX IF NOT EXISTS idx_tweets_user_id ON tweets(user_id, id DESC);   -- Profile + following
+CREATE INDEX IF NOT EXISTS idx_tweets_parent_id ON tweets(parent_id, id);    -- Replies (oldest first)
+
+-- Superseded (by name: after the V5 swap the "_p" ones belong to tweets)
+DROP INDEX IF EXISTS idx_tweets_user_created;
+DROP INDEX IF EXISTS idx_tweets_parent;
+DROP INDEX IF EXISTS idx_tweets_p_user_created;
+DROP INDEX IF EXISTS idx_tweets_p_parent;
+
+-- Same for the partitioned twin, if PartitionMigrationJob hasn't swapped it in yet
+DO $$
+BEGIN
+    IF to_regclass('tweets_p') IS NOT NULL THEN
+        ALTER TABLE tweets_p ALTER COLUMN id SET DEFAULT snowflake_id();
+        CREATE INDEX IF NOT EXISTS idx_tweets_p_user_id ON tweets_p(user_id, id DESC);
+        CREATE INDEX IF NOT EXISTS idx_tweets_p_parent_id ON tweets_p(parent_id, id);
+    END IF;
+END $$;
@@ -0,0 +1,15 @@
+/* Flyway V8: Durable queue of blob deletions (drained by BlobDeletionWorker) */
+
+-- Requests and jobs only append here (in their own transaction, so a rolled back change never
+-- deletes a file). The worker sends them to Azure in batches of 256 and retries failures with
+-- backoff, so a failed delete is retried later instead of leaving an orphaned blob behind.
+CREATE TABLE blob_deletions (
+    id BIGSERIAL PRIMARY KEY,
+    blob_name TEXT NOT NULL,                                                -- Name inside the container
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP, -- Also the claim lease
+    last_error TEXT,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_blob_deletions_due ON blob_deletions(next_attempt_at);
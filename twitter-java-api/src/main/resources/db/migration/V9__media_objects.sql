@@ -0,0 +1,18 @@
+/* Flyway V9: Content-addressed media with reference counts */
+
+-- Uploads are keyed by the SHA-256 of their bytes: the same meme posted 1000 times is stored once.
+-- ref_count = tweets / avatars pointing at the blob (+ uploads in flight). At 0 the row is removed
+-- and the blob is queued in blob_deletions.
+--
+-- blob_name is "<sha256>-<random>.<ext>": if content comes back after its blob was deleted, the new
+-- upload gets a new name, so a deletion still waiting in the queue can never remove it.
+-- Media uploaded before V9 (UUID names) has no row here and is deleted directly when released.
+CREATE TABLE media_objects (
+    content_hash VARCHAR(64) PRIMARY KEY,             -- SHA-256, hex
+    blob_name TEXT NOT NULL UNIQUE,
+    content_type VARCHAR(100),
+    size_bytes BIGINT NOT NULL,
+    ref_count INT NOT NULL DEFAULT 0,
+    uploaded BOOLEAN NOT NULL DEFAULT FALSE,         -- FALSE until the first upload finished
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,162 @@
+package com.fei.twitterjavaapi.benchmark;
+
+import com.fei.twitterjavaapi.model.entity.Notification;
+import com.fei.twitterjavaapi.model.entity.Tweet;
+import com.fei.twitterjavaapi.model.entity.User;
+import com.fei.twitterjavaapi.model.enums.MediaType;
+import com.fei.twitterjavaapi.model.enums.NotificationType;
+import com.fei.twitterjavaapi.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Bulk insert throughput (rows/sec in the log), against a real database:
+ * <ul>
+ * <li><strong>IDENTITY:</strong> The baseline before V6, measured on a scratch table with an IDENTITY key:
+ * 1 {@code INSERT ... RETURNING id} round trip per row, which is all Hibernate can do with IDENTITY IDs.</li>
+ * <li><strong>Row by row:</strong> Pooled sequence IDs, but a flush after every persist.</li>
+ * <li><strong>Batched:</strong> Pooled sequence IDs + hibernate.jdbc.batch_size + reWriteBatchedInserts.</li>
+ * </ul>
+ * Every run is rolled back (the scratch tables are temporary), nothing is kept. Needs at least 2 users.
+ * <p>
+ * Not part of the regular test run:
+ * {@code mvn test -Dtest=InsertThroughputBenchmark -Dbenchmark=true} (DB_URL etc. as for the app).
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest
+@Slf4j
+class InsertThroughputBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 5000);
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 3);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void insertThroughput() {
+        List<User> users = userRepository.findAll(PageRequest.of(0, 2)).getContent();
+        Assumptions.assumeTrue(users.size() >= 2, "Needs at least 2 users");
+        User actor = users.get(0);
+        User recipient = users.get(1);
+
+        Function<Integer, Object> notification = i -> Notification.builder()
+                .actor(actor)
+                .recipient(recipient)
+                .type(NotificationType.FOLLOW)
+                .isRead(false)
+                .build();
+        Function<Integer, Object> tweet = i -> Tweet.builder()
+                .user(actor)
+                .content("Insert benchmark #" + i)
+                .mediaType(MediaType.NONE)
+                .build();
+
+        // Same columns as the real tables, only the key differs
+        String notificationsTable = """
+                CREATE TEMP TABLE bench_notifications (
+                    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    recipient_id BIGINT NOT NULL, actor_id BIGINT NOT NULL, tweet_id BIGINT,
+                    type VARCHAR(20) NOT NULL, is_read BOOLEAN NOT NULL DEFAULT FALSE,
+                    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+                ) ON COMMIT DROP
+                """;
+        String tweetsTable = """
+                CREATE TEMP TABLE bench_tweets (
+                    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    user_id BIGINT NOT NULL, content VARCHAR(280), media_type VARCHAR(20), media_url TEXT,
+                    parent_id BIGINT, retweet_id BIGINT,
+                    reply_count INT NOT NULL DEFAULT 0, retweet_count INT NOT NULL DEFAULT 0,
+                    like_count INT NOT NULL DEFAULT 0,
+                    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+                ) ON COMMIT DROP
+                """;
+
+        // Round 1 warms up the JIT, connection and statement caches
+        for (int round = 1; round <= ROUNDS; round++) {
+            report("notifications", round, "IDENTITY", measureIdentity(notificationsTable, """
+                    INSERT INTO bench_notifications (recipient_id, actor_id, type, is_read)
+                    VALUES (?, ?, 'FOLLOW', FALSE) RETURNING id
+                    """, recipient.getId(), actor.getId()));
+            report("notifications", round, "row by row", measure(notification, false));
+            report("notifications", round, "batched", measure(notification, true));
+
+            report("tweets", round, "IDENTITY", measureIdentity(tweetsTable, """
+                    INSERT INTO bench_tweets (user_id, content, media_type)
+                    VALUES (?, 'Insert benchmark', 'NONE') RETURNING id
+                    """, actor.getId()));
+            report("tweets", round, "row by row", measure(tweet, false));
+            report("tweets", round, "batched", measure(tweet, true));
+        }
+    }
+
+    // Elapsed nanos for "ROWS" single-row INSERTs into a scratch IDENTITY table (1 transaction, rolled back)
+    private long measureIdentity(String createTable, String insert, Object... args) {
+        Long elapsed = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(createTable);
+            long start = System.nanoTime();
+            for (int i = 0; i < ROWS; i++) {
+                jdbcTemplate.queryForObject(insert, Long.class, args);
+            }
+            long took = System.nanoTime() - start;
+
+            status.setRollbackOnly();
+            return took;
+        });
+        return elapsed != null ? elapsed : 0;
+    }
+
+    // Elapsed nanos for persisting "ROWS" entities in 1 transaction (rolled back)
+    private long measure(Function<Integer, Object> factory, boolean batched) {
+        Long elapsed = transactionTemplate.execute(status -> {
+            long start = System.nanoTime();
+            for (int i = 0; i < ROWS; i++) {
+                entityManager.persist(factory.apply(i));
+                if (!batched) {
+                    entityManager.flush();
+                }
+                // Keep the persistence context small (like a real import would)
+                if ((i + 1) % 500 == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            long took = System.nanoTime() - start;
+
+            status.setRollbackOnly();
+            entityManager.clear();
+            return took;
+        });
+        return elapsed != null ? elapsed : 0;
+    }
+
+    private void report(String table, int round, String mode, long nanos) {
+        double seconds = nanos / 1_000_000_000.0;
+        log.info("Insert benchmark [{} / round {}] {}: {} rows in {} ms -> {} rows/sec",
+                table, round, mode, ROWS, Math.round(seconds * 1000), Math.round(ROWS / seconds));
+    }
+}
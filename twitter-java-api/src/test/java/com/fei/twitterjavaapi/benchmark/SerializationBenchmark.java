@@ -0,0 +1,100 @@
+package com.fei.twitterjavaapi.benchmark;
+
+import com.fei.twitterjavaapi.model.dto.common.PageResponse;
+import com.fei.twitterjavaapi.model.dto.tweet.TweetResponse;
+import com.fei.twitterjavaapi.service.FeedService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response encoding cost: JSON vs CBOR (CborConfig) for one page of the global feed.
+ * <p>
+ * Both use the mappers the HTTP converters use. Logs bytes per page (raw and gzipped)
+ * and µs per page to write (server CPU) and to read it back into a tree (roughly what
+ * a client parser does). Needs some tweets.
+ * <p>
+ * Not part of the regular test run:
+ * {@code mvn test -Dtest=SerializationBenchmark -Dbenchmark=true} (DB_URL etc. as for the app).
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest
+@Slf4j
+class SerializationBenchmark {
+
+    private static final int PAGE_SIZE = Integer.getInteger("benchmark.page-size", 20);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 2000);
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 3);
+
+    @Autowired
+    private FeedService feedService;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private CBORMapper cborMapper;
+
+    @Test
+    void jsonVsCbor() {
+        PageResponse<TweetResponse> page = feedService.getForYouFeed(null, 0, PAGE_SIZE);
+        Assumptions.assumeFalse(page.content().isEmpty(), "The global feed is empty");
+
+        // Round 1 warms up the JIT and the mappers' serializer caches
+        for (int round = 1; round <= ROUNDS; round++) {
+            report("json", round, page.content().size(), measure(jsonMapper, page));
+            report("cbor", round, page.content().size(), measure(cborMapper, page));
+        }
+    }
+
+    private Result measure(ObjectMapper mapper, PageResponse<TweetResponse> page) {
+        byte[] bytes = mapper.writeValueAsBytes(page);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            bytes = mapper.writeValueAsBytes(page);
+        }
+        long writeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.readTree(bytes);
+        }
+        long readNanos = System.nanoTime() - start;
+
+        return new Result(bytes.length, gzippedSize(bytes), writeNanos / ITERATIONS, readNanos / ITERATIONS);
+    }
+
+    private void report(String format, int round, int tweets, Result result) {
+        log.info("Serialization benchmark [{} / round {}] {} tweets: {} bytes ({} gzipped), write {} µs, read {} µs",
+                format, round, tweets, result.bytes(), result.gzippedBytes(),
+                result.writeNanos() / 1000.0, result.readNanos() / 1000.0);
+    }
+
+    // Responses usually go out compressed: the gap that is left is what the network sees
+    private static int gzippedSize(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.size();
+    }
+
+    private record Result(int bytes, int gzippedBytes, long writeNanos, long readNanos) {
+    }
+}
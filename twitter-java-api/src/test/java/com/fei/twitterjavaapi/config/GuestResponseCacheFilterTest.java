@@ -0,0 +1,45 @@
+package com.fei.twitterjavaapi.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GuestResponseCacheFilterTest {
+
+    @Test
+    void jsonByDefault() {
+        assertFalse(prefersCbor(null));
+        assertFalse(prefersCbor("application/json"));
+        assertFalse(prefersCbor("*/*"));
+        assertFalse(prefersCbor("text/html,application/xhtml+xml,*/*;q=0.8"));
+    }
+
+    @Test
+    void cborWhenAskedFor() {
+        assertTrue(prefersCbor("application/cbor"));
+        assertTrue(prefersCbor("application/cbor, */*"));        // More specific than */*
+        assertTrue(prefersCbor("application/cbor, application/json")); // Tie: header order
+    }
+
+    @Test
+    void qualityWins() {
+        assertTrue(prefersCbor("application/json;q=0.5, application/cbor"));
+        assertFalse(prefersCbor("application/cbor;q=0.5, application/json"));
+        assertFalse(prefersCbor("application/cbor;q=0.1, */*"));
+    }
+
+    @Test
+    void invalidHeaderIsJson() {
+        assertFalse(prefersCbor("application/cbor;q=abc"));
+        assertFalse(prefersCbor("cbor"));
+    }
+
+    private static boolean prefersCbor(String accept) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/feeds/for-you");
+        if (accept != null) request.addHeader(HttpHeaders.ACCEPT, accept);
+        return GuestResponseCacheFilter.prefersCbor(request);
+    }
+}
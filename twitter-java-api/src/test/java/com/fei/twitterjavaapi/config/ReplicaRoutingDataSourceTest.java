@@ -0,0 +1,108 @@
+package com.fei.twitterjavaapi.config;
+
+import com.fei.twitterjavaapi.model.entity.User;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private static final String REPLICA = "replica-1";
+
+    private final HikariDataSource replica = mock(HikariDataSource.class);
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        when(replica.getPoolName()).thenReturn(REPLICA);
+        routing = new ReplicaRoutingDataSource(mock(DataSource.class), List.of(replica), 2000, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void readsGoToAHealthyReplica() throws SQLException {
+        replicaLag(0);
+
+        assertEquals(REPLICA, lookupKey(true));
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, lookupKey(false));
+    }
+
+    @Test
+    void laggingReplicaIsSkipped() throws SQLException {
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, lookupKey(true)); // Not probed yet
+
+        replicaLag(5000);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, lookupKey(true));
+    }
+
+    @Test
+    void writerReadsFromThePrimaryAfterCommit() throws SQLException {
+        replicaLag(0);
+        signIn(1L);
+
+        // Write, then commit
+        TransactionSynchronizationManager.initSynchronization();
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, lookupKey(false));
+        assertEquals(REPLICA, lookupKey(true)); // Not committed yet
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, lookupKey(true));
+
+        // Someone else, or no one (e.g. a thread without the SecurityContext): replica
+        signIn(2L);
+        assertEquals(REPLICA, lookupKey(true));
+        SecurityContextHolder.clearContext();
+        assertEquals(REPLICA, lookupKey(true));
+    }
+
+    private Object lookupKey(boolean readOnly) {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+        return routing.determineCurrentLookupKey();
+    }
+
+    private void replicaLag(double lagMs) throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(replica.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getDouble(1)).thenReturn(lagMs);
+        routing.checkReplicas();
+    }
+
+    private static void signIn(long userId) {
+        User user = User.builder().id(userId).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+}
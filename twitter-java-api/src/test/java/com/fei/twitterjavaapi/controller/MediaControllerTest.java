@@ -0,0 +1,65 @@
+package com.fei.twitterjavaapi.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MediaControllerTest {
+
+    private static final long SIZE = 1000;
+    private static final long[] WHOLE_FILE = new long[0];
+
+    @Test
+    void parsesClosedAndOpenRanges() {
+        assertArrayEquals(new long[] { 0, 499 }, MediaController.parseRange("bytes=0-499", SIZE));
+        assertArrayEquals(new long[] { 500, 999 }, MediaController.parseRange("bytes=500-", SIZE));
+        assertArrayEquals(new long[] { 999, 999 }, MediaController.parseRange("bytes=999-999", SIZE));
+    }
+
+    @Test
+    void clampsTheEndToTheFile() {
+        assertArrayEquals(new long[] { 900, 999 }, MediaController.parseRange("bytes=900-5000", SIZE));
+    }
+
+    @Test
+    void parsesSuffixRanges() {
+        assertArrayEquals(new long[] { 500, 999 }, MediaController.parseRange("bytes=-500", SIZE));
+        // Longer than the file: the whole file
+        assertArrayEquals(new long[] { 0, 999 }, MediaController.parseRange("bytes=-5000", SIZE));
+    }
+
+    @Test
+    void unsatisfiableRangesAre416() {
+        assertNull(MediaController.parseRange("bytes=500-100", SIZE)); // start > end
+        assertNull(MediaController.parseRange("bytes=1000-", SIZE));   // start past the end
+        assertNull(MediaController.parseRange("bytes=-0", SIZE));      // empty suffix
+        assertNull(MediaController.parseRange("bytes=0-", 0));         // empty file
+    }
+
+    @Test
+    void unsupportedRangesServeTheWholeFile() {
+        assertArrayEquals(WHOLE_FILE, MediaController.parseRange("bytes=0-1,5-9", SIZE));
+        assertArrayEquals(WHOLE_FILE, MediaController.parseRange("items=0-1", SIZE));
+        assertArrayEquals(WHOLE_FILE, MediaController.parseRange("bytes=abc", SIZE));
+        assertArrayEquals(WHOLE_FILE, MediaController.parseRange("bytes=a-b", SIZE));
+    }
+
+    @Test
+    void etagMatchesExactAndWeak() {
+        assertTrue(MediaController.etagMatches("\"abc\"", "\"abc\""));
+        assertTrue(MediaController.etagMatches("W/\"abc\"", "\"abc\""));
+        assertTrue(MediaController.etagMatches("\"abc\"", "W/\"abc\""));
+        assertTrue(MediaController.etagMatches("\"x\", \"abc\"", "\"abc\""));
+        assertTrue(MediaController.etagMatches("*", "\"abc\""));
+    }
+
+    @Test
+    void etagMismatches() {
+        assertFalse(MediaController.etagMatches("\"other\"", "\"abc\""));
+        assertFalse(MediaController.etagMatches(null, "\"abc\""));
+        assertFalse(MediaController.etagMatches("\"abc\"", null));
+    }
+}
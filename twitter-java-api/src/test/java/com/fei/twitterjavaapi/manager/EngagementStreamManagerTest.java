@@ -0,0 +1,264 @@
+package com.fei.twitterjavaapi.manager;
+
+import com.fei.twitterjavaapi.controller.NotificationController;
+import com.fei.twitterjavaapi.exception.GlobalExceptionHandler;
+import com.fei.twitterjavaapi.manager.EngagementStreamManager.EngagementCounts;
+import com.fei.twitterjavaapi.model.entity.User;
+import com.fei.twitterjavaapi.model.event.SseBroadcastEvent;
+import com.fei.twitterjavaapi.support.PostgresTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Live counters: the watch endpoint fills sse_watches (V11), a flush sends the current counts of the
+ * changed tweets to the watchers streaming on this node, and the changed IDs reach the other nodes.
+ */
+@DataJpaTest
+@Import({ EngagementStreamManager.class, EngagementStreamManagerTest.Json.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Watches and counters are committed, like in a request
+class EngagementStreamManagerTest extends PostgresTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @TestConfiguration
+    static class Json {
+        @Bean
+        JsonMapper jsonMapper() {
+            return JsonMapper.builder().build();
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private EngagementStreamManager engagementStreamManager;
+
+    @MockitoBean
+    private SseManager sseManager;
+
+    @MockitoBean
+    private SseRelay sseRelay;
+
+    @AfterEach
+    void clearPrincipal() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void watchEndpointReplacesTheWatchedTweets() throws Exception {
+        User viewer = user();
+        MockMvc mvc = watchEndpoint(viewer);
+
+        mvc.perform(watch("[1, 2, 2, 3]")).andExpect(status().isNoContent());
+        assertEquals(Set.of(1L, 2L, 3L), watched(viewer));
+
+        mvc.perform(watch("[3, 4]")).andExpect(status().isNoContent());
+        assertEquals(Set.of(3L, 4L), watched(viewer));
+
+        mvc.perform(watch("[]")).andExpect(status().isNoContent()); // Empty = stop
+        assertEquals(Set.of(), watched(viewer));
+    }
+
+    @Test
+    void watchEndpointRejectsTooManyTweets() throws Exception {
+        User viewer = user();
+        MockMvc mvc = watchEndpoint(viewer);
+        String ids = LongStream.rangeClosed(1, 101).mapToObj(Long::toString).collect(Collectors.joining(",", "[", "]"));
+
+        mvc.perform(watch(ids)).andExpect(status().isBadRequest());
+        mvc.perform(watch("{}")).andExpect(status().isBadRequest()); // No tweetIds
+        assertEquals(Set.of(), watched(viewer));
+    }
+
+    @Test
+    void flushSendsCurrentCountsToLocalWatchers() {
+        long tweet = tweet(3, 2, 1);
+        long other = tweet(0, 0, 0);
+        User watcher = user();
+        User elsewhere = user(); // Watches, but streams on another node
+        User notWatching = user();
+        engagementStreamManager.watch(watcher.getId(), List.of(tweet, other));
+        engagementStreamManager.watch(elsewhere.getId(), List.of(tweet));
+        streaming(watcher, notWatching);
+
+        engagementStreamManager.record(tweet);
+        engagementStreamManager.flush();
+
+        verify(sseManager).sendLocal(watcher.getId(), EngagementStreamManager.EVENT_NAME,
+                List.of(new EngagementCounts(tweet, 3, 2, 1))); // Not "other": unchanged
+        verify(sseManager, never()).sendLocal(eq(elsewhere.getId()), any(), any());
+        verify(sseManager, never()).sendLocal(eq(notWatching.getId()), any(), any());
+    }
+
+    @Test
+    void countsAreAbsoluteSoNothingIsAppliedTwice() {
+        long tweet = tweet(0, 0, 0);
+        User watcher = user();
+        engagementStreamManager.watch(watcher.getId(), List.of(tweet));
+        streaming(watcher);
+
+        // 2 likes in the same second, 1 event; nothing changed since, no event
+        setLikes(tweet, 1);
+        engagementStreamManager.record(tweet);
+        setLikes(tweet, 2);
+        engagementStreamManager.record(tweet);
+        engagementStreamManager.flush();
+        engagementStreamManager.flush();
+
+        // Then an unlike: the event holds the new total, not -1
+        setLikes(tweet, 1);
+        engagementStreamManager.record(tweet);
+        engagementStreamManager.flush();
+
+        verify(sseManager, times(2)).sendLocal(anyLong(), any(), any());
+        verify(sseManager).sendLocal(watcher.getId(), EngagementStreamManager.EVENT_NAME,
+                List.of(new EngagementCounts(tweet, 2, 0, 0)));
+        verify(sseManager).sendLocal(watcher.getId(), EngagementStreamManager.EVENT_NAME,
+                List.of(new EngagementCounts(tweet, 1, 0, 0)));
+    }
+
+    @Test
+    void deletedTweetsAreNotSent() {
+        long tweet = tweet(5, 0, 0);
+        User watcher = user();
+        engagementStreamManager.watch(watcher.getId(), List.of(tweet));
+        streaming(watcher);
+        jdbcTemplate.update("UPDATE tweets SET deleted_at = NOW() WHERE id = ?", tweet);
+
+        engagementStreamManager.record(tweet);
+        engagementStreamManager.flush();
+
+        verify(sseManager, never()).sendLocal(anyLong(), any(), any());
+    }
+
+    @Test
+    void changesReachWatchersOnOtherNodes() {
+        long tweet = tweet(7, 1, 0);
+        User watcher = user();
+        engagementStreamManager.watch(watcher.getId(), List.of(tweet));
+
+        // This node: nobody streams here, the changed ID still goes out
+        engagementStreamManager.record(tweet);
+        engagementStreamManager.flush();
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(sseRelay).broadcast(eq("engagement_changed"), payload.capture());
+        verify(sseManager, never()).sendLocal(anyLong(), any(), any());
+
+        // The other node, where the watcher streams: receives the IDs, reads the counts itself
+        SseManager otherStreams = mock(SseManager.class);
+        SseRelay otherRelay = mock(SseRelay.class);
+        when(otherStreams.localUserIds()).thenReturn(Set.of(watcher.getId()));
+        EngagementStreamManager otherNode = new EngagementStreamManager(otherStreams, otherRelay, jdbcTemplate, jsonMapper);
+
+        otherNode.onBroadcast(new SseBroadcastEvent("engagement_changed", jsonMapper.writeValueAsString(payload.getValue())));
+        otherNode.onBroadcast(new SseBroadcastEvent("engagement_changed", "not json")); // Dropped
+        otherNode.flush();
+
+        verify(otherStreams).sendLocal(watcher.getId(), EngagementStreamManager.EVENT_NAME,
+                List.of(new EngagementCounts(tweet, 7, 1, 0)));
+        verify(otherRelay, never()).broadcast(any(), any()); // Received IDs are not sent back out
+    }
+
+    @Test
+    void manyChangesAreBroadcastInChunks() {
+        for (long id = 1; id <= 301; id++) engagementStreamManager.record(id);
+
+        engagementStreamManager.flush();
+
+        verify(sseRelay, times(2)).broadcast(eq("engagement_changed"), any());
+    }
+
+    @Test
+    void staleWatchesExpire() {
+        User stale = user();
+        User fresh = user();
+        engagementStreamManager.watch(stale.getId(), List.of(1L));
+        engagementStreamManager.watch(fresh.getId(), List.of(1L));
+        jdbcTemplate.update("UPDATE sse_watches SET updated_at = NOW() - INTERVAL '1 day' WHERE user_id = ?", stale.getId());
+
+        engagementStreamManager.expireWatches();
+
+        assertEquals(Set.of(), watched(stale));
+        assertEquals(Set.of(1L), watched(fresh));
+    }
+
+    private MockMvc watchEndpoint(User viewer) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(viewer, null, List.of()));
+        return MockMvcBuilders.standaloneSetup(new NotificationController(null, sseManager, engagementStreamManager))
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    private static RequestBuilder watch(String tweetIds) {
+        String body = tweetIds.startsWith("{") ? tweetIds : "{\"tweetIds\": " + tweetIds + "}";
+        return put("/api/v1/notifications/stream/watch").contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+
+    private void streaming(User... users) {
+        when(sseManager.localUserIds()).thenReturn(Arrays.stream(users).map(User::getId).collect(Collectors.toSet()));
+    }
+
+    private Set<Long> watched(User user) {
+        return Set.copyOf(jdbcTemplate.queryForList("SELECT tweet_id FROM sse_watches WHERE user_id = ?", Long.class, user.getId()));
+    }
+
+    private void setLikes(long tweetId, int likes) {
+        jdbcTemplate.update("UPDATE tweets SET like_count = ? WHERE id = ?", likes, tweetId);
+    }
+
+    private User user() {
+        String username = "watcher_" + SEQUENCE.incrementAndGet();
+        Long id = jdbcTemplate.queryForObject("INSERT INTO users (username, email, provider) VALUES (?, ?, 'LOCAL') RETURNING id",
+                Long.class, username, username + "@example.com");
+        return User.builder().id(id).build();
+    }
+
+    private long tweet(int likes, int retweets, int replies) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO tweets (user_id, content, media_type, like_count, retweet_count, reply_count)
+                VALUES (?, 'hello', 'NONE', ?, ?, ?) RETURNING id
+                """, Long.class, user().getId(), likes, retweets, replies);
+    }
+}
@@ -0,0 +1,169 @@
+package com.fei.twitterjavaapi.manager;
+
+import com.fei.twitterjavaapi.manager.LiveTimelineManager.NewTweets;
+import com.fei.twitterjavaapi.model.entity.User;
+import com.fei.twitterjavaapi.model.event.SseBroadcastEvent;
+import com.fei.twitterjavaapi.model.event.TweetCreatedEvent;
+import com.fei.twitterjavaapi.model.event.UserRetweetedEvent;
+import com.fei.twitterjavaapi.support.PostgresTest;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * "N new tweets": committed timeline posts reach the followers streaming on this node as 1
+ * {@code new_tweets} event per flush, and the other nodes through the author broadcast.
+ */
+@DataJpaTest
+@Import({ LiveTimelineManager.class, LiveTimelineManagerTest.Json.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Posts are published in their own committed transaction
+class LiveTimelineManagerTest extends PostgresTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @TestConfiguration
+    static class Json {
+        @Bean
+        JsonMapper jsonMapper() {
+            return JsonMapper.builder().build();
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LiveTimelineManager liveTimelineManager;
+
+    @MockitoBean
+    private SseManager sseManager;
+
+    @MockitoBean
+    private SseRelay sseRelay;
+
+    @Test
+    void followerStreamingHereGetsOneEventPerFlush() {
+        User author = user();
+        User retweeter = user();
+        User follower = user();
+        User stranger = user();
+        follow(follower, author);
+        follow(follower, retweeter);
+        streaming(follower, stranger);
+
+        // 2 tweets + 1 retweet within the same second: 1 event with the sum
+        committed(tweetBy(author));
+        committed(tweetBy(author));
+        committed(new UserRetweetedEvent(retweeter, 1L, author.getId()));
+        liveTimelineManager.flush();
+        liveTimelineManager.flush(); // Nothing new: no event
+
+        verify(sseManager, times(1)).sendLocal(anyLong(), any(), any());
+        verify(sseManager).sendLocal(follower.getId(), LiveTimelineManager.EVENT_NAME, new NewTweets(3));
+        verify(sseManager, never()).sendLocal(eq(stranger.getId()), any(), any());
+    }
+
+    @Test
+    void repliesAndRolledBackPostsAreNotCounted() {
+        User author = user();
+        User follower = user();
+        follow(follower, author);
+        streaming(follower);
+
+        committed(new TweetCreatedEvent(1L, author.getId(), 42L, "a reply", LocalDateTime.now()));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            events.publishEvent(tweetBy(author));
+            status.setRollbackOnly();
+        });
+        liveTimelineManager.flush();
+
+        verify(sseManager, never()).sendLocal(anyLong(), any(), any());
+    }
+
+    @Test
+    void authorsReachFollowersOnOtherNodes() {
+        User author = user();
+        User follower = user();
+        follow(follower, author);
+
+        // This node: nobody streams here, the author still goes out
+        committed(tweetBy(author));
+        liveTimelineManager.flush();
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(sseRelay).broadcast(eq("timeline_authors"), payload.capture());
+        verify(sseManager, never()).sendLocal(anyLong(), any(), any());
+
+        // The other node, where the follower streams
+        SseManager otherStreams = mock(SseManager.class);
+        SseRelay otherRelay = mock(SseRelay.class);
+        when(otherStreams.localUserIds()).thenReturn(Set.of(follower.getId()));
+        LiveTimelineManager otherNode = new LiveTimelineManager(otherStreams, otherRelay, jdbcTemplate, jsonMapper);
+
+        otherNode.onBroadcast(new SseBroadcastEvent("timeline_authors", jsonMapper.writeValueAsString(payload.getValue())));
+        otherNode.onBroadcast(new SseBroadcastEvent("timeline_authors", "not json")); // Dropped
+        otherNode.flush();
+
+        verify(otherStreams).sendLocal(follower.getId(), LiveTimelineManager.EVENT_NAME, new NewTweets(1));
+        verify(otherRelay, never()).broadcast(any(), any()); // Received authors are not sent back out
+    }
+
+    // Published in a transaction that commits, like TweetService / RetweetService do
+    private void committed(Object event) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> events.publishEvent(event));
+    }
+
+    private static TweetCreatedEvent tweetBy(User author) {
+        return new TweetCreatedEvent(1L, author.getId(), null, "hello", LocalDateTime.now());
+    }
+
+    private void streaming(User... users) {
+        when(sseManager.localUserIds()).thenReturn(Arrays.stream(users).map(User::getId).collect(Collectors.toSet()));
+    }
+
+    private void follow(User follower, User followed) {
+        jdbcTemplate.update("INSERT INTO follows (follower_id, following_id) VALUES (?, ?)", follower.getId(), followed.getId());
+    }
+
+    private User user() {
+        String username = "live_" + SEQUENCE.incrementAndGet();
+        Long id = jdbcTemplate.queryForObject("INSERT INTO users (username, email, provider) VALUES (?, ?, 'LOCAL') RETURNING id",
+                Long.class, username, username + "@example.com");
+        return User.builder().id(id).build();
+    }
+}
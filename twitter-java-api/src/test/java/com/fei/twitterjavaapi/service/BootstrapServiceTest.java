@@ -0,0 +1,139 @@
+package com.fei.twitterjavaapi.service;
+
+import com.fei.twitterjavaapi.manager.SnapshotManager;
+import com.fei.twitterjavaapi.model.dto.bootstrap.BootstrapResponse;
+import com.fei.twitterjavaapi.model.dto.common.PageResponse;
+import com.fei.twitterjavaapi.model.dto.user.UserResponse;
+import com.fei.twitterjavaapi.model.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BootstrapServiceTest {
+
+    private static final long PART_TIMEOUT_MS = 300;
+
+    private final AuthService authService = mock(AuthService.class);
+    private final FeedService feedService = mock(FeedService.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final DiscoveryService discoveryService = mock(DiscoveryService.class);
+    private final SnapshotManager snapshotManager = mock(SnapshotManager.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final User user = User.builder().id(7L).build();
+
+    private BootstrapService bootstrapService;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        // Normal mode: snapshots always load live
+        when(snapshotManager.get(anyString(), any())).thenAnswer(invocation -> {
+            Supplier<?> loader = invocation.getArgument(1);
+            return loader.get();
+        });
+
+        when(authService.getCurrentUser(user)).thenReturn(mock(UserResponse.class));
+        when(notificationService.countUnread(user)).thenReturn(3L);
+        when(feedService.getForYouFeed(any(), anyInt(), anyInt())).thenReturn(mock(PageResponse.class));
+        when(discoveryService.getTrendingHashtags(anyInt())).thenReturn(List.of());
+        when(discoveryService.getSuggestedUsers(any(), anyInt(), anyInt())).thenReturn(mock(PageResponse.class));
+
+        bootstrapService = new BootstrapService(authService, feedService, notificationService, discoveryService,
+                snapshotManager, new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(bootstrapService, "partTimeoutMs", PART_TIMEOUT_MS);
+        ReflectionTestUtils.setField(bootstrapService, "maxConnections", 5);
+        bootstrapService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void loadsEveryPart() {
+        BootstrapResponse response = bootstrapService.load(user);
+
+        assertNotNull(response.me());
+        assertNotNull(response.feed());
+        assertEquals(3L, response.unreadCount());
+        assertNotNull(response.trending());
+        assertNotNull(response.suggestions());
+        assertTrue(response.unavailable().isEmpty());
+    }
+
+    @Test
+    void slowPartIsLeftOutAtTheDeadline() {
+        when(discoveryService.getTrendingHashtags(anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return List.of();
+        });
+
+        long start = System.nanoTime();
+        BootstrapResponse response = bootstrapService.load(user);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < PART_TIMEOUT_MS + 500, "Waited " + elapsedMs + " ms for a slow part");
+        assertNull(response.trending());
+        assertEquals(List.of("trending"), response.unavailable());
+        assertNotNull(response.feed());
+    }
+
+    @Test
+    void failingPartIsLeftOut() {
+        when(notificationService.countUnread(user)).thenThrow(new IllegalStateException("DB down"));
+
+        BootstrapResponse response = bootstrapService.load(user);
+
+        assertNull(response.unreadCount());
+        assertEquals(List.of("unreadCount"), response.unavailable());
+    }
+
+    @Test
+    void partWithoutAConnectionPermitIsLeftOut() {
+        ReflectionTestUtils.setField(bootstrapService, "maxConnections", 0);
+        bootstrapService.init();
+
+        BootstrapResponse response = bootstrapService.load(user);
+
+        assertEquals(List.of("me", "feed", "unreadCount", "trending", "suggestions"), response.unavailable());
+    }
+
+    @Test
+    void partsRunWithTheCallersSecurityContext() {
+        // What ReplicaRoutingDataSource reads for read-your-writes
+        Authentication auth = new UsernamePasswordAuthenticationToken(user, null, List.of());
+        SecurityContextHolder.getContext().setAuthentication(auth);
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+        when(feedService.getForYouFeed(any(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            seen.set(SecurityContextHolder.getContext().getAuthentication());
+            return mock(PageResponse.class);
+        });
+
+        bootstrapService.load(user);
+
+        assertSame(auth, seen.get());
+    }
+}
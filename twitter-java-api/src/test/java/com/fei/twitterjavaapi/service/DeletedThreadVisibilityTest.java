@@ -0,0 +1,140 @@
+package com.fei.twitterjavaapi.service;
+
+import com.fei.twitterjavaapi.exception.ResourceNotFoundException;
+import com.fei.twitterjavaapi.mapper.TweetMapper;
+import com.fei.twitterjavaapi.model.dto.tweet.ConversationResponse;
+import com.fei.twitterjavaapi.model.dto.tweet.TweetResponse;
+import com.fei.twitterjavaapi.model.entity.Tweet;
+import com.fei.twitterjavaapi.model.projection.RankedTweetProjection;
+import com.fei.twitterjavaapi.repository.TweetRepository;
+import com.fei.twitterjavaapi.support.PostgresTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Deleting a tweet tombstones only that tweet: its replies are hidden at read time by the parent's
+ * tombstone until ThreadPurgeJob removes them.
+ */
+@DataJpaTest
+class DeletedThreadVisibilityTest extends PostgresTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TweetRepository tweetRepository;
+
+    private final TweetMapper tweetMapper = mock(TweetMapper.class);
+
+    private long root;
+    private long reply;
+    private long nested;
+    private long unrelated;
+
+    @BeforeEach
+    void deletedThread() {
+        long author = user();
+        root = tweet(author, null, "needle root #haystack");
+        reply = tweet(author, root, "needle reply #haystack");
+        nested = tweet(author, reply, "needle nested");
+        unrelated = tweet(author, null, "needle elsewhere #haystack");
+        jdbcTemplate.update("UPDATE tweets SET deleted_at = NOW() WHERE id = ?", root);
+
+        when(tweetMapper.toResponseList(anyList(), any())).thenAnswer(invocation -> {
+            List<Tweet> tweets = invocation.getArgument(0);
+            return tweets.stream().map(t -> response(t.getId())).toList();
+        });
+    }
+
+    @Test
+    void repliesToADeletedTweetAreNotFound() {
+        assertTrue(tweetRepository.findVisibleById(reply).isEmpty());
+        assertFalse(tweetRepository.existsVisibleById(reply));
+        assertTrue(tweetRepository.findVisibleById(unrelated).isPresent());
+
+        // 1 level down the parent is still there: reachable by ID until the purge gets to it
+        assertTrue(tweetRepository.existsVisibleById(nested));
+    }
+
+    @Test
+    void searchLeavesThemOut() {
+        Set<Long> expected = Set.of(nested, unrelated);
+
+        assertEquals(expected, ids(tweetRepository.searchTweets("needle", PageRequest.of(0, 10)).getContent()));
+        assertEquals(2, tweetRepository.searchTweets("needle", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(expected, tweetRepository.searchTweetsRanked("needle", Instant.EPOCH, Instant.now(), 100,
+                        Double.MAX_VALUE, Long.MAX_VALUE, 10).stream()
+                .map(RankedTweetProjection::getId).collect(Collectors.toSet()));
+
+        assertEquals(Set.of(unrelated), ids(tweetRepository.findTweetsByHashtag("haystack", PageRequest.of(0, 10)).getContent()));
+        assertEquals(Set.of(unrelated), ids(tweetRepository.findTweetsByHashtagBefore("haystack", Long.MAX_VALUE,
+                LocalDateTime.of(1970, 1, 1, 0, 0), LocalDateTime.now().plusDays(1), PageRequest.of(0, 10))));
+
+        // Hydration of index hits / conversation nodes
+        assertEquals(expected, ids(tweetRepository.findAllWithAuthorsByIdIn(List.of(root, reply, nested, unrelated))));
+    }
+
+    @Test
+    void conversationsBelowADeletedTweetAreNotFound() {
+        ConversationService conversations = new ConversationService(tweetRepository, tweetMapper, 50, 10, 100);
+
+        assertThrows(ResourceNotFoundException.class, () -> conversations.getConversation(null, reply, 3, 10));
+        assertThrows(ResourceNotFoundException.class, () -> conversations.getConversation(null, nested, 3, 10));
+
+        long liveRoot = tweet(user(), null, "still here");
+        long liveReply = tweet(user(), liveRoot, "me too");
+        ConversationResponse conversation = conversations.getConversation(null, liveReply, 3, 10);
+        assertEquals(List.of(liveRoot), conversation.ancestors().stream().map(TweetResponse::id).toList());
+    }
+
+    private static Set<Long> ids(List<Tweet> tweets) {
+        return tweets.stream().map(Tweet::getId).collect(Collectors.toSet());
+    }
+
+    private static TweetResponse response(Long id) {
+        return new TweetResponse(id, null, null, null, null, 0, 0, 0, false, false, null, null, null, null);
+    }
+
+    private long user() {
+        String username = "thread_" + SEQUENCE.incrementAndGet();
+        return jdbcTemplate.queryForObject("INSERT INTO users (username, email, provider) VALUES (?, ?, 'LOCAL') RETURNING id",
+                Long.class, username, username + "@example.com");
+    }
+
+    private long tweet(long author, Long parentId, String content) {
+        long id = jdbcTemplate.queryForObject("""
+                INSERT INTO tweets (user_id, parent_id, content, media_type) VALUES (?, ?, ?, 'NONE') RETURNING id
+                """, Long.class, author, parentId, content);
+        for (String word : content.split(" ")) {
+            if (!word.startsWith("#")) continue;
+            Long hashtag = jdbcTemplate.queryForObject("""
+                    INSERT INTO hashtags (text) VALUES (?)
+                    ON CONFLICT (text) DO UPDATE SET usage_count = hashtags.usage_count + 1 RETURNING id
+                    """, Long.class, word.substring(1));
+            jdbcTemplate.update("INSERT INTO tweet_hashtags (tweet_id, hashtag_id) VALUES (?, ?)", id, hashtag);
+        }
+        return id;
+    }
+}
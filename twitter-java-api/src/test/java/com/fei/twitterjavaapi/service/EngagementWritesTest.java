@@ -0,0 +1,288 @@
+package com.fei.twitterjavaapi.service;
+
+import com.fei.twitterjavaapi.exception.ResourceNotFoundException;
+import com.fei.twitterjavaapi.manager.EngagementStreamManager;
+import com.fei.twitterjavaapi.mapper.UserMapper;
+import com.fei.twitterjavaapi.model.entity.User;
+import com.fei.twitterjavaapi.support.PostgresTest;
+import com.fei.twitterjavaapi.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Like / follow / retweet are each 1 writable-CTE statement (insert or delete + counters).
+ * Repeating one is a no-op, undoing a missing one is a no-op, an unknown target is a 404,
+ * and the counters always match the rows, also when the same request races with itself.
+ */
+@DataJpaTest
+@Import({ SnowflakeIdGenerator.class, LikeService.class, RetweetService.class, UserService.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Each service call commits, like a request
+class EngagementWritesTest extends PostgresTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    private static final long MISSING = 999_999_999L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private RetweetService retweetService;
+
+    @Autowired
+    private UserService userService;
+
+    @MockitoBean
+    private EngagementStreamManager engagementStreamManager;
+
+    @MockitoBean
+    private FileStorageService fileStorageService;
+
+    @MockitoBean
+    private MediaObjectService mediaObjectService;
+
+    @MockitoBean
+    private UserMapper userMapper;
+
+    @Test
+    void likeIsIdempotent() {
+        User author = user();
+        User fan = user();
+        long tweet = tweet(author);
+
+        likeService.likeTweet(fan, tweet);
+        likeService.likeTweet(fan, tweet);
+
+        assertEquals(1, likeCount(tweet));
+        assertEquals(1, likeRows(tweet));
+        verify(engagementStreamManager, times(1)).record(tweet);
+
+        likeService.unlikeTweet(fan, tweet);
+        likeService.unlikeTweet(fan, tweet);
+
+        assertEquals(0, likeCount(tweet));
+        assertEquals(0, likeRows(tweet));
+        verify(engagementStreamManager, times(2)).record(tweet);
+    }
+
+    @Test
+    void unlikeWithoutALikeChangesNothing() {
+        User author = user();
+        long tweet = tweet(author);
+        likeService.likeTweet(user(), tweet);
+
+        likeService.unlikeTweet(user(), tweet);
+        likeService.unlikeTweet(user(), MISSING); // No 404: nothing to undo either way
+
+        assertEquals(1, likeCount(tweet));
+        assertEquals(1, likeRows(tweet));
+    }
+
+    @Test
+    void likingAMissingOrDeletedTweetIsNotFound() {
+        User fan = user();
+        long deleted = tweet(user());
+        jdbcTemplate.update("UPDATE tweets SET deleted_at = NOW() WHERE id = ?", deleted);
+
+        assertThrows(ResourceNotFoundException.class, () -> likeService.likeTweet(fan, MISSING));
+        assertThrows(ResourceNotFoundException.class, () -> likeService.likeTweet(fan, deleted));
+        assertEquals(0, likeCount(deleted));
+        assertEquals(0, likeRows(deleted));
+        verify(engagementStreamManager, never()).record(anyLong());
+    }
+
+    @Test
+    void followIsIdempotent() {
+        User follower = user();
+        User followed = user();
+
+        userService.followUser(follower, followed.getId());
+        userService.followUser(follower, followed.getId());
+
+        assertFollowCounts(follower, followed, 1);
+
+        userService.unfollowUser(follower, followed.getId());
+        userService.unfollowUser(follower, followed.getId());
+
+        assertFollowCounts(follower, followed, 0);
+    }
+
+    @Test
+    void unfollowWithoutAFollowChangesNothing() {
+        User follower = user();
+        User followed = user();
+        userService.followUser(follower, followed.getId());
+
+        userService.unfollowUser(user(), followed.getId());
+        userService.unfollowUser(follower, MISSING);
+
+        assertFollowCounts(follower, followed, 1);
+    }
+
+    @Test
+    void followingAMissingUserIsNotFound() {
+        User follower = user();
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.followUser(follower, MISSING));
+        assertEquals(0, count("SELECT following_count FROM users WHERE id = ?", follower.getId()));
+    }
+
+    @Test
+    void retweetIsIdempotentAndTargetsTheOriginal() {
+        User author = user();
+        User fan = user();
+        long tweet = tweet(author);
+
+        retweetService.retweet(fan, tweet);
+        retweetService.retweet(fan, tweet);
+        retweetService.retweet(fan, retweetOf(user(), tweet)); // Retweet of a retweet = the original
+
+        assertEquals(2, retweetCount(tweet)); // fan + the other retweeter
+        assertEquals(1, count("SELECT COUNT(*) FROM tweets WHERE user_id = ? AND retweet_id = ?", fan.getId(), tweet));
+        assertEquals(1, count("SELECT COUNT(*) FROM retweets WHERE user_id = ? AND tweet_id = ?", fan.getId(), tweet));
+
+        retweetService.unretweet(fan, tweet);
+        retweetService.unretweet(fan, tweet);
+
+        assertEquals(1, retweetCount(tweet));
+        assertEquals(0, count("SELECT COUNT(*) FROM tweets WHERE user_id = ? AND retweet_id = ?", fan.getId(), tweet));
+        assertEquals(0, count("SELECT COUNT(*) FROM retweets WHERE user_id = ? AND tweet_id = ?", fan.getId(), tweet));
+    }
+
+    @Test
+    void unretweetWithoutARetweetChangesNothing() {
+        User author = user();
+        long tweet = tweet(author);
+        retweetService.retweet(user(), tweet);
+
+        retweetService.unretweet(user(), tweet);
+
+        assertEquals(1, retweetCount(tweet));
+    }
+
+    @Test
+    void retweetingAMissingTweetIsNotFound() {
+        User fan = user();
+
+        assertThrows(ResourceNotFoundException.class, () -> retweetService.retweet(fan, MISSING));
+        assertThrows(ResourceNotFoundException.class, () -> retweetService.unretweet(fan, MISSING));
+        assertEquals(0, count("SELECT COUNT(*) FROM tweets WHERE user_id = ?", fan.getId()));
+    }
+
+    @Test
+    void doubleTapsRacingEachOtherCountOnce() throws Exception {
+        User author = user();
+        User fan = user();
+        long liked = tweet(author);
+        long retweeted = tweet(author);
+
+        race(8, i -> likeService.likeTweet(fan, liked));
+        race(8, i -> retweetService.retweet(fan, retweeted));
+        race(8, i -> userService.followUser(fan, author.getId()));
+
+        assertEquals(1, likeCount(liked));
+        assertEquals(likeRows(liked), likeCount(liked));
+        assertEquals(1, retweetCount(retweeted));
+        assertEquals(count("SELECT COUNT(*) FROM tweets WHERE retweet_id = ?", retweeted), retweetCount(retweeted));
+        assertFollowCounts(fan, author, 1);
+    }
+
+    @Test
+    void manyUsersRacingCountEveryOne() throws Exception {
+        long tweet = tweet(user());
+        List<User> fans = new ArrayList<>();
+        for (int i = 0; i < 8; i++) fans.add(user());
+
+        race(8, i -> likeService.likeTweet(fans.get((int) i), tweet));
+        race(8, i -> likeService.unlikeTweet(fans.get((int) i % 4), tweet));
+
+        assertEquals(4, likeCount(tweet));
+        assertEquals(likeRows(tweet), likeCount(tweet));
+    }
+
+    // Runs the calls at the same time (each on its own connection and transaction)
+    private static void race(int threads, LongConsumer call) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                long index = i;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    call.accept(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        }
+    }
+
+    private void assertFollowCounts(User follower, User followed, int expected) {
+        assertEquals(expected, count("SELECT COUNT(*) FROM follows WHERE follower_id = ? AND following_id = ?",
+                follower.getId(), followed.getId()));
+        assertEquals(expected, count("SELECT following_count FROM users WHERE id = ?", follower.getId()));
+        assertEquals(expected, count("SELECT followers_count FROM users WHERE id = ?", followed.getId()));
+    }
+
+    private int likeCount(long tweetId) {
+        return count("SELECT like_count FROM tweets WHERE id = ?", tweetId);
+    }
+
+    private int likeRows(long tweetId) {
+        return count("SELECT COUNT(*) FROM tweet_likes WHERE tweet_id = ?", tweetId);
+    }
+
+    private int retweetCount(long tweetId) {
+        return count("SELECT retweet_count FROM tweets WHERE id = ?", tweetId);
+    }
+
+    private int count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, args);
+    }
+
+    private User user() {
+        String username = "engagement_" + SEQUENCE.incrementAndGet();
+        Long id = jdbcTemplate.queryForObject("INSERT INTO users (username, email, provider) VALUES (?, ?, 'LOCAL') RETURNING id",
+                Long.class, username, username + "@example.com");
+        return User.builder().id(id).build();
+    }
+
+    private long tweet(User author) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO tweets (user_id, content, media_type) VALUES (?, 'hello', 'NONE') RETURNING id
+                """, Long.class, author.getId());
+    }
+
+    private long retweetOf(User user, long tweetId) {
+        retweetService.retweet(user, tweetId);
+        return jdbcTemplate.queryForObject("SELECT id FROM tweets WHERE user_id = ? AND retweet_id = ?",
+                Long.class, user.getId(), tweetId);
+    }
+}
@@ -0,0 +1,111 @@
+package com.fei.twitterjavaapi.service;
+
+import com.fei.twitterjavaapi.exception.BadRequestException;
+import com.fei.twitterjavaapi.mapper.TweetMapper;
+import com.fei.twitterjavaapi.model.dto.common.CursorResponse;
+import com.fei.twitterjavaapi.model.dto.tweet.TweetResponse;
+import com.fei.twitterjavaapi.model.entity.Tweet;
+import com.fei.twitterjavaapi.model.entity.User;
+import com.fei.twitterjavaapi.repository.TweetRepository;
+import com.fei.twitterjavaapi.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FeedServiceTest {
+
+    private static final long OVERLAP_MS = 5_000;
+    private static final long HEAD_MS = 1_000_000;
+
+    private final TweetRepository tweetRepository = mock(TweetRepository.class);
+    private final TweetMapper tweetMapper = mock(TweetMapper.class);
+    private final FeedService feedService = new FeedService(tweetRepository, tweetMapper);
+    private final User user = User.builder().id(1L).build();
+
+    // The following timeline, oldest first
+    private final List<Tweet> timeline = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(feedService, "sinceOverlapMs", OVERLAP_MS);
+
+        // Same contract as the query: id > cursor, ascending, at most the page size
+        when(tweetRepository.findFollowingTimelineAfter(anyLong(), anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    long cursor = invocation.getArgument(1);
+                    Pageable pageable = invocation.getArgument(3);
+                    return timeline.stream()
+                            .filter(t -> t.getId() > cursor)
+                            .limit(pageable.getPageSize())
+                            .toList();
+                });
+        when(tweetMapper.toResponseCursor(anyList(), anyInt(), any(User.class))).thenCallRealMethod();
+        when(tweetMapper.toResponseList(anyList(), any(User.class))).thenAnswer(invocation -> {
+            List<Tweet> tweets = invocation.getArgument(0);
+            return tweets.stream().map(t -> response(t.getId())).toList();
+        });
+    }
+
+    @Test
+    void pagesThroughAnOverlapWindowLargerThanAPage() {
+        // 25 tweets committed late, inside the overlap window before the client's head
+        for (int i = 0; i < 25; i++) {
+            timeline.add(Tweet.builder().id(idAt(HEAD_MS - 4_000 + i * 100L)).build());
+        }
+        long head = idAt(HEAD_MS);
+        timeline.add(Tweet.builder().id(head).build());
+
+        List<Long> seen = new ArrayList<>();
+        CursorResponse<TweetResponse> page = feedService.getFollowingTimelineSince(user, String.valueOf(head), null, 10);
+        page.content().forEach(t -> seen.add(t.id()));
+        int calls = 1;
+        while (!page.last()) {
+            assertTrue(calls++ < 10, "Paging did not reach the end");
+            page = feedService.getFollowingTimelineSince(user, String.valueOf(head), page.nextCursor(), 10);
+            page.content().forEach(t -> seen.add(t.id()));
+        }
+
+        assertEquals(timeline.stream().map(Tweet::getId).toList(), seen);
+        assertEquals(3, calls);
+    }
+
+    @Test
+    void headOnlyRewindsByTheOverlap() {
+        timeline.add(Tweet.builder().id(idAt(HEAD_MS - OVERLAP_MS - 1)).build()); // Before the window
+        timeline.add(Tweet.builder().id(idAt(HEAD_MS - 1_000)).build());
+        long head = idAt(HEAD_MS);
+
+        CursorResponse<TweetResponse> page = feedService.getFollowingTimelineSince(user, String.valueOf(head), null, 10);
+
+        assertEquals(List.of(idAt(HEAD_MS - 1_000)), page.content().stream().map(TweetResponse::id).toList());
+        assertTrue(page.last());
+    }
+
+    @Test
+    void requiresCursorOrAfter() {
+        assertThrows(BadRequestException.class, () -> feedService.getFollowingTimelineSince(user, null, " ", 10));
+    }
+
+    private static TweetResponse response(long id) {
+        return new TweetResponse(id, null, null, null, null, 0, 0, 0, false, false, null, null, null, null);
+    }
+
+    private static long idAt(long millis) {
+        return millis << SnowflakeIdGenerator.TIMESTAMP_SHIFT;
+    }
+}
@@ -0,0 +1,331 @@
+package com.fei.twitterjavaapi.service;
+
+import com.fei.twitterjavaapi.mapper.TweetMapper;
+import com.fei.twitterjavaapi.model.dto.common.CursorResponse;
+import com.fei.twitterjavaapi.model.dto.tweet.TweetResponse;
+import com.fei.twitterjavaapi.model.entity.Tweet;
+import com.fei.twitterjavaapi.model.entity.User;
+import com.fei.twitterjavaapi.model.projection.ConversationNodeProjection;
+import com.fei.twitterjavaapi.repository.TweetRepository;
+import com.fei.twitterjavaapi.search.TweetSearchEngine;
+import com.fei.twitterjavaapi.support.PostgresTest;
+import com.fei.twitterjavaapi.util.PartitionBounds;
+import com.fei.twitterjavaapi.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+/**
+ * V5 end to end: history copied by the backfill, later writes mirrored by the triggers, the swap,
+ * partition maintenance, then the created_at-bounded reads against the partitioned tables.
+ * The swap can't be undone, so the tests run in order on their own database.
+ */
+@DataJpaTest(properties = {
+        "app.partitioning.recent-window-days=7",
+        "app.search.candidate-limit=2"
+})
+@Import({ SnowflakeIdGenerator.class, FeedService.class, TweetSearchEngine.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // The job commits batch by batch, like in production
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class PartitionMigrationJobTest extends PostgresTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TweetRepository tweetRepository;
+
+    @Autowired
+    private FeedService feedService;
+
+    @Autowired
+    private TweetSearchEngine tweetSearchEngine;
+
+    @MockitoBean
+    private TweetMapper tweetMapper;
+
+    private final Instant now = Instant.now();
+
+    @BeforeEach
+    void setUp() {
+        when(tweetMapper.toResponseCursor(anyList(), anyInt(), any())).thenCallRealMethod();
+        when(tweetMapper.toResponseList(anyList(), any())).thenAnswer(invocation -> {
+            List<Tweet> tweets = invocation.getArgument(0);
+            return tweets.stream().map(t -> new TweetResponse(t.getId(), null, null, null, null, 0, 0, 0,
+                    false, false, null, null, null, null)).toList();
+        });
+    }
+
+    @Test
+    @Order(1)
+    void backfillsMirrorsAndSwaps() {
+        // 1. History: rows written before V5 (the twins start empty)
+        long author = user("history_author");
+        long reader = user("history_reader");
+        long current = tweet(author, null, "this month", now.minus(1, ChronoUnit.HOURS));
+        long lastMonth = tweet(author, null, "last month", now.minus(40, ChronoUnit.DAYS));
+        long lastYear = tweet(author, null, "last year", now.minus(400, ChronoUnit.DAYS));
+        long reply = tweet(reader, current, "a reply", now.minus(30, ChronoUnit.MINUTES));
+        long legacy = legacyTweet(author, now.minus(700, ChronoUnit.DAYS));
+        jdbcTemplate.update("INSERT INTO tweet_likes (user_id, tweet_id) VALUES (?, ?), (?, ?), (?, ?)",
+                reader, current, reader, lastMonth, author, reply);
+        jdbcTemplate.update("INSERT INTO notifications (recipient_id, actor_id, tweet_id, type) VALUES (?, ?, ?, 'LIKE')",
+                author, reader, current);
+        jdbcTemplate.execute("TRUNCATE tweets_p, tweet_likes_p, notifications_p");
+
+        // 2. Backfill only (batches of 2: several batches per table)
+        job(false).migrate();
+
+        assertEquals(5L, count("tweets_p"));
+        assertEquals(3L, count("tweet_likes_p"));
+        assertEquals(1L, count("notifications_p"));
+        assertEquals(0L, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM partition_migrations WHERE finished_at IS NULL", Long.class));
+        assertEquals(5L, jdbcTemplate.queryForObject(
+                "SELECT copied FROM partition_migrations WHERE table_name = 'tweets'", Long.class));
+        assertEquals("tweets_default", partitionOf("tweets_p", lastYear)); // No partition that far back
+        assertEquals(monthPartition("tweets", day(now.minus(1, ChronoUnit.HOURS))), partitionOf("tweets_p", current));
+
+        // 3. Writes after the backfill reach the twins through the triggers
+        long added = tweet(author, null, "after the backfill", now);
+        jdbcTemplate.update("UPDATE tweets SET like_count = 7, deleted_at = NOW() WHERE id = ?", lastMonth);
+        jdbcTemplate.update("DELETE FROM tweet_likes WHERE user_id = ? AND tweet_id = ?", author, reply);
+        jdbcTemplate.update("INSERT INTO tweet_likes (user_id, tweet_id) VALUES (?, ?)", author, lastYear);
+        jdbcTemplate.update("DELETE FROM tweets WHERE id = ?", legacy);
+        jdbcTemplate.update("UPDATE notifications SET is_read = TRUE");
+
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tweets_p WHERE id = ?", Long.class, added));
+        assertEquals(7, jdbcTemplate.queryForObject("SELECT like_count FROM tweets_p WHERE id = ?", Integer.class, lastMonth));
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tweets_p WHERE id = ?", Long.class, legacy));
+        assertEquals(jdbcTemplate.queryForObject(
+                        "SELECT created_at FROM tweets WHERE id = ?", Timestamp.class, lastYear),
+                jdbcTemplate.queryForObject(
+                        "SELECT tweet_created_at FROM tweet_likes_p WHERE user_id = ? AND tweet_id = ?", Timestamp.class, author, lastYear));
+        assertEquals(3L, count("tweet_likes_p"));
+        assertTrue(jdbcTemplate.queryForObject("SELECT bool_and(is_read) FROM notifications_p", Boolean.class));
+
+        // 4. Maintenance targets the twins until the swap
+        jdbcTemplate.queryForObject("SELECT ensure_monthly_partitions(4)", Integer.class);
+        assertEquals("tweets_p", parentOf(monthPartition("tweets", day(now).plusMonths(4))));
+
+        // 5. Swap
+        job(true).migrate();
+
+        assertEquals("p", jdbcTemplate.queryForObject("SELECT relkind::text FROM pg_class WHERE relname = 'tweets'", String.class));
+        assertNull(jdbcTemplate.queryForObject("SELECT to_regclass('tweets_p')::text", String.class));
+        assertNotNull(jdbcTemplate.queryForObject("SELECT to_regclass('tweets_legacy')::text", String.class));
+        assertNotNull(jdbcTemplate.queryForObject(
+                "SELECT swapped_at FROM partition_migrations WHERE table_name = 'tweets'", Timestamp.class));
+        assertEquals(0L, jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM (
+                    (SELECT id, like_count, deleted_at, created_at FROM tweets EXCEPT SELECT id, like_count, deleted_at, created_at FROM tweets_legacy)
+                    UNION ALL
+                    (SELECT id, like_count, deleted_at, created_at FROM tweets_legacy EXCEPT SELECT id, like_count, deleted_at, created_at FROM tweets)
+                ) diff
+                """, Long.class));
+        assertEquals(count("tweet_likes_legacy"), count("tweet_likes"));
+        assertEquals(count("notifications_legacy"), count("notifications"));
+
+        // 6. Writes now go to the partitions directly (legacy tables are frozen)
+        long afterSwap = tweet(author, null, "after the swap", now);
+        assertEquals(monthPartition("tweets", day(now)), partitionOf("tweets", afterSwap));
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tweets_legacy WHERE id = ?", Long.class, afterSwap));
+
+        // 7. Maintenance keeps creating months ahead on the swapped tables
+        PartitionMaintenanceJob maintenance = new PartitionMaintenanceJob(jdbcTemplate);
+        ReflectionTestUtils.setField(maintenance, "monthsAhead", 6);
+        maintenance.createUpcomingPartitions();
+        for (String table : List.of("tweets", "tweet_likes", "notifications")) {
+            assertEquals(table, parentOf(monthPartition(table, day(now).plusMonths(6))));
+        }
+    }
+
+    @Test
+    @Order(2)
+    void boundedReadsFindTweetsInEveryPartition() {
+        job(true).migrate(); // Already swapped by the first test (no-op), unless it runs alone
+
+        long viewer = user("viewer");
+        long author = user("author");
+        jdbcTemplate.update("INSERT INTO follows (follower_id, following_id) VALUES (?, ?)", viewer, author);
+
+        // Newest first. created_at is a little off the ID's time on some rows (another clock set it).
+        List<Long> timeline = new ArrayList<>();
+        timeline.add(tweet(author, null, "partition one hour", now.minus(1, ChronoUnit.HOURS)));
+        timeline.add(tweet(author, null, "partition two hours", now.minus(2, ChronoUnit.HOURS), Duration.ofSeconds(-30)));
+        timeline.add(tweet(author, null, "partition three days", now.minus(3, ChronoUnit.DAYS), Duration.ofSeconds(30)));
+        timeline.add(tweet(author, null, "partition twenty days", now.minus(20, ChronoUnit.DAYS)));
+        timeline.add(tweet(author, null, "partition hundred days", now.minus(100, ChronoUnit.DAYS)));
+        timeline.add(legacyTweet(author, now.minus(700, ChronoUnit.DAYS)));
+
+        User viewerUser = User.builder().id(viewer).build();
+
+        // 1. Following + profile, newest first: recent window, then widened
+        assertEquals(timeline, pageThrough(cursor -> feedService.getFollowingTimelineByCursor(viewerUser, cursor, 2)));
+        assertEquals(timeline, pageThrough(cursor -> feedService.getUserTweetsByCursor(viewerUser, author, cursor, 2)));
+
+        // 2. Since the client's head: the newer ones, oldest first (the head itself is in the overlap window)
+        CursorResponse<TweetResponse> since = feedService.getFollowingTimelineSince(
+                viewerUser, String.valueOf(timeline.get(3)), null, 10);
+        assertEquals(timeline.subList(0, 4).reversed(), since.content().stream().map(TweetResponse::id).toList());
+
+        // 3. Replies: from the parent's time on, also under a legacy parent
+        long parent = timeline.get(4);
+        long legacyParent = timeline.get(5);
+        long reply = tweet(viewer, parent, "reply", now.minus(90, ChronoUnit.DAYS));
+        long lateReply = tweet(viewer, parent, "late reply", now.minus(1, ChronoUnit.DAYS));
+        long legacyReply = tweet(viewer, legacyParent, "reply to legacy", now.minus(600, ChronoUnit.DAYS));
+        long nested = tweet(author, reply, "nested", now.minus(89, ChronoUnit.DAYS));
+
+        assertEquals(List.of(reply, lateReply), tweetRepository
+                .findAllByParentIdAndIdGreaterThanAndCreatedAtGreaterThanEqualOrderByIdAsc(
+                        parent, 0L, PartitionBounds.createdFrom(parent), PageRequest.of(0, 10))
+                .stream().map(Tweet::getId).toList());
+        assertEquals(List.of(legacyReply), tweetRepository
+                .findAllByParentIdAndCreatedAtGreaterThanEqual(
+                        legacyParent, PartitionBounds.createdFrom(legacyParent), PageRequest.of(0, 10))
+                .stream().map(Tweet::getId).toList());
+
+        // 4. Conversation: walks up and down across months
+        List<ConversationNodeProjection> skeleton = tweetRepository.findConversationSkeleton(reply, 10, 5, 10);
+        assertEquals(List.of(parent, reply, nested), skeleton.stream().map(ConversationNodeProjection::getId).toList());
+
+        // 5. #tag timeline
+        long tag = jdbcTemplate.queryForObject("INSERT INTO hashtags (text) VALUES ('partitioned') RETURNING id", Long.class);
+        for (long id : timeline) {
+            jdbcTemplate.update("INSERT INTO tweet_hashtags (tweet_id, hashtag_id) VALUES (?, ?)", id, tag);
+        }
+        List<Long> tagged = new ArrayList<>();
+        long before = Long.MAX_VALUE;
+        while (true) {
+            long cursor = before;
+            List<Tweet> page = PartitionBounds.recentFirst(PartitionBounds.createdUntil(cursor), 7, 3, Tweet::getId,
+                    from -> tweetRepository.findTweetsByHashtagBefore("PARTITIONED", cursor, from,
+                            PartitionBounds.createdUntil(cursor), PageRequest.of(0, 3)));
+            page.stream().limit(2).map(Tweet::getId).forEach(tagged::add);
+            if (page.size() <= 2) break;
+            before = page.get(1).getId();
+        }
+        assertEquals(timeline, tagged);
+
+        // 6. Ranked search: candidate limit 2, so "partition" fits the recent window, "hundred" needs all
+        assertEquals(Set.of(timeline.get(0), timeline.get(1)),
+                Set.copyOf(tweetSearchEngine.search("partition", null, 10).ids()));
+        assertEquals(List.of(timeline.get(4)), tweetSearchEngine.search("hundred", null, 10).ids());
+    }
+
+    private List<Long> pageThrough(Function<String, CursorResponse<TweetResponse>> load) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        for (int calls = 0; calls < 20; calls++) {
+            CursorResponse<TweetResponse> page = load.apply(cursor);
+            page.content().forEach(t -> ids.add(t.id()));
+            if (page.last()) return ids;
+            cursor = page.nextCursor();
+        }
+        throw new AssertionError("Paging did not reach the end");
+    }
+
+    private PartitionMigrationJob job(boolean cutover) {
+        PartitionMigrationJob job = new PartitionMigrationJob(jdbcTemplate, transactionTemplate);
+        ReflectionTestUtils.setField(job, "batchSize", 2);
+        ReflectionTestUtils.setField(job, "pauseMs", 0L);
+        ReflectionTestUtils.setField(job, "cutover", cutover);
+        ReflectionTestUtils.setField(job, "lockTimeout", "5s");
+        return job;
+    }
+
+    private long user(String name) {
+        String username = name + "_" + SEQUENCE.incrementAndGet();
+        return jdbcTemplate.queryForObject("INSERT INTO users (username, email, provider) VALUES (?, ?, 'LOCAL') RETURNING id",
+                Long.class, username, username + "@example.com");
+    }
+
+    private long tweet(long userId, Long parentId, String content, Instant createdAt) {
+        return tweet(userId, parentId, content, createdAt, Duration.ZERO);
+    }
+
+    // ID from the node's clock, created_at from another one ("skew" apart)
+    private long tweet(long userId, Long parentId, String content, Instant idTime, Duration skew) {
+        long id = ((idTime.toEpochMilli() - SnowflakeIdGenerator.EPOCH_MILLIS) << SnowflakeIdGenerator.TIMESTAMP_SHIFT)
+                | (SEQUENCE.incrementAndGet() & 0x7F);
+        insertTweet(id, userId, parentId, content, idTime.plus(skew));
+        return id;
+    }
+
+    // Serial ID from before V7: says nothing about the time
+    private long legacyTweet(long userId, Instant createdAt) {
+        long id = 1000 + SEQUENCE.incrementAndGet();
+        insertTweet(id, userId, null, "legacy partition", createdAt);
+        return id;
+    }
+
+    private void insertTweet(long id, long userId, Long parentId, String content, Instant createdAt) {
+        jdbcTemplate.update("""
+                INSERT INTO tweets (id, user_id, parent_id, content, media_type, created_at, updated_at)
+                VALUES (?, ?, ?, ?, 'NONE', ?, ?)
+                """, id, userId, parentId, content, Timestamp.from(createdAt), Timestamp.from(createdAt));
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    private String partitionOf(String table, long id) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM " + table + " WHERE id = ?", String.class, id);
+    }
+
+    private String parentOf(String partition) {
+        return jdbcTemplate.queryForObject("""
+                SELECT inhparent::regclass::text FROM pg_inherits WHERE inhrelid = to_regclass(?)
+                """, String.class, partition);
+    }
+
+    // Months are UTC (V5)
+    private static LocalDate day(Instant time) {
+        return LocalDate.ofInstant(time, ZoneOffset.UTC);
+    }
+
+    private static String monthPartition(String table, LocalDate day) {
+        return table + "_" + DateTimeFormatter.ofPattern("'y'yyyy'm'MM").format(day);
+    }
+}
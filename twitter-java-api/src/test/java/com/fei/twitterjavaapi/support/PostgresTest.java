@@ -0,0 +1,75 @@
+package com.fei.twitterjavaapi.support;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Base of the tests that need a real PostgreSQL (partitions, triggers, writable CTEs, LISTEN/NOTIFY).
+ * <ul>
+ * <li><strong>TEST_DB_URL</strong> set (e.g. {@code jdbc:postgresql://localhost:5432/postgres}, with
+ * TEST_DB_USER / TEST_DB_PASSWORD): that server is used.</li>
+ * <li>Otherwise a PostgreSQL container, when Docker is available.</li>
+ * <li>Neither: skipped.</li>
+ * </ul>
+ * Each test context gets a new database, migrated by Flyway from V1 like a fresh deployment.
+ * Run only these with {@code mvn test -Dgroups=integration}.
+ */
+@Tag("integration")
+@EnabledIf("com.fei.twitterjavaapi.support.PostgresTest#available")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public abstract class PostgresTest {
+
+    private static final String SERVER_URL = System.getenv("TEST_DB_URL");
+    private static PostgreSQLContainer container;
+
+    static boolean available() {
+        return SERVER_URL != null || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws SQLException {
+        String serverUrl = SERVER_URL;
+        String user = System.getenv().getOrDefault("TEST_DB_USER", "postgres");
+        String password = System.getenv().getOrDefault("TEST_DB_PASSWORD", "");
+        if (serverUrl == null) {
+            PostgreSQLContainer postgres = container();
+            serverUrl = postgres.getJdbcUrl();
+            user = postgres.getUsername();
+            password = postgres.getPassword();
+        }
+
+        String name = "twitter_test_" + UUID.randomUUID().toString().replace("-", "");
+        try (Connection connection = DriverManager.getConnection(serverUrl, user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + name);
+        }
+
+        String url = serverUrl.replaceFirst("/[^/?]*(\\?|$)", "/" + name + "$1");
+        String username = user;
+        String secret = password;
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> username);
+        registry.add("spring.datasource.password", () -> secret);
+        registry.add("app.ids.node-id", () -> 0); // No lease connection
+    }
+
+    // 1 container for the whole run (stopped by Testcontainers at JVM exit)
+    private static synchronized PostgreSQLContainer container() {
+        if (container == null) {
+            container = new PostgreSQLContainer("postgres:16-alpine");
+            container.start();
+        }
+        return container;
+    }
+}
@@ -0,0 +1,46 @@
+package com.fei.twitterjavaapi.util;
+
+import com.fei.twitterjavaapi.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdCursorTest {
+
+    @Test
+    void missingCursorIsTheFirstPage() {
+        assertEquals(Long.MAX_VALUE, IdCursor.parse(null, Long.MAX_VALUE));
+        assertEquals(0L, IdCursor.parse("", 0L));
+        assertEquals(0L, IdCursor.parse("   ", 0L));
+    }
+
+    @Test
+    void parsesTheId() {
+        assertEquals(123456789012345L, IdCursor.parse("123456789012345", 0L));
+        assertEquals(42L, IdCursor.parse(" 42 ", 0L));
+    }
+
+    @Test
+    void rejectsAnythingElse() {
+        assertThrows(BadRequestException.class, () -> IdCursor.parse("abc", 0L));
+        assertThrows(BadRequestException.class, () -> IdCursor.parse("12.5", 0L));
+        assertThrows(BadRequestException.class, () -> IdCursor.parse("99999999999999999999", 0L));
+    }
+
+    @Test
+    void rewindMovesBackByMillisecondsOfIdSpace() {
+        long cursor = (1_000_000L << SnowflakeIdGenerator.TIMESTAMP_SHIFT) | 77;
+
+        long rewound = IdCursor.rewind(cursor, 5_000);
+
+        assertEquals(995_000L, rewound >>> SnowflakeIdGenerator.TIMESTAMP_SHIFT);
+        assertEquals(77, rewound & ((1 << SnowflakeIdGenerator.TIMESTAMP_SHIFT) - 1));
+    }
+
+    @Test
+    void rewindLeavesLegacyIdsAlone() {
+        assertEquals(1234L, IdCursor.rewind(1234L, 5_000));
+        assertEquals(0L, IdCursor.rewind(0L, 5_000));
+    }
+}
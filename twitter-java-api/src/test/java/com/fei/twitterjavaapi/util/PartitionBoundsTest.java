@@ -0,0 +1,104 @@
+package com.fei.twitterjavaapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionBoundsTest {
+
+    private static final Instant TIME = Instant.parse("2026-03-15T12:00:00Z");
+
+    @Test
+    void boundsComeFromTheIdTimeWithAMargin() {
+        long id = idAt(TIME) | 42;
+
+        assertEquals(local(TIME.minus(PartitionBounds.MARGIN)), PartitionBounds.createdFrom(id));
+        assertEquals(local(TIME.plus(PartitionBounds.MARGIN)), PartitionBounds.createdUntil(id));
+    }
+
+    @Test
+    void legacyIdsGiveNoLowerBound() {
+        assertEquals(PartitionBounds.NO_LOWER_BOUND, PartitionBounds.createdFrom(0L));
+        assertEquals(PartitionBounds.NO_LOWER_BOUND, PartitionBounds.createdFrom(123_456_789L));
+    }
+
+    @Test
+    void firstPageEndsAfterNow() {
+        LocalDateTime until = PartitionBounds.createdUntil(Long.MAX_VALUE);
+        LocalDateTime expected = local(Instant.now().plus(PartitionBounds.MARGIN));
+
+        assertTrue(Duration.between(until, expected).abs().toSeconds() < 5);
+        assertEquals(until.withNano(0), PartitionBounds.createdUntil(1234L).withNano(0)); // Legacy cursor: same
+    }
+
+    @Test
+    void recentPageIsKeptWhenFullAndClearOfTheWindowEdge() {
+        LocalDateTime until = local(TIME);
+        List<LocalDateTime> queried = new ArrayList<>();
+        Function<LocalDateTime, List<Long>> query = from -> {
+            queried.add(from);
+            return List.of(idAt(TIME.minus(Duration.ofHours(1))), idAt(TIME.minus(Duration.ofDays(2))));
+        };
+
+        List<Long> page = PartitionBounds.recentFirst(until, 7, 2, id -> id, query);
+
+        assertEquals(2, page.size());
+        assertEquals(List.of(until.minusDays(7)), queried);
+    }
+
+    @Test
+    void shortRecentPageIsReadAgainOverEverything() {
+        LocalDateTime until = local(TIME);
+        List<LocalDateTime> queried = new ArrayList<>();
+
+        PartitionBounds.recentFirst(until, 7, 3, id -> id, from -> {
+            queried.add(from);
+            return List.of(idAt(TIME.minus(Duration.ofHours(1))));
+        });
+
+        assertEquals(List.of(until.minusDays(7), PartitionBounds.NO_LOWER_BOUND), queried);
+    }
+
+    @Test
+    void fullPageTooCloseToTheWindowEdgeIsReadAgain() {
+        // Its last row is within the margin of the window start: an older row could have a bigger ID
+        LocalDateTime until = local(TIME);
+        List<LocalDateTime> queried = new ArrayList<>();
+
+        PartitionBounds.recentFirst(until, 7, 2, id -> id, from -> {
+            queried.add(from);
+            return List.of(idAt(TIME.minus(Duration.ofHours(1))), idAt(TIME.minus(Duration.ofDays(7)).plusSeconds(60)));
+        });
+
+        assertEquals(List.of(until.minusDays(7), PartitionBounds.NO_LOWER_BOUND), queried);
+    }
+
+    @Test
+    void noWindowReadsEverything() {
+        List<LocalDateTime> queried = new ArrayList<>();
+
+        PartitionBounds.recentFirst(local(TIME), 0, 2, id -> id, from -> {
+            queried.add(from);
+            return List.<Long>of();
+        });
+
+        assertEquals(List.of(PartitionBounds.NO_LOWER_BOUND), queried);
+    }
+
+    private static long idAt(Instant time) {
+        return (time.toEpochMilli() - SnowflakeIdGenerator.EPOCH_MILLIS) << SnowflakeIdGenerator.TIMESTAMP_SHIFT;
+    }
+
+    private static LocalDateTime local(Instant time) {
+        return LocalDateTime.ofInstant(time, ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,85 @@
+package com.fei.twitterjavaapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final long T = SnowflakeIdGenerator.EPOCH_MILLIS + 1_000_000L;
+
+    @Test
+    void idsAreStrictlyIncreasing() {
+        AtomicLong clock = new AtomicLong(T);
+        SnowflakeIdGenerator generator = SnowflakeIdGenerator.forNode(3, clock::get);
+
+        long previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            if (i % 50 == 0) clock.incrementAndGet();
+            long id = generator.nextId();
+            assertTrue(id > previous, "ID " + i + " went down");
+            previous = id;
+        }
+    }
+
+    @Test
+    void layoutIsTimestampNodeSequence() {
+        SnowflakeIdGenerator generator = SnowflakeIdGenerator.forNode(5, () -> T);
+
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        assertEquals(T - SnowflakeIdGenerator.EPOCH_MILLIS, timestampOf(first));
+        assertEquals(5, nodeOf(first));
+        assertEquals(0, sequenceOf(first));
+        assertEquals(1, sequenceOf(second));
+    }
+
+    @Test
+    void fullSequenceCarriesIntoTheNextMillisecond() {
+        SnowflakeIdGenerator generator = SnowflakeIdGenerator.forNode(1, () -> T);
+
+        long last = 0;
+        for (int i = 0; i < 128; i++) {
+            last = generator.nextId();
+        }
+        assertEquals(127, sequenceOf(last));
+
+        long carried = generator.nextId();
+        assertEquals(timestampOf(last) + 1, timestampOf(carried));
+        assertEquals(0, sequenceOf(carried));
+        assertEquals(1, nodeOf(carried));
+    }
+
+    @Test
+    void clockGoingBackwardsKeepsCounting() {
+        AtomicLong clock = new AtomicLong(T);
+        SnowflakeIdGenerator generator = SnowflakeIdGenerator.forNode(2, clock::get);
+        long before = generator.nextId();
+
+        clock.set(T - 5_000); // NTP step back
+        long during = generator.nextId();
+        assertTrue(during > before);
+        assertEquals(timestampOf(before), timestampOf(during));
+
+        clock.set(T + 1); // Real time catches up
+        long after = generator.nextId();
+        assertTrue(after > during);
+        assertEquals(T + 1 - SnowflakeIdGenerator.EPOCH_MILLIS, timestampOf(after));
+    }
+
+    private static long timestampOf(long id) {
+        return id >>> SnowflakeIdGenerator.TIMESTAMP_SHIFT;
+    }
+
+    private static long nodeOf(long id) {
+        return (id >>> 7) & 31;
+    }
+
+    private static long sequenceOf(long id) {
+        return id & 127;
+    }
+}